@@ -2,6 +2,7 @@ package cl.ufro.bioren_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import cl.ufro.bioren_backend.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
+@EnableScheduling
 public class BiorenBackendApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,61 @@
+package cl.ufro.bioren_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Enrutamiento de lecturas a una réplica de la base de datos.
+ * Solo se activa si se define bioren.datasource.replica.url; sin ella se usa el DataSource
+ * autoconfigurado de Spring Boot contra el primario.
+ * Las transacciones @Transactional(readOnly = true) obtienen su conexión del pool de la réplica
+ * y el resto del primario. La conexión se pide recién en la primera sentencia, cuando el
+ * administrador de transacciones ya marcó si es de solo lectura.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bioren.datasource.replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    /** Pool del primario, configurado con spring.datasource.* y spring.datasource.hikari.* */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /** Conexión a la réplica: bioren.datasource.replica.url, username, password, driver-class-name */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("bioren.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /** Pool de la réplica, configurado con bioren.datasource.replica.hikari.* */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("bioren.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replica);
+        return dataSource;
+    }
+}
@@ -1,13 +1,16 @@
 package cl.ufro.bioren_backend.config;
 
+import cl.ufro.bioren_backend.security.BoundedPasswordEncoder;
 import cl.ufro.bioren_backend.security.JwtAuthenticationFilter;
 import io.jsonwebtoken.lang.Arrays;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,7 +19,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -41,7 +43,7 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of("http://localhost:5173"));
         config.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setExposedHeaders(List.of("Authorization", "Link", "X-Next-Cursor"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
@@ -59,6 +61,8 @@ public class SecurityConfig {
           .authorizeHttpRequests(auth -> auth
               .requestMatchers("/api/auth/**").permitAll()
               .requestMatchers("/api/invitations/**").permitAll()
+              .requestMatchers("/actuator/health").permitAll()
+              .requestMatchers("/actuator/**").hasRole("BIOREN_ADMIN")
               .requestMatchers("/api/admin/**").hasRole("BIOREN_ADMIN")
               .requestMatchers("/api/unit/**").hasAnyRole("UNIT_MANAGER","BIOREN_ADMIN")
               .requestMatchers("/api/equipment/**").authenticated()
@@ -70,8 +74,17 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt con costo configurable, ejecutado en un pool acotado para que una ráfaga de logins
+     * no deje sin hilos ni CPU al resto de la API. Los hashes con un costo menor al configurado
+     * se recalculan al iniciar sesión (ver upgradeEncoding).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${bioren.security.bcrypt.strength:10}") int strength,
+                                                  @Value("${bioren.security.bcrypt.threads:0}") int threads,
+                                                  @Value("${bioren.security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${bioren.security.bcrypt.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeout);
     }
 }
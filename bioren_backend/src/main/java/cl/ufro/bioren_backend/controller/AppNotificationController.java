@@ -1,15 +1,26 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.NotificationSelection;
 import cl.ufro.bioren_backend.model.AppNotification;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.security.UserPrincipal;
 import cl.ufro.bioren_backend.service.AppNotificationService;
+import cl.ufro.bioren_backend.service.NotificationHub;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de notificaciones.
@@ -19,18 +30,77 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AppNotificationController {
     private final AppNotificationService notificationService;
+    private final NotificationHub notificationHub;
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
 
     /**
-     * Obtiene todas las notificaciones relevantes para el usuario autenticado.
+     * Obtiene una página de la bandeja del usuario autenticado, de la más reciente a la más antigua
+     * (unread=true para solo las no leídas). Como en /api/equipment, la paginación es por cursor:
+     * la respuesta incluye las cabeceras Link (rel="next") y X-Next-Cursor cuando hay más.
      */
     @GetMapping
-    public List<AppNotification> getAll(@AuthenticationPrincipal UserPrincipal principal) {
+    public ResponseEntity<List<AppNotification>> getAll(@AuthenticationPrincipal UserPrincipal principal,
+                                                        @RequestParam(defaultValue = "false") boolean unread,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        User user = principalToUser(principal);
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        CursorPage<AppNotification> page;
+        try {
+            page = notificationService.getInbox(user, unread, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (!page.hasNext()) {
+            return ResponseEntity.ok(page.items());
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .header(EquipmentController.NEXT_CURSOR_HEADER, page.nextCursor())
+                .body(page.items());
+    }
+
+    /**
+     * Cantidad de notificaciones no leídas del usuario autenticado (para el indicador de la interfaz).
+     * Lee el contador mantenido, sin recorrer la bandeja.
+     */
+    @GetMapping("/unread-count")
+    public Map<String, Long> getUnreadCount(@AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return notificationService.getAll(user);
+        return Map.of("count", notificationService.getUnreadCount(user));
+    }
+
+    /**
+     * Canal Server-Sent Events con las notificaciones nuevas del usuario autenticado (evento
+     * "notification", con la seq de la notificación en la bandeja como id del evento). Al reconectarse, el cliente
+     * envía Last-Event-ID y recibe las que se perdió; con el evento "resync" debe recargar la bandeja.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserPrincipal principal,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long afterId = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                afterId = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID inválido");
+            }
+        }
+        try {
+            return notificationHub.subscribe(principal.getId(), afterId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
     }
 
     /**
-     * Marca una notificación como leída.
+     * Marca como leída una notificación del usuario autenticado.
      */
     @PutMapping("/{id}/read")
     public AppNotification markAsRead(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
@@ -38,6 +108,36 @@ public class AppNotificationController {
         return notificationService.markAsRead(id, user);
     }
 
+    /**
+     * Marca como leídas varias notificaciones del usuario autenticado: por ids o todas las anteriores
+     * a before. Responde con la cantidad que pasó a leída.
+     */
+    @PutMapping("/read")
+    public Map<String, Integer> markAsRead(@RequestBody NotificationSelection selection,
+                                           @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        try {
+            return Map.of("updated", notificationService.markAsRead(selection, user));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina varias notificaciones de la bandeja del usuario autenticado: por ids o todas las
+     * anteriores a before. Responde con la cantidad eliminada.
+     */
+    @DeleteMapping
+    public Map<String, Integer> deleteFromInbox(@RequestBody NotificationSelection selection,
+                                                @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        try {
+            return Map.of("deleted", notificationService.deleteFromInbox(selection, user));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Elimina una notificación (solo admin).
      */
@@ -3,11 +3,14 @@ package cl.ufro.bioren_backend.controller;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.repository.UserRepository;
 import cl.ufro.bioren_backend.security.JwtService;
+import cl.ufro.bioren_backend.security.LoginThrottle;
+import cl.ufro.bioren_backend.security.PasswordHashingBusyException;
 import cl.ufro.bioren_backend.service.PasswordResetService;
-import jakarta.mail.MessagingException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -23,25 +26,55 @@ public class AuthController {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final PasswordResetService passwordResetService;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Endpoint de login: recibe email y retorna JWT si el usuario existe.
+     * Si el hash guardado usa un costo de BCrypt menor al configurado, se recalcula con la contraseña recibida.
+     * getRemoteAddr es la IP del cliente tras un proxy de confianza (ver server.forward-headers-strategy).
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        long retryAfter = loginThrottle.tryAcquire(request.getEmail(), httpRequest.getRemoteAddr());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         User user = userRepository.findByEmail(request.getEmail());
         if (user == null || !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             return ResponseEntity.status(401).body("Usuario o contraseña incorrectos");
         }
-        String token = jwtService.generateToken(user.getEmail(), user.getRole().name());
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            rehashPassword(user, request.getPassword());
+        }
+        String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new LoginResponse(token, user));
     }
 
+    /** Respuesta para intentos rechazados por LoginThrottle, sin consultar la base ni calcular hashes */
+    private static ResponseEntity<?> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("Demasiados intentos, intenta nuevamente más tarde");
+    }
+
+    private void rehashPassword(User user, String rawPassword) {
+        try {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.save(user);
+        } catch (PasswordHashingBusyException e) {
+            // El login ya fue válido: el hash se actualizará en el próximo inicio de sesión
+        }
+    }
+
     /**
      * Endpoint para solicitar recuperación de contraseña.
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest req) throws MessagingException {
+    public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest req, HttpServletRequest httpRequest) {
+        long retryAfter = loginThrottle.tryAcquire(req.getEmail(), httpRequest.getRemoteAddr());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         User user = userRepository.findByEmail(req.getEmail());
         if (user == null) {
             return ResponseEntity.status(404).body("Usuario no encontrado");
@@ -0,0 +1,36 @@
+package cl.ufro.bioren_backend.controller;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.service.EmailOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Estado de entrega de los correos de la bandeja de salida (solo admin, vía /api/admin/**).
+ */
+@RestController
+@RequestMapping("/api/admin/email-outbox")
+@RequiredArgsConstructor
+public class EmailOutboxController {
+    private final EmailOutboxService emailOutboxService;
+
+    /**
+     * Últimos correos, opcionalmente filtrados por estado (PENDING, SENDING, SENT, FAILED).
+     */
+    @GetMapping
+    public List<EmailOutbox> getLatest(@RequestParam(required = false) EmailStatus status,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        return emailOutboxService.getLatest(status, limit);
+    }
+
+    /**
+     * Estado de un correo.
+     */
+    @GetMapping("/{id}")
+    public EmailOutbox getById(@PathVariable Long id) {
+        return emailOutboxService.getById(id);
+    }
+}
@@ -1,15 +1,37 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.dto.EquipmentImportResult;
+import cl.ufro.bioren_backend.dto.EquipmentSort;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.security.UserPrincipal;
+import cl.ufro.bioren_backend.service.EquipmentImportService;
 import cl.ufro.bioren_backend.service.EquipmentService;
+import cl.ufro.bioren_backend.service.InventoryExportService;
+import cl.ufro.bioren_backend.service.MaintenanceRecordService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,18 +42,73 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/equipment")
 @RequiredArgsConstructor
 public class EquipmentController {
+    /** Cabecera con el cursor de la página siguiente (ausente en la última página) */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
     private final EquipmentService equipmentService;
+    private final MaintenanceRecordService maintenanceRecordService;
+    private final EquipmentImportService equipmentImportService;
+    private final InventoryExportService inventoryExportService;
 
     /**
-     * Obtiene todos los equipos visibles para el usuario autenticado.
+     * Obtiene una página de equipos visibles para el usuario autenticado.
+     * La paginación es por cursor: la respuesta incluye las cabeceras Link (rel="next")
+     * y X-Next-Cursor cuando existe una página siguiente. Cada elemento es una proyección
+     * liviana sin historial de mantenimiento. Se puede filtrar por status (OK, Advertencia, Vencido)
+     * y por próxima mantención anterior a dueBefore.
      */
     @GetMapping
-    public List<Equipment.EquipmentDTO> getAll(@AuthenticationPrincipal UserPrincipal principal) {
+    public ResponseEntity<List<EquipmentSummaryDTO>> getAll(@AuthenticationPrincipal UserPrincipal principal,
+                                                            @RequestParam(required = false) String sort,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(required = false) String status,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueBefore) {
         User user = principalToUser(principal);
-        List<Equipment> equipos = equipmentService.getAllEquipments(user);
-        // Calcular próxima mantención y status para cada equipo
-        equipos.forEach(Equipment::calcularProximaMantencionYStatus);
-        return equipos.stream().map(this::toDTO).collect(Collectors.toList());
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        CursorPage<EquipmentSummaryDTO> page;
+        try {
+            EquipmentFilter filter = EquipmentFilter.of(status, dueBefore, LocalDate.now());
+            page = equipmentService.getEquipmentPage(user, EquipmentSort.fromParam(sort), filter, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        List<EquipmentSummaryDTO> body = page.items();
+        if (!page.hasNext()) {
+            return ResponseEntity.ok(body);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .header(NEXT_CURSOR_HEADER, page.nextCursor())
+                .body(body);
+    }
+
+    /**
+     * Exporta el inventario visible con su historial de mantenimiento (format=csv o xlsx).
+     * La respuesta se escribe a medida que se leen las filas, sin cargarlas en memoria.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@AuthenticationPrincipal UserPrincipal principal,
+                                                        @RequestParam(required = false) String format) {
+        User user = principalToUser(principal);
+        InventoryExportService.Format exportFormat;
+        try {
+            exportFormat = InventoryExportService.Format.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody body = out -> inventoryExportService.export(user, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventario." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     /**
@@ -40,9 +117,16 @@ public class EquipmentController {
     @GetMapping("/{id}")
     public Equipment.EquipmentDTO getById(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        Equipment eq = equipmentService.getEquipmentById(id, user);
-        eq.calcularProximaMantencionYStatus();
-        return toDTO(eq);
+        return toDTO(equipmentService.getEquipmentById(id, user));
+    }
+
+    /**
+     * Obtiene el historial de mantenimiento de un equipo.
+     */
+    @GetMapping("/{id}/maintenance")
+    public List<MaintenanceRecordResponseDTO> getMaintenanceHistory(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        return maintenanceRecordService.getByEquipment(id, user);
     }
 
     /**
@@ -50,9 +134,26 @@ public class EquipmentController {
      */
     @PostMapping
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public Equipment create(@RequestBody Equipment equipment, @AuthenticationPrincipal UserPrincipal principal) {
+    public Equipment.EquipmentDTO create(@RequestBody Equipment equipment, @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        return toDTO(equipmentService.createEquipment(equipment, user));
+    }
+
+    /**
+     * Importa equipos desde un CSV (solo admin o jefe de unidad, que importa en su unidad).
+     * Devuelve la cantidad importada y el detalle de las filas rechazadas.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
+    public EquipmentImportResult importCsv(@RequestParam("file") MultipartFile file, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return equipmentService.createEquipment(equipment, user);
+        try (InputStream input = file.getInputStream()) {
+            return equipmentImportService.importCsv(input, user);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV inválido: " + e.getMessage());
+        }
     }
 
     /**
@@ -60,9 +161,9 @@ public class EquipmentController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public Equipment update(@PathVariable Long id, @RequestBody Equipment equipment, @AuthenticationPrincipal UserPrincipal principal) {
+    public Equipment.EquipmentDTO update(@PathVariable Long id, @RequestBody Equipment equipment, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return equipmentService.updateEquipment(id, equipment, user);
+        return toDTO(equipmentService.updateEquipment(id, equipment, user));
     }
 
     /**
@@ -111,7 +212,6 @@ public class EquipmentController {
             eq.getLastMaintenanceDate(),
             encargadoDTO,
             eq.getMaintenanceFrequency(),
-            eq.getMaintenanceRecords(),
             eq.getCustomMaintenanceInstructions(),
             eq.getCriticality(),
             eq.getStatus(),
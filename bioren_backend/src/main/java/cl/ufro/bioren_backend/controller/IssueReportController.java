@@ -26,9 +26,7 @@ public class IssueReportController {
     @GetMapping
     public List<cl.ufro.bioren_backend.dto.IssueReportResponseDTO> getAll(@AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return issueReportService.getAll(user).stream()
-                .map(issueReportService::toDTO)
-                .toList();
+        return issueReportService.getAll(user);
     }
 
     /**
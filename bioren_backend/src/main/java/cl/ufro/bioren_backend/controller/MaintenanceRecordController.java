@@ -1,5 +1,6 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
 import cl.ufro.bioren_backend.model.MaintenanceRecord;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.security.UserPrincipal;
@@ -24,7 +25,7 @@ public class MaintenanceRecordController {
      * Obtiene todos los registros de mantenimiento visibles para el usuario autenticado.
      */
     @GetMapping
-    public List<MaintenanceRecord> getAll(@AuthenticationPrincipal UserPrincipal principal) {
+    public List<MaintenanceRecordResponseDTO> getAll(@AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
         return maintenanceRecordService.getAll(user);
     }
@@ -33,9 +34,9 @@ public class MaintenanceRecordController {
      * Obtiene un registro de mantenimiento por su ID.
      */
     @GetMapping("/{id}")
-    public MaintenanceRecord getById(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+    public MaintenanceRecordResponseDTO getById(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return maintenanceRecordService.getById(id, user);
+        return maintenanceRecordService.toDTO(maintenanceRecordService.getById(id, user));
     }
 
     /**
@@ -43,9 +44,9 @@ public class MaintenanceRecordController {
      */
     @PostMapping
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public MaintenanceRecord create(@RequestBody MaintenanceRecord mr, @AuthenticationPrincipal UserPrincipal principal) {
+    public MaintenanceRecordResponseDTO create(@RequestBody MaintenanceRecord mr, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return maintenanceRecordService.create(mr, user);
+        return maintenanceRecordService.toDTO(maintenanceRecordService.create(mr, user));
     }
 
     /**
@@ -53,9 +54,9 @@ public class MaintenanceRecordController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public MaintenanceRecord update(@PathVariable Long id, @RequestBody MaintenanceRecord mr, @AuthenticationPrincipal UserPrincipal principal) {
+    public MaintenanceRecordResponseDTO update(@PathVariable Long id, @RequestBody MaintenanceRecord mr, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
-        return maintenanceRecordService.update(id, mr, user);
+        return maintenanceRecordService.toDTO(maintenanceRecordService.update(id, mr, user));
     }
 
     /**
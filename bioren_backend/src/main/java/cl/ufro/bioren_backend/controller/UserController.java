@@ -1,18 +1,30 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.UserImportResult;
+import cl.ufro.bioren_backend.dto.UserImportRow;
+import cl.ufro.bioren_backend.model.EmailStatus;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.security.UserPrincipal;
 import cl.ufro.bioren_backend.service.InvitationService;
+import cl.ufro.bioren_backend.service.UserImportService;
 import cl.ufro.bioren_backend.service.UserService;
-import jakarta.mail.MessagingException;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de usuarios.
@@ -24,6 +36,7 @@ public class UserController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final InvitationService invitationService;
+    private final UserImportService userImportService;
 
     /**
      * Obtiene todos los usuarios visibles para el usuario autenticado.
@@ -48,7 +61,7 @@ public class UserController {
      */
     @PostMapping
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public User create(@RequestBody User newUser, @AuthenticationPrincipal UserPrincipal principal) throws MessagingException {
+    public User create(@RequestBody User newUser, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
         // Crear usuario deshabilitado, sin contraseña
         newUser.setEnabled(false);
@@ -81,11 +94,15 @@ public class UserController {
 
     /**
      * Endpoint para cambiar la contraseña del usuario autenticado.
+     * La verificación y el hash de la nueva contraseña ocurren fuera de toda transacción.
      */
     @PostMapping("/change-password")
     public void changePassword(@RequestBody ChangePasswordRequest req, @AuthenticationPrincipal UserPrincipal principal) {
-        User user = principalToUser(principal);
-        userService.changePassword(user, req.getCurrentPassword(), req.getNewPassword(), passwordEncoder);
+        String currentHash = userService.getPasswordHash(principal.getId());
+        if (!passwordEncoder.matches(req.getCurrentPassword(), currentHash)) {
+            throw new AccessDeniedException("La contraseña actual es incorrecta");
+        }
+        userService.updatePassword(principal.getId(), passwordEncoder.encode(req.getNewPassword()));
     }
 
     /**
@@ -93,12 +110,57 @@ public class UserController {
      */
     @PostMapping("/{id}/resend-invitation")
     @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
-    public void resendInvitation(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) throws MessagingException {
+    public void resendInvitation(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
         User user = principalToUser(principal);
         User target = userService.getUserById(id, user);
         invitationService.createAndSendInvitation(target);
     }
 
+    /**
+     * Alta masiva de usuarios desde un CSV (columnas email, name, role, unit; solo admin o jefe de unidad,
+     * que crea en su unidad). Responde sin esperar el envío de las invitaciones.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public UserImportResult importCsv(@RequestParam("file") MultipartFile file, @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        try (InputStream input = file.getInputStream()) {
+            return userImportService.importCsv(input, user);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo CSV inválido: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Alta masiva de usuarios desde un arreglo JSON con los mismos campos que el CSV.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public UserImportResult importJson(@RequestBody List<UserImportRow> rows, @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        try {
+            return userImportService.importRows(rows, user);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Estado de entrega de las invitaciones de una importación: cantidad de correos por estado.
+     * Solo para quien hizo la importación o el administrador; para el resto responde 404.
+     */
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('BIOREN_ADMIN') or hasRole('UNIT_MANAGER')")
+    public Map<EmailStatus, Long> getImportStatus(@PathVariable String jobId, @AuthenticationPrincipal UserPrincipal principal) {
+        User user = principalToUser(principal);
+        return userImportService.getImportStatus(jobId, user)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Importación no encontrada"));
+    }
+
     @Data
     public static class ChangePasswordRequest {
         private String currentPassword;
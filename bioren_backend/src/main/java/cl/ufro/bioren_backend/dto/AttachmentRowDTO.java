@@ -0,0 +1,8 @@
+package cl.ufro.bioren_backend.dto;
+
+/**
+ * Fila de adjunto proyectada junto al identificador de su dueño (registro o incidencia).
+ * Permite cargar los adjuntos de un listado completo en una sola consulta.
+ */
+public record AttachmentRowDTO(Long ownerId, String name, String url) {
+}
@@ -0,0 +1,13 @@
+package cl.ufro.bioren_backend.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida por paginación por cursor (keyset).
+ * nextCursor es null cuando no quedan más elementos.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
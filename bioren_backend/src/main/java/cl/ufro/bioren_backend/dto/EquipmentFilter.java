@@ -0,0 +1,54 @@
+package cl.ufro.bioren_backend.dto;
+
+import cl.ufro.bioren_backend.model.Equipment;
+
+import java.time.LocalDate;
+
+/**
+ * Filtro del listado de equipos expresado como rango sobre next_maintenance_date,
+ * para que se resuelva con un rango del índice (location_unit, next_maintenance_date).
+ * El status de un equipo depende solo de esa fecha (ver Equipment.calcularStatus),
+ * por lo que cada status equivale a un rango [dueFrom, dueBefore).
+ *
+ * @param dueFrom         límite inferior inclusivo
+ * @param dueBefore       límite superior exclusivo
+ * @param includeUndated  si se incluyen equipos sin próxima mantención (status OK)
+ */
+public record EquipmentFilter(LocalDate dueFrom, LocalDate dueBefore, boolean includeUndated) {
+    /** Límites del tipo DATE de MariaDB */
+    static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    /** Sin filtro: todos los equipos */
+    public static final EquipmentFilter ALL = new EquipmentFilter(MIN_DATE, MAX_DATE, true);
+
+    /**
+     * Rango equivalente a un status para la fecha dada.
+     *
+     * @throws IllegalArgumentException si el status no existe
+     */
+    public static EquipmentFilter forStatus(String status, LocalDate today) {
+        LocalDate warningLimit = today.plusMonths(1);
+        if (Equipment.STATUS_OVERDUE.equalsIgnoreCase(status)) {
+            return new EquipmentFilter(MIN_DATE, today, false);
+        } else if (Equipment.STATUS_WARNING.equalsIgnoreCase(status)) {
+            return new EquipmentFilter(today, warningLimit, false);
+        } else if (Equipment.STATUS_OK.equalsIgnoreCase(status)) {
+            return new EquipmentFilter(warningLimit, MAX_DATE, true);
+        }
+        throw new IllegalArgumentException("Status no soportado: " + status);
+    }
+
+    /**
+     * Construye el filtro a partir de los parámetros de la API (ambos opcionales).
+     * dueBefore deja fuera a los equipos sin próxima mantención.
+     */
+    public static EquipmentFilter of(String status, LocalDate dueBefore, LocalDate today) {
+        EquipmentFilter filter = status == null || status.isBlank() ? ALL : forStatus(status, today);
+        if (dueBefore == null) {
+            return filter;
+        }
+        LocalDate upper = dueBefore.isBefore(filter.dueBefore) ? dueBefore : filter.dueBefore;
+        return new EquipmentFilter(filter.dueFrom, upper, false);
+    }
+}
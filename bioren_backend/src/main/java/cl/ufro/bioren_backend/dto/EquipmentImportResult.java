@@ -0,0 +1,17 @@
+package cl.ufro.bioren_backend.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de equipos.
+ *
+ * @param imported cantidad de filas guardadas
+ * @param errors   filas rechazadas, con su número de línea en el archivo
+ */
+public record EquipmentImportResult(int imported, List<RowError> errors) {
+    /**
+     * Error de una fila del archivo importado.
+     */
+    public record RowError(long line, String institutionalId, String message) {
+    }
+}
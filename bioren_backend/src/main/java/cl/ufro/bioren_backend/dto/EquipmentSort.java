@@ -0,0 +1,37 @@
+package cl.ufro.bioren_backend.dto;
+
+/**
+ * Criterios de orden soportados por el listado paginado de equipos.
+ * Cada criterio corresponde a una clave de keyset única.
+ */
+public enum EquipmentSort {
+    /** Orden por (nextMaintenanceDate, id); los equipos sin fecha van primero */
+    NEXT_MAINTENANCE_DATE("nextMaintenanceDate"),
+    /** Orden por institutionalId (único) */
+    INSTITUTIONAL_ID("institutionalId");
+
+    private final String param;
+
+    EquipmentSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Obtiene el criterio a partir del nombre usado en la API.
+     */
+    public static EquipmentSort fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return INSTITUTIONAL_ID;
+        }
+        for (EquipmentSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Orden no soportado: " + param);
+    }
+}
@@ -0,0 +1,68 @@
+package cl.ufro.bioren_backend.dto;
+
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.EquipmentCriticality;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
+import cl.ufro.bioren_backend.model.UserRole;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección liviana de un equipo para los listados.
+ * Contiene solo las columnas que muestra la interfaz; el historial de mantenimiento
+ * se obtiene aparte en GET /api/equipment/{id}/maintenance.
+ */
+@Data
+@NoArgsConstructor
+public class EquipmentSummaryDTO {
+    private Long id;
+    private String institutionalId;
+    private String name;
+    private String brand;
+    private String model;
+    private String locationBuilding;
+    private String locationUnit;
+    private LocalDate lastCalibrationDate;
+    private LocalDate lastMaintenanceDate;
+    private Equipment.UserDTO encargado;
+    private Equipment.MaintenanceFrequency maintenanceFrequency;
+    private EquipmentCriticality criticality;
+    private String status;
+    private LocalDate nextMaintenanceDate;
+    private Boolean purchasedByGovernment;
+
+    /**
+     * Constructor usado por las proyecciones JPQL de EquipmentRepository.
+     */
+    public EquipmentSummaryDTO(Long id, String institutionalId, String name, String brand, String model,
+                               String locationBuilding, String locationUnit,
+                               LocalDate lastCalibrationDate, LocalDate lastMaintenanceDate,
+                               Integer frequencyValue, MaintenanceFrequencyUnit frequencyUnit,
+                               EquipmentCriticality criticality, String status, LocalDate nextMaintenanceDate,
+                               Boolean purchasedByGovernment,
+                               Long encargadoId, String encargadoName, String encargadoEmail,
+                               UserRole encargadoRole, String encargadoUnit) {
+        this.id = id;
+        this.institutionalId = institutionalId;
+        this.name = name;
+        this.brand = brand;
+        this.model = model;
+        this.locationBuilding = locationBuilding;
+        this.locationUnit = locationUnit;
+        this.lastCalibrationDate = lastCalibrationDate;
+        this.lastMaintenanceDate = lastMaintenanceDate;
+        this.criticality = criticality;
+        this.purchasedByGovernment = purchasedByGovernment;
+        this.status = status;
+        this.nextMaintenanceDate = nextMaintenanceDate;
+        if (frequencyValue != null || frequencyUnit != null) {
+            this.maintenanceFrequency = new Equipment.MaintenanceFrequency(frequencyValue != null ? frequencyValue : 0, frequencyUnit);
+        }
+        if (encargadoId != null) {
+            this.encargado = new Equipment.UserDTO(encargadoId, encargadoName, encargadoEmail,
+                    encargadoRole != null ? encargadoRole.name() : null, encargadoUnit);
+        }
+    }
+}
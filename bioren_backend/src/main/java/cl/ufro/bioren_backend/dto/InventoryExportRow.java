@@ -0,0 +1,31 @@
+package cl.ufro.bioren_backend.dto;
+
+import cl.ufro.bioren_backend.model.EquipmentCriticality;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fila plana de la exportación de inventario: un equipo con uno de sus registros de mantenimiento.
+ * Los equipos sin historial aparecen una vez, con las columnas de mantenimiento vacías.
+ */
+public record InventoryExportRow(Long equipmentId, String institutionalId, String name, String brand, String model,
+                                 String locationBuilding, String locationUnit, EquipmentCriticality criticality,
+                                 String status, LocalDate lastCalibrationDate, LocalDate lastMaintenanceDate,
+                                 LocalDate nextMaintenanceDate, String encargadoEmail,
+                                 LocalDate maintenanceDate, String maintenanceDescription, String performedBy) {
+
+    public static final List<String> HEADER = List.of("equipmentId", "institutionalId", "name", "brand", "model",
+            "locationBuilding", "locationUnit", "criticality", "status", "lastCalibrationDate", "lastMaintenanceDate",
+            "nextMaintenanceDate", "encargadoEmail", "maintenanceDate", "maintenanceDescription", "performedBy");
+
+    /**
+     * Valores en el orden de HEADER (null para celdas vacías).
+     */
+    public List<Object> values() {
+        return Arrays.asList(equipmentId, institutionalId, name, brand, model, locationBuilding, locationUnit,
+                criticality, status, lastCalibrationDate, lastMaintenanceDate, nextMaintenanceDate, encargadoEmail,
+                maintenanceDate, maintenanceDescription, performedBy);
+    }
+}
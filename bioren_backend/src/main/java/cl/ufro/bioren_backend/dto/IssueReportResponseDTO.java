@@ -1,6 +1,9 @@
 package cl.ufro.bioren_backend.dto;
 
+import cl.ufro.bioren_backend.model.IssueSeverity;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class IssueReportResponseDTO {
@@ -13,6 +16,32 @@ public class IssueReportResponseDTO {
     private List<AttachmentDTO> attachments;
     private String status;
 
+    public IssueReportResponseDTO() {}
+
+    /**
+     * Constructor usado por las proyecciones JPQL de IssueReportRepository.
+     * Los adjuntos se cargan aparte y se asignan con setAttachments.
+     */
+    public IssueReportResponseDTO(Long id, String reportedBy, LocalDateTime dateTime, String description,
+                                  IssueSeverity severity, String status,
+                                  Long equipmentId, String equipmentName, String equipmentBrand, String equipmentModel) {
+        this.id = id;
+        this.reportedBy = reportedBy;
+        this.dateTime = dateTime;
+        this.description = description;
+        this.severity = severity != null ? severity.name() : null;
+        this.status = status;
+        this.attachments = new ArrayList<>();
+        if (equipmentId != null) {
+            EquipmentDTO eq = new EquipmentDTO();
+            eq.setId(equipmentId);
+            eq.setName(equipmentName);
+            eq.setBrand(equipmentBrand);
+            eq.setModel(equipmentModel);
+            this.equipment = eq;
+        }
+    }
+
     // Getters y setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,56 @@
+package cl.ufro.bioren_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO liviano de un registro de mantenimiento para los listados.
+ * Solo incluye los datos básicos del equipo asociado, sin su historial.
+ */
+@Data
+@NoArgsConstructor
+public class MaintenanceRecordResponseDTO {
+    private Long id;
+    private LocalDate date;
+    private String description;
+    private String performedBy;
+    private List<AttachmentDTO> attachments = new ArrayList<>();
+    private EquipmentDTO equipment;
+
+    /**
+     * Constructor usado por las proyecciones JPQL de MaintenanceRecordRepository.
+     */
+    public MaintenanceRecordResponseDTO(Long id, LocalDate date, String description, String performedBy,
+                                        Long equipmentId, String equipmentName, String institutionalId, String locationUnit) {
+        this.id = id;
+        this.date = date;
+        this.description = description;
+        this.performedBy = performedBy;
+        if (equipmentId != null) {
+            this.equipment = new EquipmentDTO(equipmentId, equipmentName, institutionalId, locationUnit);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EquipmentDTO {
+        private Long id;
+        private String name;
+        private String institutionalId;
+        private String locationUnit;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AttachmentDTO {
+        private String name;
+        private String url;
+    }
+}
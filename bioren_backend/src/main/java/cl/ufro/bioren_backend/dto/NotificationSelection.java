@@ -0,0 +1,11 @@
+package cl.ufro.bioren_backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Notificaciones de la bandeja a las que se aplica una operación masiva: por ids, o todas las
+ * anteriores a before (exclusivo). Se indica solo uno de los dos.
+ */
+public record NotificationSelection(List<Long> ids, LocalDateTime before) {
+}
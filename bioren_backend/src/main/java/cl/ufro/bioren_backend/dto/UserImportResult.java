@@ -0,0 +1,21 @@
+package cl.ufro.bioren_backend.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de usuarios.
+ * Las invitaciones se envían en segundo plano; su estado se consulta con jobId.
+ *
+ * @param jobId   identificador de la importación
+ * @param created cantidad de usuarios creados
+ * @param rows    resultado de cada fila, en el orden recibido
+ */
+public record UserImportResult(String jobId, int created, List<RowResult> rows) {
+    /**
+     * Resultado de una fila: el id del usuario creado, o el motivo del rechazo.
+     *
+     * @param line número de línea en el CSV, o posición (desde 1) en el arreglo JSON
+     */
+    public record RowResult(long line, String email, Long userId, String error) {
+    }
+}
@@ -0,0 +1,8 @@
+package cl.ufro.bioren_backend.dto;
+
+/**
+ * Fila de una importación masiva de usuarios (JSON o CSV con las mismas columnas).
+ * role es opcional (EQUIPMENT_MANAGER por defecto).
+ */
+public record UserImportRow(String email, String name, String role, String unit) {
+}
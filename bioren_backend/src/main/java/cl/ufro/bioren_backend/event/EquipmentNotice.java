@@ -0,0 +1,9 @@
+package cl.ufro.bioren_backend.event;
+
+/**
+ * Aviso para los responsables de un equipo (su encargado y los jefes de su unidad, y los
+ * administradores si includeAdmins), salvo el usuario que originó el cambio.
+ */
+public record EquipmentNotice(EquipmentRef equipment, String type, String message, String details, String link,
+                              boolean includeAdmins, Long actorId) {
+}
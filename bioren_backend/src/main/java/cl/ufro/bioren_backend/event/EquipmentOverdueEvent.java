@@ -0,0 +1,9 @@
+package cl.ufro.bioren_backend.event;
+
+import java.util.List;
+
+/**
+ * Equipos que pasaron a status Vencido, en el recálculo diario o al editarlos.
+ */
+public record EquipmentOverdueEvent(List<EquipmentRef> equipments) {
+}
@@ -0,0 +1,23 @@
+package cl.ufro.bioren_backend.event;
+
+import cl.ufro.bioren_backend.model.Equipment;
+
+/**
+ * Datos del equipo que necesitan los eventos de dominio, copiados al publicarlos:
+ * el listener corre en otro hilo, sin la sesión de la transacción que originó el evento.
+ */
+public record EquipmentRef(Long id, String name, String institutionalId, String unit, Long encargadoId) {
+    public static EquipmentRef of(Equipment equipment) {
+        // Con el encargado aún sin cargar, getId() del proxy no consulta la base de datos
+        return new EquipmentRef(equipment.getId(), equipment.getName(), equipment.getInstitutionalId(),
+                equipment.getLocationUnit(), equipment.getEncargado() != null ? equipment.getEncargado().getId() : null);
+    }
+
+    /** Nombre para mostrar en los mensajes: nombre e id institucional */
+    public String label() {
+        if (institutionalId == null || institutionalId.isBlank()) {
+            return name;
+        }
+        return name + " (" + institutionalId + ")";
+    }
+}
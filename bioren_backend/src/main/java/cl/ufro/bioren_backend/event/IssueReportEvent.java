@@ -0,0 +1,14 @@
+package cl.ufro.bioren_backend.event;
+
+import cl.ufro.bioren_backend.model.IssueSeverity;
+
+/**
+ * Se creó una incidencia, o se actualizó cambiando su estado o pasando a severidad crítica.
+ *
+ * @param created     true si la incidencia es nueva
+ * @param escalated   true si una actualización la dejó en CRITICAL
+ * @param actorId     usuario que hizo el cambio (no se le notifica)
+ */
+public record IssueReportEvent(Long issueId, EquipmentRef equipment, IssueSeverity severity, String status,
+                               boolean created, boolean escalated, Long actorId) {
+}
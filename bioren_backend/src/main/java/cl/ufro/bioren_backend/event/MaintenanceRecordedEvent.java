@@ -0,0 +1,11 @@
+package cl.ufro.bioren_backend.event;
+
+import java.time.LocalDate;
+
+/**
+ * Se registró una mantención de un equipo.
+ *
+ * @param actorId usuario que la registró (no se le notifica)
+ */
+public record MaintenanceRecordedEvent(Long recordId, EquipmentRef equipment, LocalDate date, Long actorId) {
+}
@@ -0,0 +1,37 @@
+package cl.ufro.bioren_backend.export;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Escritor CSV (UTF-8) sobre commons-csv.
+ */
+public class CsvTabularWriter implements TabularWriter {
+    private final CSVPrinter printer;
+
+    public CsvTabularWriter(OutputStream out) throws IOException {
+        this.printer = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), CSVFormat.DEFAULT);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        printer.printRecord(values);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        printer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        printer.flush();
+    }
+}
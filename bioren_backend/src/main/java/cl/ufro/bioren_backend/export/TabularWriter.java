@@ -0,0 +1,16 @@
+package cl.ufro.bioren_backend.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escritor de filas hacia un flujo de salida, sin retener las filas ya escritas.
+ * close() completa el formato pero no cierra el flujo subyacente.
+ */
+public interface TabularWriter extends Closeable {
+    void writeRow(List<?> values) throws IOException;
+
+    /** Envía al cliente lo escrito hasta ahora */
+    void flush() throws IOException;
+}
@@ -0,0 +1,32 @@
+package cl.ufro.bioren_backend.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Particiona app_notification_archive por mes (RANGE COLUMNS sobre timestamp), para que la purga
+ * del archivo elimine particiones completas en lugar de borrar filas. Parte con una partición para
+ * lo anterior al mes actual y otra sin límite (pmax); NotificationArchivePartitions crea los meses
+ * siguientes. Es una migración Java porque solo aplica en MariaDB/MySQL: H2 no admite particiones.
+ */
+@Component
+public class V10__Partition_notification_archive extends BaseJavaMigration {
+    @Override
+    public void migrate(Context context) throws Exception {
+        String product = context.getConnection().getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (!product.contains("mariadb") && !product.contains("mysql")) {
+            return;
+        }
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("alter table app_notification_archive partition by range columns(timestamp) ("
+                    + "partition p_before values less than ('" + firstOfMonth + "'), "
+                    + "partition pmax values less than (maxvalue))");
+        }
+    }
+}
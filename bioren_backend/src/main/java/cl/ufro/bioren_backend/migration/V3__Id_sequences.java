@@ -0,0 +1,42 @@
+package cl.ufro.bioren_backend.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Crea las secuencias de identificadores que reemplazan a auto_increment.
+ * Con IDENTITY Hibernate debe ejecutar cada INSERT de inmediato para conocer el id, lo que
+ * impide agruparlos en lotes JDBC; con secuencias reserva bloques de 50 ids por consulta.
+ * Es una migración Java porque cada secuencia debe comenzar después del mayor id existente,
+ * y ni MariaDB ni H2 aceptan una subconsulta en "start with".
+ */
+@Component
+public class V3__Id_sequences extends BaseJavaMigration {
+    /** Debe coincidir con allocationSize de los @SequenceGenerator */
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String> TABLES = List.of(
+            "user", "equipment", "maintenance_record", "issue_report", "invitation_token", "app_notification");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long maxId;
+                try (ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                    rs.next();
+                    maxId = rs.getLong(1);
+                }
+                // El optimizador pooled de Hibernate usa el valor leído como límite superior del bloque,
+                // por lo que el primer id asignado será maxId + 1
+                statement.execute("create sequence " + table + "_seq start with " + (maxId + ALLOCATION_SIZE)
+                        + " increment by " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cl.ufro.bioren_backend.migration;
+
+import cl.ufro.bioren_backend.security.OneTimeToken;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reemplaza invitation_token.token (el JWT completo, varchar único) por token_hash, el SHA-256
+ * del token en binary(32) con índice único. Es una migración Java para calcular el hash de los
+ * tokens vigentes con el mismo algoritmo de la aplicación, de modo que los enlaces ya enviados sigan válidos.
+ */
+@Component
+public class V4__Hashed_one_time_tokens extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table invitation_token add column token_hash binary(" + OneTimeToken.HASH_LENGTH + ")");
+            try (ResultSet rs = statement.executeQuery("select id, token from invitation_token");
+                 PreparedStatement update = connection.prepareStatement("update invitation_token set token_hash = ? where id = ?")) {
+                while (rs.next()) {
+                    update.setBytes(1, OneTimeToken.hash(rs.getString(2)));
+                    update.setLong(2, rs.getLong(1));
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+            statement.execute("alter table invitation_token drop column token");
+            statement.execute("alter table invitation_token modify column token_hash binary(" + OneTimeToken.HASH_LENGTH + ") not null");
+            statement.execute("create unique index uk_invitation_token_hash on invitation_token (token_hash)");
+        }
+    }
+}
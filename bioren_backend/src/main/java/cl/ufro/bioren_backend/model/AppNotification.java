@@ -1,11 +1,12 @@
 package cl.ufro.bioren_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 /**
- * Entidad que representa una notificación de la aplicación.
+ * Entidad que representa una notificación de la aplicación, en la bandeja de un destinatario.
  */
 @Entity
 @Data
@@ -15,9 +16,16 @@ import java.time.LocalDateTime;
 public class AppNotification {
     /** Identificador único de la notificación */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_notification_id")
+    @SequenceGenerator(name = "app_notification_id", sequenceName = "app_notification_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Posición en la bandeja del destinatario (1, 2, 3...). A diferencia del id, sigue el orden de
+     * commit; es el id de los eventos SSE y el punto desde el que se reanuda con Last-Event-ID.
+     */
+    private Long seq;
+
     /** Tipo de notificación: info, warning, error, success */
     private String type;
 
@@ -31,8 +39,19 @@ public class AppNotification {
     private String link;
 
     /** Fecha y hora de la notificación */
-    private LocalDateTime timestamp;
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime timestamp = LocalDateTime.now();
 
     /** Indica si la notificación ha sido leída */
     private boolean isRead;
+
+    /** Usuario al que va dirigida; cada destinatario tiene su propia copia (y su propio estado de lectura) */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipient_id")
+    @JsonIgnore
+    private User recipient;
+
+    /** Unidad relacionada con la notificación (opcional) */
+    private String unit;
 } 
\ No newline at end of file
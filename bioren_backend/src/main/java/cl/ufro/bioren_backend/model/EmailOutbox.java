@@ -0,0 +1,57 @@
+package cl.ufro.bioren_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente o enviado de la bandeja de salida (ver EmailOutboxService).
+ */
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_id")
+    @SequenceGenerator(name = "email_outbox_id", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailStatus status;
+
+    /** Intentos de envío realizados */
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Próximo intento; mientras está en SENDING, vencimiento del lease del hilo que lo envía */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Error del último intento fallido */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /** Importación masiva que originó el correo (opcional) */
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,15 @@
+package cl.ufro.bioren_backend.model;
+
+/**
+ * Estado de entrega de un correo de la bandeja de salida.
+ */
+public enum EmailStatus {
+    /** En espera de su próximo intento */
+    PENDING,
+    /** Tomado por un hilo de envío (hasta que vence su lease) */
+    SENDING,
+    /** Entregado al servidor SMTP */
+    SENT,
+    /** Se agotaron los intentos */
+    FAILED
+}
@@ -9,14 +9,20 @@ import java.util.List;
  * Entidad que representa un equipo institucional.
  */
 @Entity
+@NamedEntityGraph(name = "Equipment.encargado", attributeNodes = @NamedAttributeNode("encargado"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Equipment {
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_WARNING = "Advertencia";
+    public static final String STATUS_OVERDUE = "Vencido";
+
     /** Identificador único institucional del equipo */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "equipment_id")
+    @SequenceGenerator(name = "equipment_id", sequenceName = "equipment_seq", allocationSize = 50)
     private Long id;
 
     /** Nombre del equipo */
@@ -67,10 +73,10 @@ public class Equipment {
     @Enumerated(EnumType.STRING)
     private EquipmentCriticality criticality;
 
-    /** Estado calculado del equipo (OK, Advertencia, Vencido) */
+    /** Estado calculado y persistido del equipo (OK, Advertencia, Vencido) */
     private String status;
 
-    /** Fecha del próximo mantenimiento (calculada) */
+    /** Fecha del próximo mantenimiento (calculada y persistida) */
     private LocalDate nextMaintenanceDate;
 
     /** Indica si fue adquirido por el gobierno (opcional) */
@@ -79,39 +85,48 @@ public class Equipment {
     /**
      * Calcula la próxima mantención y el status del equipo.
      * Si no hay lastMaintenanceDate, usa createdDate.
+     * Se ejecuta antes de cada inserción o actualización, por lo que ambos valores quedan persistidos.
      */
+    @PrePersist
+    @PreUpdate
     public void calcularProximaMantencionYStatus() {
-        LocalDate baseDate = this.lastMaintenanceDate != null ? this.lastMaintenanceDate : this.createdDate;
-        if (baseDate != null && this.maintenanceFrequency != null && this.maintenanceFrequency.getValue() > 0 && this.maintenanceFrequency.getUnit() != null) {
-            LocalDate nextDate = null;
-            switch (this.maintenanceFrequency.getUnit()) {
-                case DAYS:
-                    nextDate = baseDate.plusDays(this.maintenanceFrequency.getValue());
-                    break;
-                case WEEKS:
-                    nextDate = baseDate.plusWeeks(this.maintenanceFrequency.getValue());
-                    break;
-                case MONTHS:
-                    nextDate = baseDate.plusMonths(this.maintenanceFrequency.getValue());
-                    break;
-                case YEARS:
-                    nextDate = baseDate.plusYears(this.maintenanceFrequency.getValue());
-                    break;
-            }
-            this.nextMaintenanceDate = nextDate;
-            if (nextDate != null) {
-                LocalDate today = LocalDate.now();
-                LocalDate oneMonthFromNow = today.plusMonths(1);
-                if (nextDate.isBefore(today)) this.status = "Vencido";
-                else if (nextDate.isBefore(oneMonthFromNow)) this.status = "Advertencia";
-                else this.status = "OK";
-            } else {
-                this.status = "OK";
-            }
-        } else {
-            this.nextMaintenanceDate = null;
-            this.status = "OK";
+        this.nextMaintenanceDate = calcularProximaMantencion(this.lastMaintenanceDate, this.createdDate, this.maintenanceFrequency);
+        this.status = calcularStatus(this.nextMaintenanceDate);
+    }
+
+    /**
+     * Calcula la fecha de la próxima mantención a partir de la última (o de la creación) y la frecuencia.
+     * Retorna null si no hay datos suficientes.
+     */
+    public static LocalDate calcularProximaMantencion(LocalDate lastMaintenanceDate, LocalDate createdDate, MaintenanceFrequency frequency) {
+        LocalDate baseDate = lastMaintenanceDate != null ? lastMaintenanceDate : createdDate;
+        if (baseDate == null || frequency == null || frequency.getValue() <= 0 || frequency.getUnit() == null) {
+            return null;
         }
+        switch (frequency.getUnit()) {
+            case DAYS:
+                return baseDate.plusDays(frequency.getValue());
+            case WEEKS:
+                return baseDate.plusWeeks(frequency.getValue());
+            case MONTHS:
+                return baseDate.plusMonths(frequency.getValue());
+            case YEARS:
+                return baseDate.plusYears(frequency.getValue());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Calcula el status (OK, Advertencia, Vencido) según la fecha de la próxima mantención.
+     */
+    public static String calcularStatus(LocalDate nextDate) {
+        if (nextDate == null) return STATUS_OK;
+        LocalDate today = LocalDate.now();
+        LocalDate oneMonthFromNow = today.plusMonths(1);
+        if (nextDate.isBefore(today)) return STATUS_OVERDUE;
+        else if (nextDate.isBefore(oneMonthFromNow)) return STATUS_WARNING;
+        else return STATUS_OK;
     }
 
     /**
@@ -142,7 +157,6 @@ public class Equipment {
         private LocalDate lastMaintenanceDate;
         private UserDTO encargado;
         private MaintenanceFrequency maintenanceFrequency;
-        private List<MaintenanceRecord> maintenanceRecords;
         private String customMaintenanceInstructions;
         private EquipmentCriticality criticality;
         private String status;
@@ -1,7 +1,11 @@
 package cl.ufro.bioren_backend.model;
 
+import cl.ufro.bioren_backend.security.OneTimeToken;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 
 @Entity
@@ -11,15 +15,18 @@ import java.time.LocalDateTime;
 @Builder
 public class InvitationToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invitation_token_id")
+    @SequenceGenerator(name = "invitation_token_id", sequenceName = "invitation_token_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    /** SHA-256 del token enviado al usuario (ver OneTimeToken); el token en claro no se guarda */
+    @Column(name = "token_hash", nullable = false, unique = true, length = OneTimeToken.HASH_LENGTH)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    private byte[] tokenHash;
 
     @Column(nullable = false)
     private LocalDateTime expiry;
@@ -2,6 +2,7 @@ package cl.ufro.bioren_backend.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -9,6 +10,10 @@ import java.util.List;
  * Entidad que representa un reporte de incidencia asociado a un equipo.
  */
 @Entity
+@NamedEntityGraph(name = "IssueReport.detail", attributeNodes = {
+        @NamedAttributeNode("equipment"),
+        @NamedAttributeNode("attachments")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +21,8 @@ import java.util.List;
 public class IssueReport {
     /** Identificador único del reporte de incidencia */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "issue_report_id")
+    @SequenceGenerator(name = "issue_report_id", sequenceName = "issue_report_seq", allocationSize = 50)
     private Long id;
 
     /** Equipo asociado a la incidencia */
@@ -39,6 +45,7 @@ public class IssueReport {
 
     /** Lista de archivos adjuntos (nombre y URL) */
     @ElementCollection
+    @BatchSize(size = 100)
     private List<Attachment> attachments;
 
     /** Estado de la incidencia */
@@ -2,6 +2,7 @@ package cl.ufro.bioren_backend.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -9,6 +10,10 @@ import java.util.List;
  * Entidad que representa un registro de mantenimiento de un equipo.
  */
 @Entity
+@NamedEntityGraph(name = "MaintenanceRecord.detail", attributeNodes = {
+        @NamedAttributeNode("equipment"),
+        @NamedAttributeNode("attachments")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +21,8 @@ import java.util.List;
 public class MaintenanceRecord {
     /** Identificador único del registro de mantenimiento */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "maintenance_record_id")
+    @SequenceGenerator(name = "maintenance_record_id", sequenceName = "maintenance_record_seq", allocationSize = 50)
     private Long id;
 
     /** Fecha del mantenimiento (ISO) */
@@ -30,6 +36,7 @@ public class MaintenanceRecord {
 
     /** Lista de archivos adjuntos (nombre y URL) */
     @ElementCollection
+    @BatchSize(size = 100)
     private List<Attachment> attachments;
 
     /** Equipo al que pertenece este registro */
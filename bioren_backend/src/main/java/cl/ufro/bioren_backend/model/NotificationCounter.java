@@ -0,0 +1,27 @@
+package cl.ufro.bioren_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Cantidad de notificaciones no leídas de un usuario.
+ * Se mantiene con sentencias atómicas (ver NotificationCounterRepository) en la misma transacción
+ * que cada alta, lectura o eliminación, para que consultar el contador no recorra la bandeja.
+ */
+@Entity
+@Table(name = "notification_counter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int unread;
+
+    /** Última seq asignada a una notificación del usuario (ver AppNotification.seq) */
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+}
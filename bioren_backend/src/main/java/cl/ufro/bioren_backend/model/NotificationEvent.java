@@ -0,0 +1,67 @@
+package cl.ufro.bioren_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aviso de equipo pendiente de convertirse en notificaciones (ver NotificationEventDispatcher).
+ * Copia los datos de EquipmentNotice; la fila se borra al generar las notificaciones.
+ */
+@Entity
+@Table(name = "notification_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_event_id")
+    @SequenceGenerator(name = "notification_event_id", sequenceName = "notification_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "equipment_id")
+    private Long equipmentId;
+
+    @Column(name = "equipment_name")
+    private String equipmentName;
+
+    @Column(name = "institutional_id")
+    private String institutionalId;
+
+    private String unit;
+
+    @Column(name = "encargado_id")
+    private Long encargadoId;
+
+    private String type;
+
+    private String message;
+
+    private String details;
+
+    private String link;
+
+    @Column(name = "include_admins", nullable = false)
+    private boolean includeAdmins;
+
+    /** Usuario que originó el cambio; no recibe el aviso */
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    /** Intentos realizados */
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Próximo intento; mientras un hilo lo procesa, vencimiento de su lease */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Error del último intento fallido */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -16,7 +16,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class User {
     /** Identificador único del usuario */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id")
+    @SequenceGenerator(name = "user_id", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     /** Nombre completo del usuario */
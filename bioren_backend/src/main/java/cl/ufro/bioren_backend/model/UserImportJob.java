@@ -0,0 +1,28 @@
+package cl.ufro.bioren_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Importación masiva de usuarios; su id es el job_id de los correos de invitación que generó.
+ */
+@Entity
+@Table(name = "user_import_job")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserImportJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /** Usuario que hizo la importación */
+    @Column(name = "created_by", nullable = false)
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,13 +1,111 @@
 package cl.ufro.bioren_backend.repository;
 
 import cl.ufro.bioren_backend.model.AppNotification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repositorio JPA para la entidad AppNotification.
+ * Las páginas de la bandeja usan paginación por cursor (timestamp, id) sobre los índices
+ * idx_app_notification_recipient_time e idx_app_notification_recipient_read_time.
  */
 @Repository
 public interface AppNotificationRepository extends JpaRepository<AppNotification, Long> {
-    // Puedes agregar métodos personalizados si es necesario
-} 
\ No newline at end of file
+    @Query("select n from AppNotification n where n.recipient.id = :recipientId order by n.timestamp desc, n.id desc")
+    List<AppNotification> findInboxFirstPage(@Param("recipientId") Long recipientId, Limit limit);
+
+    @Query("select n from AppNotification n where n.recipient.id = :recipientId "
+            + "and (n.timestamp < :timestamp or (n.timestamp = :timestamp and n.id < :id)) "
+            + "order by n.timestamp desc, n.id desc")
+    List<AppNotification> findInboxPageAfter(@Param("recipientId") Long recipientId, @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("id") Long id, Limit limit);
+
+    @Query("select n from AppNotification n where n.recipient.id = :recipientId and n.isRead = false "
+            + "order by n.timestamp desc, n.id desc")
+    List<AppNotification> findUnreadFirstPage(@Param("recipientId") Long recipientId, Limit limit);
+
+    @Query("select n from AppNotification n where n.recipient.id = :recipientId and n.isRead = false "
+            + "and (n.timestamp < :timestamp or (n.timestamp = :timestamp and n.id < :id)) "
+            + "order by n.timestamp desc, n.id desc")
+    List<AppNotification> findUnreadPageAfter(@Param("recipientId") Long recipientId, @Param("timestamp") LocalDateTime timestamp,
+                                              @Param("id") Long id, Limit limit);
+
+    /**
+     * Notificaciones del destinatario posteriores a una seq, para reenviarlas por SSE tras una reconexión
+     * (índice uk_app_notification_recipient_seq). Se usa seq y no id: los ids no siguen el orden de commit.
+     */
+    @Query("select n from AppNotification n where n.recipient.id = :recipientId and n.seq > :afterSeq order by n.seq")
+    List<AppNotification> findReplay(@Param("recipientId") Long recipientId, @Param("afterSeq") Long afterSeq, Limit limit);
+
+    /**
+     * Marca como leída una notificación no leída del destinatario.
+     * Devuelve 0 si ya estaba leída (o no es suya), para descontarla del contador una sola vez.
+     */
+    @Modifying
+    @Query("update AppNotification n set n.isRead = true where n.id = :id and n.recipient.id = :recipientId and n.isRead = false")
+    int markRead(@Param("id") Long id, @Param("recipientId") Long recipientId);
+
+    /** Marca como leídas las notificaciones indicadas del destinatario; devuelve cuántas no lo estaban */
+    @Modifying
+    @Query("update AppNotification n set n.isRead = true "
+            + "where n.recipient.id = :recipientId and n.isRead = false and n.id in :ids")
+    int markReadByIds(@Param("recipientId") Long recipientId, @Param("ids") Collection<Long> ids);
+
+    /** Marca como leídas las notificaciones del destinatario anteriores a before */
+    @Modifying
+    @Query("update AppNotification n set n.isRead = true "
+            + "where n.recipient.id = :recipientId and n.isRead = false and n.timestamp < :before")
+    int markReadBefore(@Param("recipientId") Long recipientId, @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("delete from AppNotification n where n.recipient.id = :recipientId and n.id in :ids")
+    int deleteByIds(@Param("recipientId") Long recipientId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from AppNotification n where n.recipient.id = :recipientId and n.timestamp < :before")
+    int deleteBefore(@Param("recipientId") Long recipientId, @Param("before") LocalDateTime before);
+
+    /** Elimina la notificación solo si no estaba leída; devuelve 1 si había que descontarla */
+    @Modifying
+    @Query("delete from AppNotification n where n.id = :id and n.isRead = false")
+    int deleteUnread(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from AppNotification n where n.id = :id")
+    int removeById(@Param("id") Long id);
+
+    @Query("select n.recipient.id from AppNotification n where n.id = :id")
+    Long findRecipientId(@Param("id") Long id);
+
+    @Query("select distinct n.type from AppNotification n where n.type is not null")
+    List<String> findDistinctTypes();
+
+    /** Ids de un bloque de notificaciones leídas del tipo anteriores a cutoff (índice idx_app_notification_type_read_time) */
+    @Query("select n.id from AppNotification n where n.type = :type and n.isRead = true and n.timestamp < :cutoff "
+            + "order by n.timestamp")
+    List<Long> findReadIdsBefore(@Param("type") String type, @Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select n.id from AppNotification n where n.type is null and n.isRead = true and n.timestamp < :cutoff "
+            + "order by n.timestamp")
+    List<Long> findUntypedReadIdsBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /** Copia las notificaciones indicadas a app_notification_archive */
+    @Modifying
+    @Query(value = "insert into app_notification_archive "
+            + "(id, recipient_id, type, message, details, link, unit, timestamp, archived_at) "
+            + "select id, recipient_id, type, message, details, link, unit, timestamp, :archivedAt "
+            + "from app_notification where id in :ids", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query("delete from AppNotification n where n.id in :ids")
+    int removeAllById(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,67 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    List<EmailOutbox> findByStatusOrderByIdDesc(EmailStatus status, Pageable pageable);
+
+    List<EmailOutbox> findAllByOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Cantidad de correos de una importación por estado, como pares [EmailStatus, Long].
+     */
+    @Query("select m.status, count(m) from EmailOutbox m where m.jobId = :jobId group by m.status")
+    List<Object[]> countByStatusForJob(@Param("jobId") String jobId);
+
+    /**
+     * Ids de los correos cuyo próximo intento ya venció: pendientes, o en envío con el lease vencido
+     * (el hilo que los tomó se cayó). Usa idx_email_outbox_status_next_attempt.
+     */
+    @Query("select m.id from EmailOutbox m where m.status in (cl.ufro.bioren_backend.model.EmailStatus.PENDING, "
+            + "cl.ufro.bioren_backend.model.EmailStatus.SENDING) and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Toma el correo para enviarlo: lo pasa a SENDING y fija el lease, solo si sigue vencido.
+     * Con un UPDATE condicional, de dos hilos o instancias que lo intenten solo uno obtiene 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox m set m.status = cl.ufro.bioren_backend.model.EmailStatus.SENDING, "
+            + "m.attempts = m.attempts + 1, m.nextAttemptAt = :leaseUntil "
+            + "where m.id = :id and m.status in (cl.ufro.bioren_backend.model.EmailStatus.PENDING, "
+            + "cl.ufro.bioren_backend.model.EmailStatus.SENDING) and m.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Marca como enviados los correos indicados.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox m set m.status = cl.ufro.bioren_backend.model.EmailStatus.SENT, m.sentAt = :sentAt, "
+            + "m.lastError = null where m.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Registra un intento fallido: vuelve a PENDING con el próximo intento, o queda en FAILED.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox m set m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error "
+            + "where m.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("status") EmailStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+}
@@ -1,17 +1,147 @@
 package cl.ufro.bioren_backend.repository;
 
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
+import cl.ufro.bioren_backend.dto.InventoryExportRow;
+import cl.ufro.bioren_backend.event.EquipmentRef;
 import cl.ufro.bioren_backend.model.Equipment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Equipment.
+ * Las consultas de páginas usan keyset: reciben la última clave vista en lugar de un offset,
+ * por lo que cualquier página cuesta lo mismo que la primera. Si unit es null no se filtra por unidad.
+ * El filtro (EquipmentFilter) es un rango sobre next_maintenance_date, resuelto con el índice
+ * (location_unit, next_maintenance_date). Devuelven la proyección EquipmentSummaryDTO,
+ * que no toca el historial de mantenimiento.
  */
 @Repository
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
     // Ejemplo de método personalizado: buscar por unidad
     List<Equipment> findByLocationUnit(String locationUnit);
     Equipment findByInstitutionalId(String institutionalId);
-} 
\ No newline at end of file
+
+    /**
+     * Todos los institutionalId existentes, para validar unicidad en memoria durante una importación.
+     */
+    @Query("select e.institutionalId from Equipment e")
+    List<String> findAllInstitutionalIds();
+
+    /**
+     * Equipo con su encargado cargado en la misma consulta (vista de detalle).
+     */
+    @EntityGraph("Equipment.encargado")
+    Optional<Equipment> findWithEncargadoById(Long id);
+
+    String SUMMARY_SELECT = "select new cl.ufro.bioren_backend.dto.EquipmentSummaryDTO(" +
+            "e.id, e.institutionalId, e.name, e.brand, e.model, e.locationBuilding, e.locationUnit, " +
+            "e.lastCalibrationDate, e.lastMaintenanceDate, " +
+            "e.maintenanceFrequency.value, e.maintenanceFrequency.unit, e.criticality, e.status, e.nextMaintenanceDate, " +
+            "e.purchasedByGovernment, u.id, u.name, u.email, u.role, u.unit) " +
+            "from Equipment e left join e.encargado u ";
+
+    String DUE_RANGE = "((e.nextMaintenanceDate >= :#{#filter.dueFrom} and e.nextMaintenanceDate < :#{#filter.dueBefore}) " +
+            "or (:#{#filter.includeUndated} = true and e.nextMaintenanceDate is null)) ";
+
+    String SUMMARY_WHERE = "where (:unit is null or e.locationUnit = :unit) and " + DUE_RANGE;
+
+    /**
+     * Primera página ordenada por institutionalId.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_WHERE + "order by e.institutionalId")
+    List<EquipmentSummaryDTO> findFirstPageOrderByInstitutionalId(@Param("unit") String unit,
+                                                                  @Param("filter") EquipmentFilter filter,
+                                                                  Limit limit);
+
+    /**
+     * Página siguiente a un institutionalId dado.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_WHERE +
+           "and e.institutionalId > :afterInstitutionalId order by e.institutionalId")
+    List<EquipmentSummaryDTO> findPageAfterInstitutionalId(@Param("unit") String unit,
+                                                           @Param("filter") EquipmentFilter filter,
+                                                           @Param("afterInstitutionalId") String afterInstitutionalId,
+                                                           Limit limit);
+
+    /**
+     * Primera página ordenada por (nextMaintenanceDate, id). Los nulos quedan primero, como en el índice.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_WHERE + "order by e.nextMaintenanceDate, e.id")
+    List<EquipmentSummaryDTO> findFirstPageOrderByNextMaintenanceDate(@Param("unit") String unit,
+                                                                      @Param("filter") EquipmentFilter filter,
+                                                                      Limit limit);
+
+    /**
+     * Página siguiente a una clave (nextMaintenanceDate, id) con fecha definida.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_WHERE +
+           "and (e.nextMaintenanceDate > :afterDate or (e.nextMaintenanceDate = :afterDate and e.id > :afterId)) " +
+           "order by e.nextMaintenanceDate, e.id")
+    List<EquipmentSummaryDTO> findPageAfterNextMaintenanceDate(@Param("unit") String unit,
+                                                               @Param("filter") EquipmentFilter filter,
+                                                               @Param("afterDate") LocalDate afterDate,
+                                                               @Param("afterId") Long afterId,
+                                                               Limit limit);
+
+    /**
+     * Página siguiente a una clave (null, id): resto de equipos sin fecha y luego todos los con fecha.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_WHERE +
+           "and ((e.nextMaintenanceDate is null and e.id > :afterId) or e.nextMaintenanceDate is not null) " +
+           "order by e.nextMaintenanceDate, e.id")
+    List<EquipmentSummaryDTO> findPageAfterNullNextMaintenanceDate(@Param("unit") String unit,
+                                                                   @Param("filter") EquipmentFilter filter,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Limit limit);
+
+    /**
+     * Inventario con su historial de mantenimiento como flujo de filas planas, para exportación.
+     * Debe consumirse dentro de una transacción; el fetch size permite al driver traer las filas
+     * por bloques en lugar de materializar todo el resultado.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new cl.ufro.bioren_backend.dto.InventoryExportRow(" +
+           "e.id, e.institutionalId, e.name, e.brand, e.model, e.locationBuilding, e.locationUnit, e.criticality, " +
+           "e.status, e.lastCalibrationDate, e.lastMaintenanceDate, e.nextMaintenanceDate, u.email, " +
+           "mr.date, mr.description, mr.performedBy) " +
+           "from Equipment e left join e.encargado u left join e.maintenanceRecords mr " +
+           "where (:unit is null or e.locationUnit = :unit) " +
+           "order by e.institutionalId, mr.date, mr.id")
+    Stream<InventoryExportRow> streamInventory(@Param("unit") String unit);
+
+    /**
+     * Equipos con frecuencia definida pero sin próxima mantención persistida (datos previos al cálculo persistido).
+     */
+    @Query("select e from Equipment e where e.nextMaintenanceDate is null and e.maintenanceFrequency.unit is not null")
+    List<Equipment> findWithoutNextMaintenanceDate();
+
+    /**
+     * Equipos que updateStatus cambiaría al status indicado, para notificar la transición.
+     */
+    @Query("select new cl.ufro.bioren_backend.event.EquipmentRef(e.id, e.name, e.institutionalId, e.locationUnit, e.encargado.id) " +
+           "from Equipment e where " + DUE_RANGE + "and (e.status is null or e.status <> :status)")
+    List<EquipmentRef> findStatusTransitions(@Param("status") String status, @Param("filter") EquipmentFilter filter);
+
+    /**
+     * Asigna el status a los equipos cuya próxima mantención cae en el rango del filtro.
+     * Solo toca las filas cuyo status cambia.
+     */
+    @Modifying
+    @Query("update Equipment e set e.status = :status where " + DUE_RANGE +
+           "and (e.status is null or e.status <> :status)")
+    int updateStatus(@Param("status") String status, @Param("filter") EquipmentFilter filter);
+}
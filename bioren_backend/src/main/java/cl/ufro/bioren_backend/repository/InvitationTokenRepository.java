@@ -3,14 +3,35 @@ package cl.ufro.bioren_backend.repository;
 import cl.ufro.bioren_backend.model.InvitationToken;
 import cl.ufro.bioren_backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface InvitationTokenRepository extends JpaRepository<InvitationToken, Long> {
-    Optional<InvitationToken> findByToken(String token);
+    Optional<InvitationToken> findByTokenHash(byte[] tokenHash);
     List<InvitationToken> findByUser(User user);
-    void deleteByUser(User user);
-} 
\ No newline at end of file
+
+    /**
+     * Elimina los tokens del usuario con una sola sentencia, sin cargarlos.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from InvitationToken t where t.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    /**
+     * Elimina hasta batchSize tokens vencidos (usa idx_invitation_token_expiry).
+     * Cada llamada es una transacción corta, para no bloquear la tabla durante toda la purga.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from invitation_token where expiry < :now limit :batchSize", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
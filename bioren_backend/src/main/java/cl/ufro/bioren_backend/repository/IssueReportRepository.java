@@ -1,10 +1,16 @@
 package cl.ufro.bioren_backend.repository;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.IssueReportResponseDTO;
 import cl.ufro.bioren_backend.model.IssueReport;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad IssueReport.
@@ -13,4 +19,40 @@ import java.util.List;
 public interface IssueReportRepository extends JpaRepository<IssueReport, Long> {
     // Buscar incidencias por equipo
     List<IssueReport> findByEquipmentId(Long equipmentId);
-} 
\ No newline at end of file
+
+    /**
+     * Incidencia con su equipo y adjuntos cargados en la misma consulta (vista de detalle).
+     */
+    @EntityGraph("IssueReport.detail")
+    Optional<IssueReport> findWithDetailById(Long id);
+
+    /**
+     * Listado liviano de todas las incidencias (administrador).
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.IssueReportResponseDTO(" +
+           "ir.id, ir.reportedBy, ir.dateTime, ir.description, ir.severity, ir.status, e.id, e.name, e.brand, e.model) " +
+           "from IssueReport ir left join ir.equipment e order by ir.id")
+    List<IssueReportResponseDTO> findAllSummaries();
+
+    /**
+     * Listado liviano de las incidencias de equipos de una unidad, filtrado en la base de datos.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.IssueReportResponseDTO(" +
+           "ir.id, ir.reportedBy, ir.dateTime, ir.description, ir.severity, ir.status, e.id, e.name, e.brand, e.model) " +
+           "from IssueReport ir join ir.equipment e where e.locationUnit = :unit order by ir.id")
+    List<IssueReportResponseDTO> findSummariesByLocationUnit(@Param("unit") String unit);
+
+    /**
+     * Adjuntos de todas las incidencias, en una sola consulta.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.AttachmentRowDTO(ir.id, a.name, a.url) " +
+           "from IssueReport ir join ir.attachments a")
+    List<AttachmentRowDTO> findAllAttachmentRows();
+
+    /**
+     * Adjuntos de las incidencias de equipos de una unidad, en una sola consulta.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.AttachmentRowDTO(ir.id, a.name, a.url) " +
+           "from IssueReport ir join ir.attachments a join ir.equipment e where e.locationUnit = :unit")
+    List<AttachmentRowDTO> findAttachmentRowsByLocationUnit(@Param("unit") String unit);
+}
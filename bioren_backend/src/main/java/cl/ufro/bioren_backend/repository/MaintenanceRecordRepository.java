@@ -1,10 +1,17 @@
 package cl.ufro.bioren_backend.repository;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
 import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad MaintenanceRecord.
@@ -13,4 +20,59 @@ import java.util.List;
 public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRecord, Long> {
     // Buscar registros por equipo
     List<MaintenanceRecord> findByEquipmentId(Long equipmentId);
-} 
\ No newline at end of file
+
+    /** Fecha del registro más reciente del equipo, o null si no tiene registros */
+    @Query("select max(mr.date) from MaintenanceRecord mr where mr.equipment.id = :equipmentId")
+    LocalDate findLatestDateByEquipmentId(@Param("equipmentId") Long equipmentId);
+
+    /**
+     * Registro con su equipo y adjuntos cargados en la misma consulta (vista de detalle).
+     */
+    @EntityGraph("MaintenanceRecord.detail")
+    Optional<MaintenanceRecord> findWithDetailById(Long id);
+
+    /**
+     * Listado liviano de todos los registros (administrador).
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO(" +
+           "mr.id, mr.date, mr.description, mr.performedBy, e.id, e.name, e.institutionalId, e.locationUnit) " +
+           "from MaintenanceRecord mr left join mr.equipment e order by mr.id")
+    List<MaintenanceRecordResponseDTO> findAllSummaries();
+
+    /**
+     * Listado liviano de los registros de equipos de una unidad, filtrado en la base de datos.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO(" +
+           "mr.id, mr.date, mr.description, mr.performedBy, e.id, e.name, e.institutionalId, e.locationUnit) " +
+           "from MaintenanceRecord mr join mr.equipment e where e.locationUnit = :unit order by mr.id")
+    List<MaintenanceRecordResponseDTO> findSummariesByLocationUnit(@Param("unit") String unit);
+
+    /**
+     * Historial liviano de un equipo, del más reciente al más antiguo.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO(" +
+           "mr.id, mr.date, mr.description, mr.performedBy, e.id, e.name, e.institutionalId, e.locationUnit) " +
+           "from MaintenanceRecord mr join mr.equipment e where e.id = :equipmentId order by mr.date desc, mr.id desc")
+    List<MaintenanceRecordResponseDTO> findSummariesByEquipmentId(@Param("equipmentId") Long equipmentId);
+
+    /**
+     * Adjuntos de todos los registros, en una sola consulta.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.AttachmentRowDTO(mr.id, a.name, a.url) " +
+           "from MaintenanceRecord mr join mr.attachments a")
+    List<AttachmentRowDTO> findAllAttachmentRows();
+
+    /**
+     * Adjuntos de los registros de equipos de una unidad, en una sola consulta.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.AttachmentRowDTO(mr.id, a.name, a.url) " +
+           "from MaintenanceRecord mr join mr.attachments a join mr.equipment e where e.locationUnit = :unit")
+    List<AttachmentRowDTO> findAttachmentRowsByLocationUnit(@Param("unit") String unit);
+
+    /**
+     * Adjuntos del historial de un equipo, en una sola consulta.
+     */
+    @Query("select new cl.ufro.bioren_backend.dto.AttachmentRowDTO(mr.id, a.name, a.url) " +
+           "from MaintenanceRecord mr join mr.attachments a where mr.equipment.id = :equipmentId")
+    List<AttachmentRowDTO> findAttachmentRowsByEquipmentId(@Param("equipmentId") Long equipmentId);
+}
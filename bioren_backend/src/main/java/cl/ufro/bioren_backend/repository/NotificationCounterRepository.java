@@ -0,0 +1,58 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Contadores de notificaciones no leídas. Los cambios son sentencias atómicas sobre la fila
+ * del usuario, sin leerla antes, para que notificaciones simultáneas no pierdan incrementos.
+ */
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+    @Query("select c.unread from NotificationCounter c where c.userId = :userId")
+    Optional<Integer> findUnread(@Param("userId") Long userId);
+
+    @Query("select c.lastSeq from NotificationCounter c where c.userId = :userId")
+    Optional<Long> findLastSeq(@Param("userId") Long userId);
+
+    /** Pares [userId, lastSeq] de los usuarios indicados */
+    @Query("select c.userId, c.lastSeq from NotificationCounter c where c.userId in :userIds")
+    List<Object[]> findLastSeqs(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Suma delta al contador y a la última seq de cada usuario indicado con una sola sentencia,
+     * creando los que falten. Las filas quedan bloqueadas hasta el commit: dos transacciones que
+     * notifican al mismo usuario obtienen sus seq en el orden en que confirman.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into notification_counter (user_id, unread, last_seq) "
+            + "select u.id, :delta, :delta from user u where u.id in :userIds order by u.id "
+            + "on duplicate key update unread = unread + :delta, last_seq = last_seq + :delta", nativeQuery = true)
+    int incrementAll(@Param("userIds") Collection<Long> userIds, @Param("delta") int delta);
+
+    /**
+     * Recalcula el contador desde la bandeja (índice recipient_id, is_read, timestamp), tras una
+     * eliminación masiva en la que no se sabe cuántas de las eliminadas estaban sin leer.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update notification_counter set unread = (select count(*) from app_notification n "
+            + "where n.recipient_id = :userId and n.is_read = false) where user_id = :userId", nativeQuery = true)
+    int recount(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update notification_counter set unread = greatest(unread - :delta, 0) where user_id = :userId",
+            nativeQuery = true)
+    int decrement(@Param("userId") Long userId, @Param("delta") int delta);
+}
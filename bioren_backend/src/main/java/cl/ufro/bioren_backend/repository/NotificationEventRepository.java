@@ -0,0 +1,44 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.NotificationEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationEventRepository extends JpaRepository<NotificationEvent, Long> {
+    /**
+     * Ids de los avisos cuyo próximo intento ya venció (incluye los de un lease vencido) y que no
+     * agotaron los intentos. Usa idx_notification_event_next_attempt.
+     */
+    @Query("select e.id from NotificationEvent e where e.nextAttemptAt <= :now and e.attempts < :maxAttempts "
+            + "order by e.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    /**
+     * Toma el aviso para procesarlo: suma un intento y fija el lease, solo si sigue vencido.
+     * Con un UPDATE condicional, de dos hilos o instancias que lo intenten solo uno obtiene 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("update NotificationEvent e set e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil "
+            + "where e.id = :id and e.nextAttemptAt <= :now and e.attempts < :maxAttempts")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Registra un intento fallido y el próximo intento.
+     */
+    @Transactional
+    @Modifying
+    @Query("update NotificationEvent e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+}
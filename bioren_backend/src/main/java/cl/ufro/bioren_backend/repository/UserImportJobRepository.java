@@ -0,0 +1,9 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.UserImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, String> {
+}
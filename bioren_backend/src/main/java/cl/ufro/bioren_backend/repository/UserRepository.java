@@ -2,8 +2,13 @@ package cl.ufro.bioren_backend.repository;
 
 import cl.ufro.bioren_backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repositorio JPA para la entidad User.
  */
@@ -11,4 +16,27 @@ import org.springframework.stereotype.Repository;
 public interface UserRepository extends JpaRepository<User, Long> {
     // Puedes agregar métodos de consulta personalizados aquí
     User findByEmail(String email);
+    /** Usuarios de una unidad (índice idx_user_unit) */
+    List<User> findByUnit(String unit);
+
+    /**
+     * Emails ya registrados entre los indicados, con una sola consulta sobre el índice uk_user_email.
+     * La collation _ci de la columna ya ignora mayúsculas; se devuelven tal como están guardados.
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /** Pares [email en minúsculas, id] de todos los usuarios, sin cargar las entidades */
+    @Query("select lower(u.email), u.id from User u")
+    List<Object[]> findEmailIds();
+
+    /**
+     * Usuarios habilitados que pueden recibir avisos de equipos: los jefes de las unidades indicadas,
+     * los usuarios indicados (encargados) y, si includeAdmins, los administradores.
+     */
+    @Query("select u from User u where u.enabled = true and ("
+            + "(u.role = cl.ufro.bioren_backend.model.UserRole.UNIT_MANAGER and u.unit in :units) or u.id in :ids "
+            + "or (:includeAdmins = true and u.role = cl.ufro.bioren_backend.model.UserRole.BIOREN_ADMIN))")
+    List<User> findNotificationCandidates(@Param("units") Collection<String> units, @Param("ids") Collection<Long> ids,
+                                          @Param("includeAdmins") boolean includeAdmins);
 } 
\ No newline at end of file
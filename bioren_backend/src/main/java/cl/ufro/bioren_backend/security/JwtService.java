@@ -1,83 +1,78 @@
 package cl.ufro.bioren_backend.security;
 
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
 
 /**
  * Servicio para generación y validación de tokens JWT.
+ * El token lleva los datos del UserPrincipal (id, nombre, rol y unidad), por lo que la
+ * autenticación de cada petición no consulta la base de datos. Un cambio de rol o unidad
+ * se refleja al emitir el siguiente token.
+ * La clave y el parser se construyen una sola vez (son inmutables y seguros entre hilos)
+ * y cada token se verifica con un único parseo.
  */
 @Service
 public class JwtService {
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_NAME = "name";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_UNIT = "unit";
 
-    @Value("${jwt.secret:default_secret_key_for_dev}")
-    private String jwtSecret;
+    private final long jwtExpirationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration:86400000}") // 1 día por defecto
-    private long jwtExpirationMs;
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtService(@Value("${jwt.secret:default_secret_key_for_dev}") String jwtSecret,
+                      @Value("${jwt.expiration:86400000}") long jwtExpirationMs) { // 1 día por defecto
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     /**
-     * Genera un token JWT para el usuario dado.
+     * Genera un token JWT para el usuario dado, con los datos necesarios para reconstruir su UserPrincipal.
      */
-    public String generateToken(String username, String role) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(username)
-                .claim("role", role)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_NAME, user.getName())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_UNIT, user.getUnit())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Extrae el nombre de usuario del token JWT.
-     */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    /**
-     * Extrae el rol del usuario del token JWT.
-     */
-    public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
-    }
-
-    /**
-     * Valida si el token es válido y corresponde al usuario.
+     * Verifica firma y expiración del token en una sola pasada y devuelve sus claims ya leídos.
+     *
+     * @throws JwtException si la firma no es válida, el token expiró o le faltan claims
+     *                      (por ejemplo, tokens emitidos antes de incluir el id del usuario)
      */
-    public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (claims.getSubject() == null || userId == null || role == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("El token no contiene los datos del usuario");
+        }
+        try {
+            return new VerifiedToken(userId, claims.get(CLAIM_NAME, String.class), claims.getSubject(),
+                    UserRole.valueOf(role), claims.get(CLAIM_UNIT, String.class), claims.getExpiration().toInstant());
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Rol desconocido en el token: " + role);
+        }
     }
-} 
\ No newline at end of file
+}
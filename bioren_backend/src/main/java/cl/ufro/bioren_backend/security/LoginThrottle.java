@@ -0,0 +1,111 @@
+package cl.ufro.bioren_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita los intentos de login y de recuperación de contraseña con token buckets por email y por IP,
+ * antes de cualquier consulta o cálculo de BCrypt.
+ * Cada bucket es un AtomicLong que se actualiza con compare-and-set (sin locks) y los buckets viven
+ * en mapas de Caffeine, concurrentes por segmentos, que descartan las claves sin uso tras idle-timeout.
+ * Cada mapa guarda como máximo max-size claves, para que muchas IP o emails distintos no agoten la memoria.
+ */
+@Component
+public class LoginThrottle {
+    private final Cache<String, TokenBucket> byEmail;
+    private final Cache<String, TokenBucket> byIp;
+    private final Ticker ticker;
+    private final long emailCapacity;
+    private final long emailRefillNanos;
+    private final long ipCapacity;
+    private final long ipRefillNanos;
+
+    @Autowired
+    public LoginThrottle(@Value("${bioren.security.login-throttle.email.capacity:5}") long emailCapacity,
+                         @Value("${bioren.security.login-throttle.email.refill-every:1m}") Duration emailRefill,
+                         @Value("${bioren.security.login-throttle.ip.capacity:30}") long ipCapacity,
+                         @Value("${bioren.security.login-throttle.ip.refill-every:2s}") Duration ipRefill,
+                         @Value("${bioren.security.login-throttle.idle-timeout:15m}") Duration idleTimeout,
+                         @Value("${bioren.security.login-throttle.max-size:100000}") long maxSize) {
+        this(emailCapacity, emailRefill, ipCapacity, ipRefill, idleTimeout, maxSize, Ticker.systemTicker());
+    }
+
+    LoginThrottle(long emailCapacity, Duration emailRefill, long ipCapacity, Duration ipRefill,
+                  Duration idleTimeout, long maxSize, Ticker ticker) {
+        this.ticker = ticker;
+        this.emailCapacity = emailCapacity;
+        this.emailRefillNanos = emailRefill.toNanos();
+        this.ipCapacity = ipCapacity;
+        this.ipRefillNanos = ipRefill.toNanos();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(idleTimeout).ticker(ticker).build();
+        this.byIp = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(idleTimeout).ticker(ticker).build();
+    }
+
+    /**
+     * Consume un intento para la IP y el email.
+     *
+     * @return 0 si se permite el intento; si no, los segundos a esperar (para Retry-After)
+     */
+    public long tryAcquire(String email, String ip) {
+        long now = ticker.read();
+        long ipWait = byIp.get(ip == null ? "" : ip, key -> new TokenBucket(ipCapacity, ipRefillNanos, now))
+                .tryConsume(now);
+        if (ipWait > 0) {
+            return toSeconds(ipWait);
+        }
+        String emailKey = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long emailWait = byEmail.get(emailKey, key -> new TokenBucket(emailCapacity, emailRefillNanos, now))
+                .tryConsume(now);
+        return emailWait > 0 ? toSeconds(emailWait) : 0;
+    }
+
+    /** Buckets en memoria (email + IP), tras aplicar los vencimientos pendientes */
+    long trackedKeys() {
+        byEmail.cleanUp();
+        byIp.cleanUp();
+        return byEmail.estimatedSize() + byIp.estimatedSize();
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * Token bucket en un solo long: el instante (en nanos del ticker) en que el bucket estaría lleno.
+     * Consumir un token es adelantar ese instante en refillNanos, siempre que no quede más allá
+     * de capacity * refillNanos en el futuro.
+     */
+    static final class TokenBucket {
+        private final long refillNanos;
+        private final long burstNanos;
+        private final AtomicLong fullAt;
+
+        TokenBucket(long capacity, long refillNanos, long now) {
+            this.refillNanos = refillNanos;
+            this.burstNanos = capacity * refillNanos;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /** @return 0 si había un token; si no, nanos hasta el próximo token */
+        long tryConsume(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + refillNanos;
+                if (next - now > burstNanos) {
+                    return next - now - burstNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
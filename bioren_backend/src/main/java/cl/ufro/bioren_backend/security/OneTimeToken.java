@@ -0,0 +1,39 @@
+package cl.ufro.bioren_backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Tokens de un solo uso (invitaciones y recuperación de contraseña).
+ * El token enviado por correo son 32 bytes aleatorios en Base64 URL; en la base solo se guarda
+ * su SHA-256 (32 bytes), de modo que la búsqueda usa una clave corta de largo fijo y una
+ * filtración de la tabla no expone tokens utilizables. No se firma: la fila es la fuente de verdad.
+ */
+public final class OneTimeToken {
+    /** Largo del digest SHA-256 en bytes */
+    public static final int HASH_LENGTH = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private OneTimeToken() {
+    }
+
+    /** Genera un token nuevo para enviar al usuario */
+    public static String generate() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /** Digest que se guarda y se busca en invitation_token.token_hash */
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package cl.ufro.bioren_backend.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * El pool de hash de contraseñas está saturado. Se responde 503 con Retry-After.
+ */
+public class PasswordHashingBusyException extends ResponseStatusException {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public PasswordHashingBusyException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Servidor ocupado, intenta nuevamente en unos segundos");
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
@@ -0,0 +1,17 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.UserRole;
+
+import java.time.Instant;
+
+/**
+ * Claims de un token JWT cuya firma y expiración ya fueron verificadas por JwtService.
+ *
+ * @param expiresAt instante de expiración (claim exp)
+ */
+public record VerifiedToken(Long userId, String name, String email, UserRole role, String unit, Instant expiresAt) {
+
+    public UserPrincipal toPrincipal() {
+        return new UserPrincipal(userId, name, email, role, unit);
+    }
+}
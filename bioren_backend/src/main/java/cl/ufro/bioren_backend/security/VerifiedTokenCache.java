@@ -0,0 +1,89 @@
+package cl.ufro.bioren_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Caché acotada de tokens JWT ya verificados, para que las peticiones repetidas con el mismo
+ * token no vuelvan a verificar la firma ni a construir el UserPrincipal.
+ * La clave es el SHA-256 del token (el token no queda en memoria) y cada entrada vence
+ * a los ttl configurados o en la expiración del token, lo que ocurra primero.
+ * Los aciertos, fallos y desalojos se publican en Micrometer como cache.* con tag cache=jwt.verified.
+ */
+@Component
+public class VerifiedTokenCache {
+    static final String CACHE_NAME = "jwt.verified";
+
+    private final Cache<String, Entry> cache;
+
+    /** Principal resuelto y expiración del token del que proviene */
+    private record Entry(UserPrincipal principal, Instant expiresAt) {
+    }
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${bioren.security.token-cache.max-size:10000}") long maxSize,
+                              @Value("${bioren.security.token-cache.ttl:10m}") Duration ttl) {
+        this(meterRegistry, maxSize, ttl, Ticker.systemTicker(), Clock.systemUTC(), null);
+    }
+
+    /** Permite controlar el tiempo y el ejecutor de mantenimiento en pruebas */
+    VerifiedTokenCache(MeterRegistry meterRegistry, long maxSize, Duration ttl, Ticker ticker, Clock clock,
+                       Executor executor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .recordStats();
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.cache = builder
+                .expireAfter(Expiry.<String, Entry>creating((key, entry) -> {
+                    Duration untilExpiration = Duration.between(clock.instant(), entry.expiresAt());
+                    if (untilExpiration.isNegative()) {
+                        return Duration.ZERO;
+                    }
+                    return untilExpiration.compareTo(ttl) < 0 ? untilExpiration : ttl;
+                }))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Devuelve el principal del token, verificándolo solo si no está en la caché.
+     * Los tokens inválidos no se guardan: la excepción del verificador se propaga.
+     */
+    public UserPrincipal get(String token, Function<String, VerifiedToken> verifier) {
+        Entry entry = cache.get(hash(token), key -> {
+            VerifiedToken verified = verifier.apply(token);
+            return new Entry(verified.toPrincipal(), verified.expiresAt());
+        });
+        return entry.principal();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,54 +1,325 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.NotificationSelection;
+import cl.ufro.bioren_backend.event.EquipmentNotice;
 import cl.ufro.bioren_backend.model.AppNotification;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.NotificationCounterRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Servicio para la gestión de notificaciones, con filtrado según el usuario.
+ * Servicio para la gestión de notificaciones. Cada usuario tiene su bandeja: una notificación
+ * dirigida a varios usuarios se guarda una vez por destinatario. El contador de no leídas
+ * (NotificationCounter) se actualiza en la misma transacción que cada cambio de la bandeja.
  */
 @Service
 @RequiredArgsConstructor
 public class AppNotificationService {
+    /** Ids por operación masiva: van como parámetros del IN */
+    static final int MAX_BULK_IDS = 1000;
+
     private final AppNotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final NotificationHub notificationHub;
+    private final UserRepository userRepository;
 
     /**
-     * Obtiene todas las notificaciones relevantes para el usuario.
-     * (Aquí se asume que todas son globales, pero puedes filtrar por unidad si lo deseas)
+     * Crea una notificación no leída para cada destinatario.
      */
-    public List<AppNotification> getAll(User user) {
-        if (user.getRole() == UserRole.BIOREN_ADMIN) {
-            return notificationRepository.findAll();
+    @Transactional
+    public List<AppNotification> notifyUsers(Collection<User> recipients, String type, String message,
+                                             String details, String link, String unit) {
+        // Misma precisión que la columna, para que el cursor de una página coincida con lo guardado
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<AppNotification> notifications = new ArrayList<>(recipients.size());
+        for (User recipient : recipients) {
+            notifications.add(AppNotification.builder()
+                    .recipient(recipient)
+                    .type(type)
+                    .message(message)
+                    .details(details)
+                    .link(link)
+                    .unit(unit)
+                    .timestamp(now)
+                    .isRead(false)
+                    .build());
+        }
+        return save(notifications);
+    }
+
+    /**
+     * Notifica a los responsables de cada equipo: su encargado y los jefes de su unidad, más los
+     * administradores si el aviso lo pide, sin incluir a quien originó el cambio. Los destinatarios
+     * de todos los avisos se cargan en una consulta y las notificaciones se insertan en un solo lote.
+     * NotificationEventDispatcher la llama en la misma transacción que borra los avisos procesados.
+     */
+    @Transactional
+    public List<AppNotification> notifyEquipmentTeams(List<EquipmentNotice> notices) {
+        Set<String> units = new HashSet<>();
+        Set<Long> encargadoIds = new HashSet<>();
+        boolean includeAdmins = false;
+        for (EquipmentNotice notice : notices) {
+            if (notice.equipment().unit() != null) {
+                units.add(notice.equipment().unit());
+            }
+            if (notice.equipment().encargadoId() != null) {
+                encargadoIds.add(notice.equipment().encargadoId());
+            }
+            includeAdmins |= notice.includeAdmins();
+        }
+        if (units.isEmpty() && encargadoIds.isEmpty() && !includeAdmins) {
+            return List.of();
+        }
+        // Un IN vacío no es válido en todas las bases de datos
+        List<User> candidates = userRepository.findNotificationCandidates(
+                units.isEmpty() ? List.of("") : units, encargadoIds.isEmpty() ? List.of(-1L) : encargadoIds, includeAdmins);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<AppNotification> notifications = new ArrayList<>();
+        for (EquipmentNotice notice : notices) {
+            for (User candidate : candidates) {
+                if (candidate.getId().equals(notice.actorId()) || !isResponsible(candidate, notice)) {
+                    continue;
+                }
+                notifications.add(AppNotification.builder()
+                        .recipient(candidate)
+                        .type(notice.type())
+                        .message(notice.message())
+                        .details(notice.details())
+                        .link(notice.link())
+                        .unit(notice.equipment().unit())
+                        .timestamp(now)
+                        .isRead(false)
+                        .build());
+            }
+        }
+        return save(notifications);
+    }
+
+    private static boolean isResponsible(User user, EquipmentNotice notice) {
+        return user.getId().equals(notice.equipment().encargadoId())
+                || (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit() != null && user.getUnit().equals(notice.equipment().unit()))
+                || (user.getRole() == UserRole.BIOREN_ADMIN && notice.includeAdmins());
+    }
+
+    /**
+     * Suma a los contadores con una sentencia por cantidad distinta (normalmente una), asigna a cada
+     * notificación su seq en la bandeja del destinatario e inserta las notificaciones en lotes JDBC.
+     * El contador va primero: su fila queda bloqueada hasta el commit, así las seq de cada destinatario
+     * se confirman en orden. Tras el commit se envían a los que estén conectados por SSE.
+     */
+    private List<AppNotification> save(List<AppNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        Map<Long, Integer> perRecipient = new HashMap<>();
+        for (AppNotification notification : notifications) {
+            perRecipient.merge(notification.getRecipient().getId(), 1, Integer::sum);
+        }
+        Map<Integer, List<Long>> byDelta = new HashMap<>();
+        perRecipient.forEach((userId, delta) -> byDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(userId));
+        byDelta.forEach((delta, userIds) -> counterRepository.incrementAll(userIds, delta));
+        // Primera seq de cada destinatario: la última asignada menos las que se acaban de reservar
+        Map<Long, Long> nextSeq = new HashMap<>();
+        for (Object[] row : counterRepository.findLastSeqs(perRecipient.keySet())) {
+            Long userId = (Long) row[0];
+            nextSeq.put(userId, (Long) row[1] - perRecipient.get(userId) + 1);
+        }
+        for (AppNotification notification : notifications) {
+            Long seq = nextSeq.merge(notification.getRecipient().getId(), 1L, Long::sum) - 1;
+            notification.setSeq(seq);
+        }
+        notificationRepository.saveAll(notifications);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationHub.publish(notifications);
+                }
+            });
         } else {
-            // Si quieres filtrar por unidad, deberías agregar un campo de unidad a AppNotification
-            return notificationRepository.findAll();
+            notificationHub.publish(notifications);
         }
+        return notifications;
+    }
+
+    /**
+     * Obtiene una página de la bandeja del usuario, de la más reciente a la más antigua,
+     * usando paginación por cursor (keyset). Con unreadOnly solo devuelve las no leídas.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AppNotification> getInbox(User user, boolean unreadOnly, String cursor, int limit) {
+        // Se pide un elemento extra para saber si existe una página siguiente
+        Limit fetch = Limit.of(limit + 1);
+        List<AppNotification> rows;
+        if (cursor == null) {
+            rows = unreadOnly
+                    ? notificationRepository.findUnreadFirstPage(user.getId(), fetch)
+                    : notificationRepository.findInboxFirstPage(user.getId(), fetch);
+        } else {
+            Object[] key = decodeCursor(cursor);
+            LocalDateTime timestamp = (LocalDateTime) key[0];
+            Long id = (Long) key[1];
+            rows = unreadOnly
+                    ? notificationRepository.findUnreadPageAfter(user.getId(), timestamp, id, fetch)
+                    : notificationRepository.findInboxPageAfter(user.getId(), timestamp, id, fetch);
+        }
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<AppNotification> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(items.get(items.size() - 1)));
+    }
+
+    /**
+     * Cantidad de notificaciones no leídas del usuario: una lectura por clave primaria del contador.
+     */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(User user) {
+        return counterRepository.findUnread(user.getId()).orElse(0);
     }
 
     /**
-     * Marca una notificación como leída.
+     * Marca una notificación del usuario como leída.
      */
+    @Transactional
     public AppNotification markAsRead(Long id, User user) {
+        if (notificationRepository.markRead(id, user.getId()) == 1) {
+            counterRepository.decrement(user.getId(), 1);
+        }
         AppNotification n = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notificación no encontrada"));
-        n.setRead(true);
-        return notificationRepository.save(n);
+        if (n.getRecipient() == null || !user.getId().equals(n.getRecipient().getId())) {
+            throw new RuntimeException("Notificación no encontrada");
+        }
+        return n;
+    }
+
+    /**
+     * Marca como leídas, con un solo UPDATE, las notificaciones seleccionadas de la bandeja del usuario.
+     * Las que ya estaban leídas o no son suyas no se cuentan.
+     *
+     * @return cantidad de notificaciones que pasaron a leídas
+     * @throws IllegalArgumentException si la selección no es válida
+     */
+    @Transactional
+    public int markAsRead(NotificationSelection selection, User user) {
+        validate(selection);
+        int updated = selection.ids() != null
+                ? notificationRepository.markReadByIds(user.getId(), selection.ids())
+                : notificationRepository.markReadBefore(user.getId(), selection.before());
+        if (updated > 0) {
+            counterRepository.decrement(user.getId(), updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Elimina, con un solo DELETE, las notificaciones seleccionadas de la bandeja del usuario.
+     *
+     * @return cantidad de notificaciones eliminadas
+     * @throws IllegalArgumentException si la selección no es válida
+     */
+    @Transactional
+    public int deleteFromInbox(NotificationSelection selection, User user) {
+        validate(selection);
+        int deleted = selection.ids() != null
+                ? notificationRepository.deleteByIds(user.getId(), selection.ids())
+                : notificationRepository.deleteBefore(user.getId(), selection.before());
+        if (deleted > 0) {
+            counterRepository.recount(user.getId());
+        }
+        return deleted;
+    }
+
+    private static void validate(NotificationSelection selection) {
+        if (selection == null || (selection.ids() == null) == (selection.before() == null)) {
+            throw new IllegalArgumentException("Indica ids o before, pero no ambos");
+        }
+        if (selection.ids() != null && (selection.ids().isEmpty() || selection.ids().size() > MAX_BULK_IDS)) {
+            throw new IllegalArgumentException("Se aceptan entre 1 y " + MAX_BULK_IDS + " ids");
+        }
     }
 
     /**
-     * Elimina una notificación (solo admin).
+     * Elimina una notificación (solo admin). Si no estaba leída, se descuenta del contador de su destinatario.
      */
+    @Transactional
     public void delete(Long id, User user) {
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
-            notificationRepository.deleteById(id);
+            Long recipientId = notificationRepository.findRecipientId(id);
+            if (notificationRepository.deleteUnread(id) == 1) {
+                if (recipientId != null) {
+                    counterRepository.decrement(recipientId, 1);
+                }
+            } else {
+                notificationRepository.removeById(id);
+            }
         } else {
             throw new RuntimeException("Solo el administrador puede eliminar notificaciones");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Mueve al archivo un bloque de hasta limit notificaciones leídas del tipo (null: sin tipo)
+     * anteriores a cutoff. Cada bloque es una transacción corta; las leídas no afectan al contador.
+     *
+     * @return cantidad de notificaciones archivadas
+     */
+    @Transactional
+    public int archiveRead(String type, LocalDateTime cutoff, LocalDateTime archivedAt, int limit) {
+        List<Long> ids = type != null
+                ? notificationRepository.findReadIdsBefore(type, cutoff, Limit.of(limit))
+                : notificationRepository.findUntypedReadIdsBefore(cutoff, Limit.of(limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        notificationRepository.copyToArchive(ids, archivedAt);
+        return notificationRepository.removeAllById(ids);
+    }
+
+    private static String encodeCursor(AppNotification last) {
+        String raw = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en [timestamp, id].
+     */
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new Object[]{LocalDateTime.parse(parts[0]), Long.valueOf(parts[1])};
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envía los correos de la bandeja de salida en un pool de hilos acotado, fuera de los hilos HTTP.
+ * Cada correo se toma con un UPDATE condicional (ver EmailOutboxRepository.claim), así que el envío
+ * inmediato tras el commit, el sondeo periódico y otras instancias no lo envían dos veces.
+ * Los correos se envían en lotes de batchSize por una conexión de SmtpTransportPool, que se reutiliza
+ * entre lotes: el saludo, STARTTLS y AUTH se pagan una vez por conexión y no una vez por correo.
+ * El lease se toma por correo, así que debe cubrir un envío (los timeouts SMTP) y no un lote.
+ * Un intento fallido se reprograma con backoff exponencial hasta maxAttempts; después queda en FAILED.
+ */
+@Component
+public class EmailOutboxDispatcher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    /** Lotes que un sondeo agrega a la cola como máximo */
+    private static final int MAX_BATCHES_PER_POLL = 10;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+    private final ThreadPoolExecutor executor;
+    private final boolean enabled;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 SmtpTransportPool transportPool,
+                                 @Value("${bioren.mail.outbox.enabled:true}") boolean enabled,
+                                 @Value("${spring.mail.from:}") String from,
+                                 @Value("${bioren.mail.outbox.threads:2}") int threads,
+                                 @Value("${bioren.mail.outbox.queue-capacity:500}") int queueCapacity,
+                                 @Value("${bioren.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${bioren.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${bioren.mail.outbox.initial-backoff:30s}") Duration initialBackoff,
+                                 @Value("${bioren.mail.outbox.max-backoff:1h}") Duration maxBackoff,
+                                 @Value("${bioren.mail.outbox.lease:5m}") Duration lease) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transportPool = transportPool;
+        this.enabled = enabled;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "email-outbox-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Encola el envío de los correos en el pool, en lotes de batchSize que comparten una sesión SMTP.
+     * Con la cola llena los correos siguen PENDING y los recoge el siguiente sondeo.
+     */
+    public void dispatch(List<Long> ids) {
+        if (!enabled) {
+            return;
+        }
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            List<Long> batch = List.copyOf(ids.subList(start, Math.min(start + batchSize, ids.size())));
+            try {
+                executor.execute(() -> deliver(batch));
+            } catch (RejectedExecutionException e) {
+                log.debug("Pool de correos lleno; {} correos quedan para el próximo sondeo", ids.size() - start);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Despacha los correos vencidos: reintentos, los que no cupieron en la cola y los de un lease vencido.
+     */
+    @Scheduled(fixedDelayString = "${bioren.mail.outbox.poll-interval:10s}")
+    public void dispatchDue() {
+        if (!enabled) {
+            return;
+        }
+        int free = Math.min(executor.getQueue().remainingCapacity(), MAX_BATCHES_PER_POLL);
+        if (free == 0) {
+            return;
+        }
+        dispatch(emailOutboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, free * batchSize)));
+    }
+
+    /**
+     * Envía los correos del lote por una sola conexión del pool. Cada correo se toma justo antes de
+     * enviarlo, con un lease propio, y se marca enviado apenas el servidor lo acepta: el lease cubre un
+     * envío y no el lote completo. Si la conexión se cae a mitad del lote, el resto sigue por una nueva.
+     */
+    void deliver(List<Long> ids) {
+        Transport transport = null;
+        try {
+            for (Long id : ids) {
+                LocalDateTime now = LocalDateTime.now();
+                // Omite los que ya tomó otro hilo
+                if (emailOutboxRepository.claim(id, now, now.plus(lease)) != 1) {
+                    continue;
+                }
+                EmailOutbox message = emailOutboxRepository.findById(id).orElse(null);
+                if (message == null) {
+                    continue;
+                }
+                if (transport == null) {
+                    try {
+                        transport = transportPool.borrow();
+                    } catch (MessagingException | RuntimeException e) {
+                        // Sin conexión no tiene sentido seguir: el resto del lote sigue PENDING para el próximo sondeo
+                        recordFailure(message, e);
+                        break;
+                    }
+                }
+                try {
+                    MimeMessage mimeMessage = toMimeMessage(message);
+                    transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                } catch (MessagingException | RuntimeException e) {
+                    recordFailure(message, e);
+                    if (!transport.isConnected()) {
+                        transportPool.invalidate(transport);
+                        transport = null;
+                    }
+                    continue;
+                }
+                emailOutboxRepository.markSent(List.of(id), LocalDateTime.now());
+            }
+        } finally {
+            if (transport != null) {
+                transportPool.release(transport);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox outbox) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        if (!from.isBlank()) {
+            helper.setFrom(from);
+        }
+        helper.setTo(outbox.getRecipient());
+        helper.setSubject(outbox.getSubject());
+        helper.setText(outbox.getBody());
+        helper.setSentDate(new Date());
+        // Transport.sendMessage no lo hace por su cuenta (JavaMailSender.send sí)
+        message.saveChanges();
+        return message;
+    }
+
+    /** Reprograma el correo con backoff, o lo deja en FAILED si agotó los intentos */
+    private void recordFailure(EmailOutbox message, Exception e) {
+        String error = truncate(e.getMessage() != null ? e.getMessage() : e.toString());
+        if (message.getAttempts() >= maxAttempts) {
+            log.warn("Correo {} a {} descartado tras {} intentos: {}", message.getId(), message.getRecipient(), message.getAttempts(), error);
+            emailOutboxRepository.markAttemptFailed(message.getId(), EmailStatus.FAILED, LocalDateTime.now(), error);
+        } else {
+            LocalDateTime next = LocalDateTime.now().plus(backoff(message.getAttempts()));
+            log.info("Falló el envío del correo {} (intento {}), se reintenta a las {}: {}", message.getId(), message.getAttempts(), next, error);
+            emailOutboxRepository.markAttemptFailed(message.getId(), EmailStatus.PENDING, next, error);
+        }
+    }
+
+    /** initialBackoff * 2^(intento - 1), sin superar maxBackoff */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
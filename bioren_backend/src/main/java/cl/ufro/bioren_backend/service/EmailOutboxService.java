@@ -0,0 +1,115 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bandeja de salida de correos. Los servicios encolan el correo en la misma transacción que
+ * el dato que lo origina (token de invitación, de recuperación), sin esperar al servidor SMTP;
+ * EmailOutboxDispatcher lo envía en segundo plano, con reintentos.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    private static final int MAX_LIST_SIZE = 100;
+    /** Clave del recurso de transacción con los ids por despachar */
+    private static final Object PENDING_DISPATCH = new Object();
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxDispatcher dispatcher;
+
+    /**
+     * Guarda el correo como PENDING. Si la transacción se confirma se despacha de inmediato al pool
+     * de envío, junto con los demás correos de la misma transacción; si se revierte, desaparece con ella.
+     */
+    @Transactional
+    public EmailOutbox enqueue(String recipient, String subject, String body) {
+        return enqueue(recipient, subject, body, null);
+    }
+
+    /**
+     * Igual que enqueue(recipient, subject, body), asociando el correo a una importación masiva.
+     */
+    @Transactional
+    public EmailOutbox enqueue(String recipient, String subject, String body, String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox message = emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .jobId(jobId)
+                .status(EmailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        pendingDispatch().add(message.getId());
+        return message;
+    }
+
+    /**
+     * Estado de entrega de los correos de una importación: cantidad por estado (sin los estados vacíos).
+     */
+    @Transactional(readOnly = true)
+    public Map<EmailStatus, Long> countByStatus(String jobId) {
+        Map<EmailStatus, Long> counts = new EnumMap<>(EmailStatus.class);
+        for (Object[] row : emailOutboxRepository.countByStatusForJob(jobId)) {
+            counts.put((EmailStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Ids encolados en la transacción actual. Se despachan juntos tras el commit, para que
+     * el pool los envíe en lotes por una misma sesión SMTP.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> pendingDispatch() {
+        List<Long> ids = (List<Long>) TransactionSynchronizationManager.getResource(PENDING_DISPATCH);
+        if (ids == null) {
+            List<Long> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_DISPATCH, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(PENDING_DISPATCH);
+                    if (status == STATUS_COMMITTED) {
+                        dispatcher.dispatch(created);
+                    }
+                }
+            });
+            ids = created;
+        }
+        return ids;
+    }
+
+    @Transactional(readOnly = true)
+    public EmailOutbox getById(Long id) {
+        return emailOutboxRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Correo no encontrado"));
+    }
+
+    /**
+     * Últimos correos (como máximo 100), opcionalmente filtrados por estado.
+     */
+    @Transactional(readOnly = true)
+    public List<EmailOutbox> getLatest(EmailStatus status, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIST_SIZE)));
+        return status == null
+                ? emailOutboxRepository.findAllByOrderByIdDesc(page)
+                : emailOutboxRepository.findByStatusOrderByIdDesc(status, page);
+    }
+}
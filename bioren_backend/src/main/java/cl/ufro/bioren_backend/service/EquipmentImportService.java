@@ -0,0 +1,209 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.EquipmentImportResult;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.EquipmentCriticality;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de equipos desde CSV.
+ * El archivo se lee fila a fila; la unicidad de institutionalId se valida contra un conjunto
+ * cargado una sola vez y los equipos válidos se guardan por bloques mediante EquipmentService.
+ * La memoria usada depende del tamaño del bloque, no del archivo.
+ */
+@Service
+@RequiredArgsConstructor
+public class EquipmentImportService {
+    /** Filas por transacción (múltiplo de hibernate.jdbc.batch_size) */
+    static final int CHUNK_SIZE = 500;
+
+    static final String INSTITUTIONAL_ID = "institutionalId";
+    static final List<String> COLUMNS = List.of(INSTITUTIONAL_ID, "name", "brand", "model", "locationBuilding",
+            "locationUnit", "lastCalibrationDate", "lastMaintenanceDate", "createdDate", "maintenanceFrequencyValue",
+            "maintenanceFrequencyUnit", "criticality", "customMaintenanceInstructions", "purchasedByGovernment",
+            "encargadoEmail");
+
+    private final EquipmentService equipmentService;
+    private final EquipmentRepository equipmentRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Importa los equipos de un CSV con encabezado (columnas en COLUMNS, todas opcionales salvo institutionalId).
+     * Las filas inválidas o repetidas se informan y no detienen la importación.
+     *
+     * @throws IllegalArgumentException si el encabezado no es válido
+     * @throws AccessDeniedException si el usuario no puede crear equipos
+     */
+    public EquipmentImportResult importCsv(InputStream input, User user) throws IOException {
+        if (user.getRole() != UserRole.BIOREN_ADMIN && user.getRole() != UserRole.UNIT_MANAGER) {
+            throw new AccessDeniedException("No tienes permiso para importar equipos");
+        }
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+        try (Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+             CSVParser parser = format.parse(reader)) {
+            validateHeader(parser.getHeaderNames());
+            // En minúsculas: el índice único usa la collation _ci de la columna y no distingue mayúsculas
+            Set<String> knownIds = new HashSet<>();
+            equipmentRepository.findAllInstitutionalIds().forEach(id -> knownIds.add(id.toLowerCase(Locale.ROOT)));
+            Map<String, Long> userIdsByEmail = new HashMap<>();
+            for (Object[] row : userRepository.findEmailIds()) {
+                userIdsByEmail.put((String) row[0], (Long) row[1]);
+            }
+
+            List<EquipmentImportResult.RowError> errors = new ArrayList<>();
+            List<Equipment> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+            int imported = 0;
+            for (CSVRecord record : parser) {
+                long line = parser.getCurrentLineNumber();
+                String institutionalId = value(record, INSTITUTIONAL_ID);
+                try {
+                    Equipment equipment = toEquipment(record, user, userIdsByEmail);
+                    if (!knownIds.add(equipment.getInstitutionalId().toLowerCase(Locale.ROOT))) {
+                        throw new IllegalArgumentException("institutionalId duplicado");
+                    }
+                    chunk.add(equipment);
+                    chunkLines.add(line);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    errors.add(new EquipmentImportResult.RowError(line, institutionalId, e.getMessage()));
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += flush(chunk, chunkLines, errors);
+                }
+            }
+            imported += flush(chunk, chunkLines, errors);
+            return new EquipmentImportResult(imported, errors);
+        }
+    }
+
+    private void validateHeader(List<String> header) {
+        if (header == null || !header.contains(INSTITUTIONAL_ID)) {
+            throw new IllegalArgumentException("El archivo debe tener encabezado con la columna " + INSTITUTIONAL_ID);
+        }
+        for (String column : header) {
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Columna desconocida: " + column);
+            }
+        }
+    }
+
+    /**
+     * Guarda el bloque pendiente. Si la transacción falla, todas sus filas se informan como error.
+     */
+    private int flush(List<Equipment> chunk, List<Long> chunkLines, List<EquipmentImportResult.RowError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int saved = chunk.size();
+        try {
+            equipmentService.saveImportChunk(chunk);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                errors.add(new EquipmentImportResult.RowError(chunkLines.get(i), chunk.get(i).getInstitutionalId(),
+                        "No se pudo guardar el bloque: " + e.getMessage()));
+            }
+            saved = 0;
+        }
+        chunk.clear();
+        chunkLines.clear();
+        return saved;
+    }
+
+    private Equipment toEquipment(CSVRecord record, User user, Map<String, Long> userIdsByEmail) {
+        String institutionalId = value(record, INSTITUTIONAL_ID);
+        if (institutionalId == null) {
+            throw new IllegalArgumentException("institutionalId es obligatorio");
+        }
+        Equipment equipment = Equipment.builder()
+                .institutionalId(institutionalId)
+                .name(value(record, "name"))
+                .brand(value(record, "brand"))
+                .model(value(record, "model"))
+                .locationBuilding(value(record, "locationBuilding"))
+                // Igual que en la creación individual: el jefe de unidad solo crea en su unidad
+                .locationUnit(user.getRole() == UserRole.UNIT_MANAGER ? user.getUnit() : value(record, "locationUnit"))
+                .lastCalibrationDate(date(record, "lastCalibrationDate"))
+                .lastMaintenanceDate(date(record, "lastMaintenanceDate"))
+                .createdDate(date(record, "createdDate"))
+                .customMaintenanceInstructions(value(record, "customMaintenanceInstructions"))
+                .build();
+
+        String frequencyValue = value(record, "maintenanceFrequencyValue");
+        String frequencyUnit = value(record, "maintenanceFrequencyUnit");
+        if (frequencyValue != null || frequencyUnit != null) {
+            if (frequencyValue == null || frequencyUnit == null) {
+                throw new IllegalArgumentException("La frecuencia requiere valor y unidad");
+            }
+            try {
+                equipment.setMaintenanceFrequency(new Equipment.MaintenanceFrequency(Integer.parseInt(frequencyValue),
+                        MaintenanceFrequencyUnit.valueOf(frequencyUnit.toUpperCase(Locale.ROOT))));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Frecuencia inválida: " + frequencyValue + " " + frequencyUnit);
+            }
+        }
+        String criticality = value(record, "criticality");
+        if (criticality != null) {
+            try {
+                equipment.setCriticality(EquipmentCriticality.valueOf(criticality.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Criticidad inválida: " + criticality);
+            }
+        }
+        String purchased = value(record, "purchasedByGovernment");
+        if (purchased != null) {
+            equipment.setPurchasedByGovernment(Boolean.parseBoolean(purchased));
+        }
+        String encargadoEmail = value(record, "encargadoEmail");
+        if (encargadoEmail != null) {
+            Long encargadoId = userIdsByEmail.get(encargadoEmail.toLowerCase(Locale.ROOT));
+            if (encargadoId == null) {
+                throw new IllegalArgumentException("Encargado no encontrado: " + encargadoEmail);
+            }
+            equipment.setEncargado(User.builder().id(encargadoId).build());
+        }
+        return equipment;
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate date(CSVRecord record, String column) {
+        String value = value(record, column);
+        return value == null ? null : LocalDate.parse(value);
+    }
+}
@@ -1,14 +1,33 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.dto.EquipmentSort;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
+import cl.ufro.bioren_backend.event.EquipmentOverdueEvent;
+import cl.ufro.bioren_backend.event.EquipmentRef;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.EquipmentRepository;
 import cl.ufro.bioren_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,12 +37,15 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class EquipmentService {
+    private static final Logger log = LoggerFactory.getLogger(EquipmentService.class);
     private final EquipmentRepository equipmentRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todos los equipos según el rol y unidad del usuario.
      */
+    @Transactional(readOnly = true)
     public List<Equipment> getAllEquipments(User user) {
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
             return equipmentRepository.findAll();
@@ -32,11 +54,95 @@ public class EquipmentService {
         }
     }
 
+    /**
+     * Obtiene una página de equipos visibles para el usuario, sin filtro.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EquipmentSummaryDTO> getEquipmentPage(User user, EquipmentSort sort, String cursor, int limit) {
+        return getEquipmentPage(user, sort, EquipmentFilter.ALL, cursor, limit);
+    }
+
+    /**
+     * Obtiene una página de equipos visibles para el usuario usando paginación por cursor (keyset).
+     * El cursor es opaco para el cliente y codifica la última clave de orden devuelta; el filtro
+     * debe repetirse en cada página. Devuelve la proyección liviana, sin historial de mantenimiento.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido para el orden solicitado
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EquipmentSummaryDTO> getEquipmentPage(User user, EquipmentSort sort, EquipmentFilter filter,
+                                                            String cursor, int limit) {
+        String unit = null;
+        if (user.getRole() != UserRole.BIOREN_ADMIN) {
+            if (user.getUnit() == null) {
+                return new CursorPage<>(List.of(), null);
+            }
+            unit = user.getUnit();
+        }
+        // Se pide un elemento extra para saber si existe una página siguiente
+        Limit fetch = Limit.of(limit + 1);
+        List<EquipmentSummaryDTO> rows;
+        if (sort == EquipmentSort.NEXT_MAINTENANCE_DATE) {
+            if (cursor == null) {
+                rows = equipmentRepository.findFirstPageOrderByNextMaintenanceDate(unit, filter, fetch);
+            } else {
+                String[] key = decodeCursor(cursor, sort);
+                Long afterId = Long.valueOf(key[0]);
+                if (key[1].isEmpty()) {
+                    rows = equipmentRepository.findPageAfterNullNextMaintenanceDate(unit, filter, afterId, fetch);
+                } else {
+                    rows = equipmentRepository.findPageAfterNextMaintenanceDate(unit, filter, LocalDate.parse(key[1]), afterId, fetch);
+                }
+            }
+        } else {
+            if (cursor == null) {
+                rows = equipmentRepository.findFirstPageOrderByInstitutionalId(unit, filter, fetch);
+            } else {
+                rows = equipmentRepository.findPageAfterInstitutionalId(unit, filter, decodeCursor(cursor, sort)[1], fetch);
+            }
+        }
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<EquipmentSummaryDTO> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(items.get(items.size() - 1), sort));
+    }
+
+    private String encodeCursor(EquipmentSummaryDTO last, EquipmentSort sort) {
+        String value = sort == EquipmentSort.NEXT_MAINTENANCE_DATE
+                ? (last.getNextMaintenanceDate() != null ? last.getNextMaintenanceDate().toString() : "")
+                : last.getInstitutionalId();
+        String raw = sort.getParam() + "|" + last.getId() + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en [id, valor], validando que corresponda al orden solicitado.
+     */
+    private String[] decodeCursor(String cursor, EquipmentSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.getParam())) {
+                throw new IllegalArgumentException("Cursor no corresponde al orden " + sort.getParam());
+            }
+            Long.parseLong(parts[1]);
+            if (sort == EquipmentSort.NEXT_MAINTENANCE_DATE && !parts[2].isEmpty()) {
+                LocalDate.parse(parts[2]);
+            }
+            return new String[]{parts[1], parts[2]};
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
     /**
      * Obtiene un equipo por su ID, validando permisos.
+     * El encargado se carga en la misma consulta mediante el grafo Equipment.encargado.
      */
+    @Transactional(readOnly = true)
     public Equipment getEquipmentById(Long id, User user) {
-        Equipment equipment = equipmentRepository.findById(id)
+        Equipment equipment = equipmentRepository.findWithEncargadoById(id)
                 .orElseThrow(() -> new RuntimeException("Equipo no encontrado"));
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getUnit() != null && user.getUnit().equals(equipment.getLocationUnit()))) {
@@ -48,26 +154,61 @@ public class EquipmentService {
     /**
      * Crea un nuevo equipo (solo admin o jefe de unidad de su unidad).
      */
+    @Transactional
     public Equipment createEquipment(Equipment equipment, User user) {
+        equipment.setEncargado(resolveEncargado(equipment.getEncargado()));
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
-            return equipmentRepository.save(equipment);
+            return reloadWithEncargado(equipmentRepository.save(equipment));
         } else if (user.getRole() == UserRole.UNIT_MANAGER) {
             // Asociar la unidad del usuario si es jefe de unidad
             equipment.setLocationUnit(user.getUnit());
-            return equipmentRepository.save(equipment);
+            return reloadWithEncargado(equipmentRepository.save(equipment));
         }
         throw new AccessDeniedException("No tienes permiso para crear equipos en esta unidad");
     }
 
+    /**
+     * Guarda un bloque de equipos nuevos ya validados en una sola transacción.
+     * Con ids por secuencia los INSERT salen en lotes JDBC; al terminar la transacción
+     * el contexto de persistencia se libera, por lo que la memoria no crece con el archivo.
+     */
+    @Transactional
+    public void saveImportChunk(List<Equipment> chunk) {
+        equipmentRepository.saveAll(chunk);
+    }
+
     /**
      * Actualiza un equipo existente (solo admin o jefe de unidad de su unidad).
+     * Si con los nuevos datos el equipo queda Vencido, se notifica tras el commit.
      */
+    @Transactional
     public Equipment updateEquipment(Long id, Equipment updated, User user) {
         Equipment equipment = getEquipmentById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(equipment.getLocationUnit()))) {
-            updated.setId(id);
-            return equipmentRepository.save(updated);
+            // Se copian los campos editables sobre el equipo existente: guardar la entidad recibida
+            // tal cual reemplazaría también su historial de mantenimiento
+            equipment.setName(updated.getName());
+            equipment.setBrand(updated.getBrand());
+            equipment.setModel(updated.getModel());
+            equipment.setInstitutionalId(updated.getInstitutionalId());
+            equipment.setLocationBuilding(updated.getLocationBuilding());
+            equipment.setLocationUnit(updated.getLocationUnit());
+            equipment.setLastCalibrationDate(updated.getLastCalibrationDate());
+            equipment.setLastMaintenanceDate(updated.getLastMaintenanceDate());
+            equipment.setCreatedDate(updated.getCreatedDate());
+            equipment.setEncargado(resolveEncargado(updated.getEncargado()));
+            equipment.setMaintenanceFrequency(updated.getMaintenanceFrequency());
+            equipment.setCustomMaintenanceInstructions(updated.getCustomMaintenanceInstructions());
+            equipment.setCriticality(updated.getCriticality());
+            equipment.setPurchasedByGovernment(updated.getPurchasedByGovernment());
+            String previousStatus = equipment.getStatus();
+            // Lo mismo que hará @PreUpdate al hacer flush, para conocer el status nuevo ahora
+            equipment.calcularProximaMantencionYStatus();
+            if (Equipment.STATUS_OVERDUE.equals(equipment.getStatus()) && !Equipment.STATUS_OVERDUE.equals(previousStatus)) {
+                eventPublisher.publishEvent(new EquipmentOverdueEvent(List.of(EquipmentRef.of(equipment))));
+            }
+            return reloadWithEncargado(equipmentRepository.save(equipment));
         }
         throw new AccessDeniedException("No tienes permiso para editar este equipo");
     }
@@ -75,6 +216,7 @@ public class EquipmentService {
     /**
      * Elimina un equipo (solo admin).
      */
+    @Transactional
     public void deleteEquipment(Long id, User user) {
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
             equipmentRepository.deleteById(id);
@@ -83,6 +225,63 @@ public class EquipmentService {
         }
     }
 
+    /**
+     * Reemplaza la referencia al encargado recibida en la petición (normalmente solo el id)
+     * por el usuario administrado, para que la respuesta incluya sus datos.
+     */
+    private User resolveEncargado(User encargado) {
+        if (encargado == null || encargado.getId() == null) {
+            return encargado;
+        }
+        return userRepository.findById(encargado.getId())
+                .orElseThrow(() -> new RuntimeException("Encargado no encontrado"));
+    }
+
+    /**
+     * Relee un equipo recién guardado con su encargado inicializado, para que la respuesta
+     * pueda mapearse sin carga perezosa fuera de la sesión.
+     */
+    private Equipment reloadWithEncargado(Equipment saved) {
+        if (saved == null || saved.getId() == null) {
+            return saved;
+        }
+        return equipmentRepository.findWithEncargadoById(saved.getId()).orElse(saved);
+    }
+
+    /**
+     * Recalcula el status persistido de todos los equipos. El status depende de la fecha actual,
+     * por lo que se refresca al iniciar y una vez al día con actualizaciones masivas por rango de fecha,
+     * sin cargar los equipos en memoria. Completa además la próxima mantención de equipos
+     * guardados antes de que se persistiera. Los equipos que pasan a Vencido se notifican tras el commit.
+     */
+    @Scheduled(cron = "${bioren.equipment.status-refresh-cron:0 5 0 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refreshStatuses() {
+        List<EquipmentRef> overdue = new ArrayList<>();
+        List<Equipment> pending = equipmentRepository.findWithoutNextMaintenanceDate();
+        // Las entidades están administradas: se guardan al hacer flush
+        for (Equipment equipment : pending) {
+            String previousStatus = equipment.getStatus();
+            equipment.calcularProximaMantencionYStatus();
+            if (Equipment.STATUS_OVERDUE.equals(equipment.getStatus()) && !Equipment.STATUS_OVERDUE.equals(previousStatus)) {
+                overdue.add(EquipmentRef.of(equipment));
+            }
+        }
+        LocalDate today = LocalDate.now();
+        EquipmentFilter overdueFilter = EquipmentFilter.forStatus(Equipment.STATUS_OVERDUE, today);
+        overdue.addAll(equipmentRepository.findStatusTransitions(Equipment.STATUS_OVERDUE, overdueFilter));
+        int changed = 0;
+        for (String status : List.of(Equipment.STATUS_OVERDUE, Equipment.STATUS_WARNING, Equipment.STATUS_OK)) {
+            changed += equipmentRepository.updateStatus(status, EquipmentFilter.forStatus(status, today));
+        }
+        if (!overdue.isEmpty()) {
+            eventPublisher.publishEvent(new EquipmentOverdueEvent(overdue));
+        }
+        log.info("Status de equipos recalculado: {} actualizados, {} sin próxima mantención completados", changed, pending.size());
+    }
+
+    @Transactional(readOnly = true)
     public boolean existsByInstitutionalId(String institutionalId) {
         return equipmentRepository.findByInstitutionalId(institutionalId) != null;
     }
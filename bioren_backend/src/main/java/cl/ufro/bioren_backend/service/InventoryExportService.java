@@ -0,0 +1,101 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.InventoryExportRow;
+import cl.ufro.bioren_backend.export.CsvTabularWriter;
+import cl.ufro.bioren_backend.export.TabularWriter;
+import cl.ufro.bioren_backend.export.XlsxTabularWriter;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del inventario con su historial de mantenimiento (CSV o XLSX).
+ * Las filas se leen como flujo desde la base de datos y se escriben de inmediato en la respuesta,
+ * por lo que la memoria no depende de la cantidad de filas.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryExportService {
+    /** Filas escritas entre cada envío explícito al cliente */
+    static final int FLUSH_EVERY = 1000;
+
+    private final EquipmentRepository equipmentRepository;
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException si el formato no existe
+         */
+        public static Format fromParam(String param) {
+            if (param == null || param.isBlank()) {
+                return CSV;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(param)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Formato no soportado: " + param);
+        }
+    }
+
+    /**
+     * Escribe el inventario visible para el usuario en el flujo dado.
+     * Debe llamarse desde el hilo que escribe la respuesta: la transacción mantiene abierto
+     * el cursor de la consulta mientras se escriben las filas.
+     */
+    @Transactional(readOnly = true)
+    public void export(User user, Format format, OutputStream out) throws IOException {
+        boolean admin = user.getRole() == UserRole.BIOREN_ADMIN;
+        try (TabularWriter writer = format == Format.XLSX ? new XlsxTabularWriter(out, "Inventario") : new CsvTabularWriter(out)) {
+            writer.writeRow(InventoryExportRow.HEADER);
+            // El encabezado sale antes de ejecutar la consulta, que puede tardar en ordenar las filas
+            writer.flush();
+            // Sin unidad asignada un usuario no ve equipos: solo se escribe el encabezado
+            try (Stream<InventoryExportRow> rows = !admin && user.getUnit() == null
+                    ? Stream.empty()
+                    : equipmentRepository.streamInventory(admin ? null : user.getUnit())) {
+                int written = 0;
+                Iterator<InventoryExportRow> it = rows.iterator();
+                while (it.hasNext()) {
+                    writer.writeRow(it.next().values());
+                    if (++written % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
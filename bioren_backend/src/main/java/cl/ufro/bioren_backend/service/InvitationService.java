@@ -4,32 +4,28 @@ import cl.ufro.bioren_backend.model.InvitationToken;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.repository.InvitationTokenRepository;
 import cl.ufro.bioren_backend.repository.UserRepository;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import cl.ufro.bioren_backend.security.OneTimeToken;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class InvitationService {
+    private static final Logger log = LoggerFactory.getLogger(InvitationService.class);
+    private static final String INVITATION_SUBJECT = "Activa tu cuenta";
     private final InvitationTokenRepository invitationTokenRepository;
     private final UserRepository userRepository;
-    private final JavaMailSender mailSender;
-
-    @Value("${jwt.secret:default_secret_key_for_dev}")
-    private String jwtSecret;
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${bioren.invitation.expiry-hours:24}")
     private int invitationExpiryHours;
@@ -37,27 +33,54 @@ public class InvitationService {
     @Value("${bioren.frontend.base-url:https://midominio.com}")
     private String frontendBaseUrl;
 
-    public InvitationToken createAndSendInvitation(User user) throws MessagingException {
+    @Value("${bioren.invitation.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    /**
+     * Reemplaza los tokens del usuario y encola el correo de invitación en la misma transacción:
+     * el correo solo sale si el token quedó guardado.
+     */
+    @Transactional
+    public InvitationToken createAndSendInvitation(User user) {
         // Eliminar tokens previos
         invitationTokenRepository.deleteByUser(user);
-        // Generar token JWT
-        String token = Jwts.builder()
-                .setSubject(user.getId().toString())
-                .setExpiration(Date.from(LocalDateTime.now().plusHours(invitationExpiryHours).atZone(ZoneId.systemDefault()).toInstant()))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
-                .compact();
-        InvitationToken invitationToken = InvitationToken.builder()
-                .user(user)
-                .token(token)
-                .expiry(LocalDateTime.now().plusHours(invitationExpiryHours))
-                .build();
+        // Generar token aleatorio; solo su hash queda en la base
+        String token = OneTimeToken.generate();
+        InvitationToken invitationToken = newToken(user, token);
         invitationTokenRepository.save(invitationToken);
         sendInvitationEmail(user.getEmail(), token);
         return invitationToken;
     }
 
+    /**
+     * Crea los tokens de usuarios recién creados (sin tokens previos) y encola sus correos asociados
+     * a la importación jobId, en la transacción del llamador. Los tokens se insertan en lotes JDBC.
+     */
+    @Transactional
+    public void createInvitations(List<User> users, String jobId) {
+        List<InvitationToken> invitationTokens = new ArrayList<>(users.size());
+        List<String> tokens = new ArrayList<>(users.size());
+        for (User user : users) {
+            String token = OneTimeToken.generate();
+            invitationTokens.add(newToken(user, token));
+            tokens.add(token);
+        }
+        invitationTokenRepository.saveAll(invitationTokens);
+        for (int i = 0; i < users.size(); i++) {
+            emailOutboxService.enqueue(users.get(i).getEmail(), INVITATION_SUBJECT, invitationText(tokens.get(i)), jobId);
+        }
+    }
+
+    private InvitationToken newToken(User user, String token) {
+        return InvitationToken.builder()
+                .user(user)
+                .tokenHash(OneTimeToken.hash(token))
+                .expiry(LocalDateTime.now().plusHours(invitationExpiryHours))
+                .build();
+    }
+
     public Optional<InvitationToken> validateToken(String token) {
-        Optional<InvitationToken> invitationToken = invitationTokenRepository.findByToken(token);
+        Optional<InvitationToken> invitationToken = invitationTokenRepository.findByTokenHash(OneTimeToken.hash(token));
         if (invitationToken.isPresent() && invitationToken.get().getExpiry().isAfter(LocalDateTime.now())) {
             return invitationToken;
         }
@@ -66,7 +89,7 @@ public class InvitationService {
 
     @Transactional
     public void activateUser(String token, String newPassword, String passwordHash) {
-        InvitationToken invitationToken = invitationTokenRepository.findByToken(token)
+        InvitationToken invitationToken = invitationTokenRepository.findByTokenHash(OneTimeToken.hash(token))
                 .orElseThrow(() -> new RuntimeException("Token de invitación inválido"));
         User user = invitationToken.getUser();
         user.setPassword(passwordHash);
@@ -76,15 +99,32 @@ public class InvitationService {
         invitationTokenRepository.deleteByUser(user);
     }
 
-    public void sendInvitationEmail(String email, String token) throws MessagingException {
+    /**
+     * Elimina los tokens de invitación y recuperación vencidos, por bloques de purgeBatchSize filas,
+     * cada uno con una sentencia DELETE y su propia transacción.
+     *
+     * @return cantidad de tokens eliminados
+     */
+    @Scheduled(cron = "${bioren.invitation.purge-cron:0 30 3 * * *}")
+    public int purgeExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = invitationTokenRepository.deleteExpired(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        log.info("Tokens de invitación vencidos eliminados: {}", total);
+        return total;
+    }
+
+    /** Encola el correo (ver EmailOutboxService); el envío SMTP ocurre fuera del hilo de la petición */
+    public void sendInvitationEmail(String email, String token) {
+        emailOutboxService.enqueue(email, INVITATION_SUBJECT, invitationText(token));
+    }
+
+    private String invitationText(String token) {
         String link = frontendBaseUrl + "/invite/" + token;
-        String subject = "Activa tu cuenta";
-        String text = "Hola,\n\nHas sido invitado a la plataforma. Haz clic en el siguiente enlace para activar tu cuenta y definir tu contraseña:\n" + link + "\n\nEste enlace expirará en 24 horas.";
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setTo(email);
-        helper.setSubject(subject);
-        helper.setText(text);
-        mailSender.send(message);
+        return "Hola,\n\nHas sido invitado a la plataforma. Haz clic en el siguiente enlace para activar tu cuenta y definir tu contraseña:\n" + link + "\n\nEste enlace expirará en 24 horas.";
     }
 } 
\ No newline at end of file
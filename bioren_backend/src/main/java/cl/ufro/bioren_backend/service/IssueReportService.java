@@ -1,16 +1,27 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.IssueReportResponseDTO;
+import cl.ufro.bioren_backend.event.EquipmentRef;
+import cl.ufro.bioren_backend.event.IssueReportEvent;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.IssueReport;
+import cl.ufro.bioren_backend.model.IssueSeverity;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.EquipmentRepository;
 import cl.ufro.bioren_backend.repository.IssueReportRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para la gestión de incidencias, con validación de permisos según el rol del usuario.
@@ -54,29 +65,48 @@ public class IssueReportService {
     }
     private final IssueReportRepository issueReportRepository;
     private final EquipmentRepository equipmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todas las incidencias visibles para el usuario.
+     * El filtro por unidad se resuelve en la base de datos y los adjuntos se cargan
+     * en una segunda consulta, por lo que el número de sentencias no depende del volumen.
      */
-    public List<IssueReport> getAll(User user) {
+    @Transactional(readOnly = true)
+    public List<IssueReportResponseDTO> getAll(User user) {
+        List<IssueReportResponseDTO> reports;
+        List<AttachmentRowDTO> attachments;
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
-            return issueReportRepository.findAll();
-        } else {
+            reports = issueReportRepository.findAllSummaries();
+            attachments = issueReportRepository.findAllAttachmentRows();
+        } else if (user.getUnit() != null) {
             // Solo incidencias de equipos de su unidad
-            return issueReportRepository.findAll().stream()
-                    .filter(ir -> {
-                        Equipment eq = ir.getEquipment();
-                        return eq != null && user.getUnit() != null && user.getUnit().equals(eq.getLocationUnit());
-                    })
-                    .toList();
+            reports = issueReportRepository.findSummariesByLocationUnit(user.getUnit());
+            attachments = issueReportRepository.findAttachmentRowsByLocationUnit(user.getUnit());
+        } else {
+            return List.of();
+        }
+        Map<Long, IssueReportResponseDTO> byId = reports.stream()
+                .collect(Collectors.toMap(IssueReportResponseDTO::getId, Function.identity()));
+        for (AttachmentRowDTO row : attachments) {
+            IssueReportResponseDTO dto = byId.get(row.ownerId());
+            if (dto != null) {
+                IssueReportResponseDTO.AttachmentDTO a = new IssueReportResponseDTO.AttachmentDTO();
+                a.setName(row.name());
+                a.setUrl(row.url());
+                dto.getAttachments().add(a);
+            }
         }
+        return reports;
     }
 
     /**
      * Obtiene una incidencia por su ID, validando permisos.
+     * El equipo y los adjuntos se cargan en la misma consulta (grafo IssueReport.detail).
      */
+    @Transactional(readOnly = true)
     public IssueReport getById(Long id, User user) {
-        IssueReport ir = issueReportRepository.findById(id)
+        IssueReport ir = issueReportRepository.findWithDetailById(id)
                 .orElseThrow(() -> new RuntimeException("Incidencia no encontrada"));
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (ir.getEquipment() != null && user.getUnit() != null && user.getUnit().equals(ir.getEquipment().getLocationUnit()))) {
@@ -87,28 +117,44 @@ public class IssueReportService {
 
     /**
      * Crea una nueva incidencia (admin, jefe de unidad o encargado de equipo de su unidad).
+     * Tras el commit se notifica a los responsables del equipo (y a los administradores si es crítica).
      */
+    @Transactional
     public IssueReport create(IssueReport ir, User user) {
         Equipment eq = equipmentRepository.findById(ir.getEquipment().getId())
                 .orElseThrow(() -> new RuntimeException("Equipo no encontrado"));
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getUnit() != null && user.getUnit().equals(eq.getLocationUnit()))) {
             ir.setEquipment(eq);
-            return issueReportRepository.save(ir);
+            IssueReport saved = issueReportRepository.save(ir);
+            eventPublisher.publishEvent(new IssueReportEvent(saved.getId(), EquipmentRef.of(eq), saved.getSeverity(),
+                    saved.getStatus(), true, false, user.getId()));
+            return saved;
         }
         throw new AccessDeniedException("No tienes permiso para crear incidencias en esta unidad");
     }
 
     /**
      * Actualiza una incidencia (admin o jefe de unidad de su unidad).
+     * Si cambia su estado o pasa a ser crítica, se notifica tras el commit.
      */
+    @Transactional
     public IssueReport update(Long id, IssueReport updated, User user) {
         IssueReport ir = getById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(ir.getEquipment().getLocationUnit()))) {
+            IssueSeverity previousSeverity = ir.getSeverity();
+            String previousStatus = ir.getStatus();
             updated.setId(id);
             updated.setEquipment(ir.getEquipment());
-            return issueReportRepository.save(updated);
+            IssueReport saved = issueReportRepository.save(updated);
+            boolean escalated = saved.getSeverity() == IssueSeverity.CRITICAL && previousSeverity != IssueSeverity.CRITICAL;
+            if (escalated || !Objects.equals(previousStatus, saved.getStatus())) {
+                eventPublisher.publishEvent(new IssueReportEvent(id, EquipmentRef.of(ir.getEquipment()), saved.getSeverity(),
+                        saved.getStatus(), false, escalated, user.getId()));
+            }
+            // Releer con el grafo de detalle para mapear la respuesta sin carga perezosa
+            return issueReportRepository.findWithDetailById(id).orElse(saved);
         }
         throw new AccessDeniedException("No tienes permiso para editar esta incidencia");
     }
@@ -116,6 +162,7 @@ public class IssueReportService {
     /**
      * Elimina una incidencia (admin o jefe de unidad de su unidad).
      */
+    @Transactional
     public void delete(Long id, User user) {
         IssueReport ir = getById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
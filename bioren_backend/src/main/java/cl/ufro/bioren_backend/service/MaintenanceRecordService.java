@@ -1,5 +1,10 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
+import cl.ufro.bioren_backend.event.EquipmentOverdueEvent;
+import cl.ufro.bioren_backend.event.EquipmentRef;
+import cl.ufro.bioren_backend.event.MaintenanceRecordedEvent;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.MaintenanceRecord;
 import cl.ufro.bioren_backend.model.User;
@@ -7,10 +12,16 @@ import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.EquipmentRepository;
 import cl.ufro.bioren_backend.repository.MaintenanceRecordRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para la gestión de registros de mantenimiento, con validación de permisos según el rol del usuario.
@@ -20,29 +31,84 @@ import java.util.List;
 public class MaintenanceRecordService {
     private final MaintenanceRecordRepository maintenanceRecordRepository;
     private final EquipmentRepository equipmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todos los registros de mantenimiento visibles para el usuario.
+     * El filtro por unidad se resuelve en la base de datos y los adjuntos se cargan
+     * en una segunda consulta, por lo que el número de sentencias no depende del volumen.
      */
-    public List<MaintenanceRecord> getAll(User user) {
+    @Transactional(readOnly = true)
+    public List<MaintenanceRecordResponseDTO> getAll(User user) {
+        List<MaintenanceRecordResponseDTO> records;
+        List<AttachmentRowDTO> attachments;
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
-            return maintenanceRecordRepository.findAll();
-        } else {
+            records = maintenanceRecordRepository.findAllSummaries();
+            attachments = maintenanceRecordRepository.findAllAttachmentRows();
+        } else if (user.getUnit() != null) {
             // Solo registros de equipos de su unidad
-            return maintenanceRecordRepository.findAll().stream()
-                    .filter(mr -> {
-                        Equipment eq = mr.getEquipment();
-                        return eq != null && user.getUnit() != null && user.getUnit().equals(eq.getLocationUnit());
-                    })
-                    .toList();
+            records = maintenanceRecordRepository.findSummariesByLocationUnit(user.getUnit());
+            attachments = maintenanceRecordRepository.findAttachmentRowsByLocationUnit(user.getUnit());
+        } else {
+            return List.of();
+        }
+        attachAll(records, attachments);
+        return records;
+    }
+
+    /**
+     * Obtiene el historial de mantenimiento de un equipo, validando permisos sobre el equipo.
+     */
+    @Transactional(readOnly = true)
+    public List<MaintenanceRecordResponseDTO> getByEquipment(Long equipmentId, User user) {
+        Equipment eq = equipmentRepository.findById(equipmentId)
+                .orElseThrow(() -> new RuntimeException("Equipo no encontrado"));
+        if (user.getRole() != UserRole.BIOREN_ADMIN &&
+            (user.getUnit() == null || !user.getUnit().equals(eq.getLocationUnit()))) {
+            throw new AccessDeniedException("No tienes permiso para ver este equipo");
         }
+        List<MaintenanceRecordResponseDTO> records = maintenanceRecordRepository.findSummariesByEquipmentId(equipmentId);
+        attachAll(records, maintenanceRecordRepository.findAttachmentRowsByEquipmentId(equipmentId));
+        return records;
+    }
+
+    /**
+     * Asigna a cada registro sus adjuntos, cargados previamente en una sola consulta.
+     */
+    private void attachAll(List<MaintenanceRecordResponseDTO> records, List<AttachmentRowDTO> attachments) {
+        Map<Long, MaintenanceRecordResponseDTO> byId = records.stream()
+                .collect(Collectors.toMap(MaintenanceRecordResponseDTO::getId, Function.identity()));
+        for (AttachmentRowDTO row : attachments) {
+            MaintenanceRecordResponseDTO dto = byId.get(row.ownerId());
+            if (dto != null) {
+                dto.getAttachments().add(new MaintenanceRecordResponseDTO.AttachmentDTO(row.name(), row.url()));
+            }
+        }
+    }
+
+    /**
+     * Convierte MaintenanceRecord a MaintenanceRecordResponseDTO.
+     * Se espera que el equipo y los adjuntos vengan cargados (grafo MaintenanceRecord.detail).
+     */
+    public MaintenanceRecordResponseDTO toDTO(MaintenanceRecord mr) {
+        if (mr == null) return null;
+        Equipment eq = mr.getEquipment();
+        MaintenanceRecordResponseDTO dto = new MaintenanceRecordResponseDTO(mr.getId(), mr.getDate(), mr.getDescription(),
+                mr.getPerformedBy(), eq != null ? eq.getId() : null, eq != null ? eq.getName() : null,
+                eq != null ? eq.getInstitutionalId() : null, eq != null ? eq.getLocationUnit() : null);
+        if (mr.getAttachments() != null) {
+            mr.getAttachments().forEach(att ->
+                    dto.getAttachments().add(new MaintenanceRecordResponseDTO.AttachmentDTO(att.getName(), att.getUrl())));
+        }
+        return dto;
     }
 
     /**
      * Obtiene un registro de mantenimiento por su ID, validando permisos.
      */
+    @Transactional(readOnly = true)
     public MaintenanceRecord getById(Long id, User user) {
-        MaintenanceRecord mr = maintenanceRecordRepository.findById(id)
+        MaintenanceRecord mr = maintenanceRecordRepository.findWithDetailById(id)
                 .orElseThrow(() -> new RuntimeException("Registro de mantenimiento no encontrado"));
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (mr.getEquipment() != null && user.getUnit() != null && user.getUnit().equals(mr.getEquipment().getLocationUnit()))) {
@@ -53,14 +119,19 @@ public class MaintenanceRecordService {
 
     /**
      * Crea un nuevo registro de mantenimiento (admin o jefe de unidad de su unidad).
+     * Tras el commit se notifica a los responsables del equipo.
      */
+    @Transactional
     public MaintenanceRecord create(MaintenanceRecord mr, User user) {
         Equipment eq = equipmentRepository.findById(mr.getEquipment().getId())
                 .orElseThrow(() -> new RuntimeException("Equipo no encontrado"));
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(eq.getLocationUnit()))) {
             mr.setEquipment(eq);
-            return maintenanceRecordRepository.save(mr);
+            MaintenanceRecord saved = maintenanceRecordRepository.save(mr);
+            advanceLastMaintenanceDate(eq, mr.getDate());
+            eventPublisher.publishEvent(new MaintenanceRecordedEvent(saved.getId(), EquipmentRef.of(eq), saved.getDate(), user.getId()));
+            return saved;
         }
         throw new AccessDeniedException("No tienes permiso para crear registros en esta unidad");
     }
@@ -68,13 +139,25 @@ public class MaintenanceRecordService {
     /**
      * Actualiza un registro de mantenimiento (admin o jefe de unidad de su unidad).
      */
+    @Transactional
     public MaintenanceRecord update(Long id, MaintenanceRecord updated, User user) {
         MaintenanceRecord mr = getById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(mr.getEquipment().getLocationUnit()))) {
+            // save() copia los cambios sobre mr: la fecha anterior se toma antes
+            LocalDate previousDate = mr.getDate();
+            Equipment eq = mr.getEquipment();
             updated.setId(id);
-            updated.setEquipment(mr.getEquipment());
-            return maintenanceRecordRepository.save(updated);
+            updated.setEquipment(eq);
+            MaintenanceRecord saved = maintenanceRecordRepository.save(updated);
+            if (isLastMaintenance(eq, previousDate)
+                    && (updated.getDate() == null || updated.getDate().isBefore(previousDate))) {
+                recomputeLastMaintenanceDate(eq);
+            } else {
+                advanceLastMaintenanceDate(eq, updated.getDate());
+            }
+            // Releer con el grafo de detalle para mapear la respuesta sin carga perezosa
+            return maintenanceRecordRepository.findWithDetailById(id).orElse(saved);
         }
         throw new AccessDeniedException("No tienes permiso para editar este registro de mantenimiento");
     }
@@ -82,13 +165,51 @@ public class MaintenanceRecordService {
     /**
      * Elimina un registro de mantenimiento (admin o jefe de unidad de su unidad).
      */
+    @Transactional
     public void delete(Long id, User user) {
         MaintenanceRecord mr = getById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(mr.getEquipment().getLocationUnit()))) {
             maintenanceRecordRepository.deleteById(id);
+            if (isLastMaintenance(mr.getEquipment(), mr.getDate())) {
+                recomputeLastMaintenanceDate(mr.getEquipment());
+            }
         } else {
             throw new AccessDeniedException("No tienes permiso para eliminar este registro de mantenimiento");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Adelanta la última mantención del equipo si el registro es más reciente.
+     * Al guardar el equipo se recalculan y persisten su próxima mantención y su status.
+     */
+    private void advanceLastMaintenanceDate(Equipment eq, LocalDate date) {
+        if (eq == null || date == null) return;
+        if (eq.getLastMaintenanceDate() == null || date.isAfter(eq.getLastMaintenanceDate())) {
+            eq.setLastMaintenanceDate(date);
+            equipmentRepository.save(eq);
+        }
+    }
+
+    private static boolean isLastMaintenance(Equipment eq, LocalDate date) {
+        return eq != null && date != null && date.equals(eq.getLastMaintenanceDate());
+    }
+
+    /**
+     * Vuelve a tomar la última mantención del equipo de sus registros, cuando se eliminó o se
+     * atrasó el registro más reciente, y recalcula su próxima mantención y su status.
+     * Si con eso el equipo queda Vencido, se notifica tras el commit.
+     */
+    private void recomputeLastMaintenanceDate(Equipment eq) {
+        Equipment current = equipmentRepository.findById(eq.getId())
+                .orElseThrow(() -> new RuntimeException("Equipo no encontrado"));
+        String previousStatus = current.getStatus();
+        current.setLastMaintenanceDate(maintenanceRecordRepository.findLatestDateByEquipmentId(eq.getId()));
+        // Lo mismo que hará @PreUpdate al hacer flush, para conocer el status nuevo ahora
+        current.calcularProximaMantencionYStatus();
+        if (Equipment.STATUS_OVERDUE.equals(current.getStatus()) && !Equipment.STATUS_OVERDUE.equals(previousStatus)) {
+            eventPublisher.publishEvent(new EquipmentOverdueEvent(List.of(EquipmentRef.of(current))));
+        }
+        equipmentRepository.save(current);
+    }
+}
@@ -0,0 +1,157 @@
+package cl.ufro.bioren_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Purga del archivo de notificaciones (app_notification_archive) tras archive-retention-months.
+ * En MariaDB la tabla está particionada por mes (ver V10__Partition_notification_archive): purgar es
+ * eliminar las particiones vencidas, sin recorrer filas, y de paso se crean por adelantado las
+ * particiones de los próximos meses. En otras bases de datos (H2 en las pruebas) se borra por bloques.
+ */
+@Component
+public class NotificationArchivePartitions {
+    private static final Logger log = LoggerFactory.getLogger(NotificationArchivePartitions.class);
+    static final String TABLE = "app_notification_archive";
+    static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final int retentionMonths;
+    private final int monthsAhead;
+    private final int batchSize;
+    private volatile Boolean partitioned;
+
+    public NotificationArchivePartitions(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                         @Value("${bioren.notifications.archive.retention-months:24}") int retentionMonths,
+                                         @Value("${bioren.notifications.archive.months-ahead:2}") int monthsAhead,
+                                         @Value("${bioren.notifications.retention.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Elimina del archivo las notificaciones de meses anteriores a retentionMonths y, si la tabla
+     * está particionada, crea las particiones de los próximos meses.
+     *
+     * @return filas borradas (sin particiones) o particiones eliminadas
+     */
+    public int purgeExpired(LocalDate today) {
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(retentionMonths);
+        if (!isPartitioned()) {
+            int total = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("delete from " + TABLE + " where timestamp < ? limit ?",
+                        cutoff.atStartOfDay(), batchSize);
+                total += deleted;
+            } while (deleted == batchSize);
+            return total;
+        }
+        List<Partition> existing = jdbcTemplate.query(
+                "select partition_name, partition_description from information_schema.partitions "
+                        + "where table_schema = database() and table_name = ? and partition_name is not null "
+                        + "order by partition_ordinal_position",
+                (rs, row) -> Partition.parse(rs.getString(1), rs.getString(2)), TABLE);
+        int dropped = 0;
+        for (String ddl : plan(existing, today, cutoff, monthsAhead)) {
+            log.info("Archivo de notificaciones: {}", ddl);
+            jdbcTemplate.execute(ddl);
+            if (ddl.contains(" drop partition ")) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Al iniciar, deja creadas las particiones del mes actual y los siguientes (solo en MariaDB).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparePartitions() {
+        if (isPartitioned()) {
+            purgeExpired(LocalDate.now());
+        }
+    }
+
+    /**
+     * Sentencias para dejar las particiones al día: eliminar las que terminan en o antes de cutoff
+     * y separar de pmax los meses que faltan hasta monthsAhead meses después del actual.
+     */
+    static List<String> plan(List<Partition> existing, LocalDate today, LocalDate cutoff, int monthsAhead) {
+        List<String> statements = new ArrayList<>();
+        LocalDate lastBound = null;
+        for (Partition partition : existing) {
+            if (partition.upperBound() == null) {
+                continue;
+            }
+            if (!partition.upperBound().isAfter(cutoff)) {
+                statements.add("alter table " + TABLE + " drop partition " + partition.name());
+            }
+            if (lastBound == null || partition.upperBound().isAfter(lastBound)) {
+                lastBound = partition.upperBound();
+            }
+        }
+        boolean hasMax = existing.stream().anyMatch(p -> p.upperBound() == null);
+        LocalDate currentMonth = today.withDayOfMonth(1);
+        // Cada partición nueva contiene un mes: desde el último límite existente hasta el último mes a cubrir
+        LocalDate month = lastBound != null ? lastBound : currentMonth;
+        LocalDate lastMonth = currentMonth.plusMonths(monthsAhead);
+        List<String> created = new ArrayList<>();
+        while (!month.isAfter(lastMonth)) {
+            created.add("partition " + month.format(PARTITION_NAME) + " values less than ('" + month.plusMonths(1) + "')");
+            month = month.plusMonths(1);
+        }
+        if (hasMax && !created.isEmpty()) {
+            statements.add("alter table " + TABLE + " reorganize partition " + MAX_PARTITION + " into ("
+                    + String.join(", ", created) + ", partition " + MAX_PARTITION + " values less than (maxvalue))");
+        }
+        return statements;
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                String name = product.toLowerCase(Locale.ROOT);
+                partitioned = name.contains("mariadb") || name.contains("mysql");
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("No se pudo identificar la base de datos", e);
+            }
+        }
+        return partitioned;
+    }
+
+    /**
+     * Partición de la tabla: upperBound es el límite exclusivo (null para MAXVALUE).
+     */
+    record Partition(String name, LocalDate upperBound) {
+        /** partition_description de RANGE COLUMNS: '2025-11-01' o '2025-11-01 00:00:00', o MAXVALUE */
+        static Partition parse(String name, String description) {
+            String value = description.replace("'", "").trim();
+            if (value.equalsIgnoreCase("MAXVALUE")) {
+                return new Partition(name, null);
+            }
+            return new Partition(name, LocalDate.parse(value.substring(0, 10)));
+        }
+    }
+}
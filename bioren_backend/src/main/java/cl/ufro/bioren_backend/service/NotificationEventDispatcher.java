@@ -0,0 +1,190 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.event.EquipmentNotice;
+import cl.ufro.bioren_backend.event.EquipmentRef;
+import cl.ufro.bioren_backend.model.NotificationEvent;
+import cl.ufro.bioren_backend.repository.NotificationEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Convierte los avisos de notification_event en notificaciones, en un pool acotado fuera de los hilos
+ * HTTP. Cada lote se procesa en una transacción que inserta las notificaciones y borra los avisos, así
+ * que un aviso no se pierde ni se notifica dos veces. Con la cola llena el aviso queda en la tabla y lo
+ * recoge el siguiente sondeo, igual que los de un reinicio o de un intento fallido.
+ */
+@Component
+public class NotificationEventDispatcher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(NotificationEventDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    /** Avisos por transacción (los destinatarios de un lote se cargan en una consulta) */
+    static final int BATCH_SIZE = 200;
+    /** Lotes que un sondeo agrega a la cola como máximo */
+    private static final int MAX_BATCHES_PER_POLL = 10;
+
+    private final NotificationEventRepository eventRepository;
+    private final AppNotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration lease;
+
+    public NotificationEventDispatcher(NotificationEventRepository eventRepository,
+                                       AppNotificationService notificationService,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${bioren.notifications.events.threads:2}") int threads,
+                                       @Value("${bioren.notifications.events.queue-capacity:100}") int queueCapacity,
+                                       @Value("${bioren.notifications.events.max-attempts:5}") int maxAttempts,
+                                       @Value("${bioren.notifications.events.retry-delay:1m}") Duration retryDelay,
+                                       @Value("${bioren.notifications.events.lease:5m}") Duration lease) {
+        this.eventRepository = eventRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.lease = lease;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "notification-events-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Encola los avisos en el pool, en lotes de BATCH_SIZE. Nunca corre el trabajo en el hilo que llama:
+     * con la cola llena los avisos siguen en la tabla para el próximo sondeo.
+     */
+    public void dispatch(List<Long> ids) {
+        for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+            List<Long> batch = List.copyOf(ids.subList(start, Math.min(start + BATCH_SIZE, ids.size())));
+            try {
+                executor.execute(() -> deliver(batch));
+            } catch (RejectedExecutionException e) {
+                log.warn("Pool de notificaciones lleno; {} avisos quedan para el próximo sondeo", ids.size() - start);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Despacha los avisos vencidos: los que no cupieron en la cola, los reintentos y los de un lease vencido.
+     */
+    @Scheduled(fixedDelayString = "${bioren.notifications.events.poll-interval:10s}")
+    public void dispatchDue() {
+        int free = Math.min(executor.getQueue().remainingCapacity(), MAX_BATCHES_PER_POLL);
+        if (free == 0) {
+            return;
+        }
+        dispatch(eventRepository.findDueIds(LocalDateTime.now(), maxAttempts, PageRequest.of(0, free * BATCH_SIZE)));
+    }
+
+    /**
+     * Toma los avisos del lote (omite los que ya tomó otro hilo) y los procesa en una transacción.
+     * Si el lote falla se reintenta aviso por aviso, para que solo el que falla quede pendiente.
+     */
+    void deliver(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(lease);
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (eventRepository.claim(id, now, leaseUntil, maxAttempts) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        List<NotificationEvent> events = eventRepository.findAllById(claimed);
+        try {
+            process(events);
+        } catch (RuntimeException e) {
+            if (events.size() == 1) {
+                recordFailure(events.get(0), e);
+                return;
+            }
+            for (NotificationEvent event : events) {
+                try {
+                    process(List.of(event));
+                } catch (RuntimeException single) {
+                    recordFailure(event, single);
+                }
+            }
+        }
+    }
+
+    private void process(List<NotificationEvent> events) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            notificationService.notifyEquipmentTeams(events.stream().map(NotificationEventDispatcher::toNotice).toList());
+            eventRepository.deleteAllInBatch(events);
+        });
+    }
+
+    /** Reprograma el aviso tras retryDelay; si agotó los intentos queda en la tabla sin reintentarse */
+    private void recordFailure(NotificationEvent event, RuntimeException e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.toString();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (event.getAttempts() >= maxAttempts) {
+            log.warn("Aviso {} descartado tras {} intentos: {}", event.getId(), event.getAttempts(), error, e);
+        } else {
+            log.info("Falló el aviso {} (intento {}), se reintenta: {}", event.getId(), event.getAttempts(), error);
+        }
+        eventRepository.markAttemptFailed(event.getId(), LocalDateTime.now().plus(retryDelay), error);
+    }
+
+    static NotificationEvent toEvent(EquipmentNotice notice, LocalDateTime now) {
+        EquipmentRef equipment = notice.equipment();
+        return NotificationEvent.builder()
+                .equipmentId(equipment.id())
+                .equipmentName(equipment.name())
+                .institutionalId(equipment.institutionalId())
+                .unit(equipment.unit())
+                .encargadoId(equipment.encargadoId())
+                .type(notice.type())
+                .message(notice.message())
+                .details(notice.details())
+                .link(notice.link())
+                .includeAdmins(notice.includeAdmins())
+                .actorId(notice.actorId())
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    static EquipmentNotice toNotice(NotificationEvent event) {
+        return new EquipmentNotice(
+                new EquipmentRef(event.getEquipmentId(), event.getEquipmentName(), event.getInstitutionalId(),
+                        event.getUnit(), event.getEncargadoId()),
+                event.getType(), event.getMessage(), event.getDetails(), event.getLink(),
+                event.isIncludeAdmins(), event.getActorId());
+    }
+
+    @Override
+    public void destroy() {
+        // Lo que quedaba en la cola sigue en la tabla
+        executor.shutdownNow();
+    }
+}
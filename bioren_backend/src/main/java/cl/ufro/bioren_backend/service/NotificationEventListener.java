@@ -0,0 +1,105 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.event.EquipmentNotice;
+import cl.ufro.bioren_backend.event.EquipmentOverdueEvent;
+import cl.ufro.bioren_backend.event.EquipmentRef;
+import cl.ufro.bioren_backend.event.IssueReportEvent;
+import cl.ufro.bioren_backend.event.MaintenanceRecordedEvent;
+import cl.ufro.bioren_backend.model.IssueSeverity;
+import cl.ufro.bioren_backend.model.NotificationEvent;
+import cl.ufro.bioren_backend.repository.NotificationEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Convierte los eventos de dominio en avisos de notification_event, dentro de la transacción que
+ * originó el cambio (justo antes del commit): si se revierte no se notifica nada, y si se confirma
+ * el aviso sobrevive a un reinicio. Tras el commit los avisos pasan a NotificationEventDispatcher,
+ * que genera las notificaciones fuera del hilo de la petición.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationEventListener {
+    /** Clave del recurso de transacción con los ids por despachar */
+    private static final Object PENDING_DISPATCH = new Object();
+
+    private final NotificationEventRepository eventRepository;
+    private final NotificationEventDispatcher dispatcher;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onIssueReport(IssueReportEvent event) {
+        EquipmentRef equipment = event.equipment();
+        boolean critical = event.severity() == IssueSeverity.CRITICAL;
+        String message;
+        if (event.created()) {
+            message = (critical ? "Nueva incidencia crítica en " : "Nueva incidencia en ") + equipment.label();
+        } else if (event.escalated()) {
+            message = "Incidencia crítica en " + equipment.label();
+        } else {
+            message = "Incidencia en " + equipment.label() + ": " + event.status();
+        }
+        String details = event.severity() == null ? event.status() : event.severity() + " - " + event.status();
+        enqueue(List.of(new EquipmentNotice(equipment, critical ? "error" : "warning", message, details,
+                "/issues", critical, event.actorId())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onMaintenanceRecorded(MaintenanceRecordedEvent event) {
+        EquipmentRef equipment = event.equipment();
+        enqueue(List.of(new EquipmentNotice(equipment, "info", "Mantención registrada en " + equipment.label(),
+                "Fecha: " + event.date(), "/equipment/" + equipment.id(), false, event.actorId())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onEquipmentOverdue(EquipmentOverdueEvent event) {
+        List<EquipmentNotice> notices = new ArrayList<>(event.equipments().size());
+        for (EquipmentRef equipment : event.equipments()) {
+            notices.add(new EquipmentNotice(equipment, "warning", "Mantención vencida: " + equipment.label(),
+                    equipment.unit(), "/equipment/" + equipment.id(), false, null));
+        }
+        enqueue(notices);
+    }
+
+    private void enqueue(List<EquipmentNotice> notices) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationEvent> events = new ArrayList<>(notices.size());
+        for (EquipmentNotice notice : notices) {
+            events.add(NotificationEventDispatcher.toEvent(notice, now));
+        }
+        List<Long> ids = pendingDispatch();
+        for (NotificationEvent saved : eventRepository.saveAll(events)) {
+            ids.add(saved.getId());
+        }
+    }
+
+    /**
+     * Ids guardados en la transacción actual; se despachan juntos tras el commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> pendingDispatch() {
+        List<Long> ids = (List<Long>) TransactionSynchronizationManager.getResource(PENDING_DISPATCH);
+        if (ids == null) {
+            List<Long> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_DISPATCH, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(PENDING_DISPATCH);
+                    if (status == STATUS_COMMITTED) {
+                        dispatcher.dispatch(created);
+                    }
+                }
+            });
+            ids = created;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,364 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.NotificationCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distribuye las notificaciones nuevas a los clientes conectados por Server-Sent Events.
+ * Las conexiones son asíncronas (SseEmitter): una conexión inactiva no ocupa un hilo, y las escrituras
+ * las hace un pool pequeño compartido. Cada suscriptor tiene un buffer acotado de eventos pendientes;
+ * si se llena (cliente lento o desconectado) se le desconecta y el cliente se reconecta con
+ * Last-Event-ID para recibir lo que le faltó. Cada heartbeat envía un comentario para mantener
+ * abiertos los proxies y detectar las conexiones cerradas.
+ * <p>
+ * El id de cada evento es la seq de la notificación en la bandeja del destinatario, que se confirma
+ * en orden (ver AppNotificationService). Cada suscriptor recuerda la última seq enviada: descarta
+ * las repetidas (reenvío y en vivo a la vez) y, si en vivo llega una seq posterior a un hueco, las
+ * que faltan ya están confirmadas y se leen de la base de datos antes de seguir.
+ */
+@Component
+public class NotificationHub implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(NotificationHub.class);
+    static final String NOTIFICATION_EVENT = "notification";
+    /** Evento que indica al cliente que recargue la bandeja: faltan más eventos de los que se reenvían */
+    static final String RESYNC_EVENT = "resync";
+
+    private final AppNotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final Executor executor;
+    private final int bufferSize;
+    private final int maxConnections;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Autowired
+    public NotificationHub(AppNotificationRepository notificationRepository,
+                           NotificationCounterRepository counterRepository,
+                           @Value("${bioren.notifications.sse.threads:4}") int threads,
+                           @Value("${bioren.notifications.sse.buffer-size:64}") int bufferSize,
+                           @Value("${bioren.notifications.sse.max-connections:10000}") int maxConnections,
+                           @Value("${bioren.notifications.sse.timeout:30m}") Duration timeout) {
+        this(notificationRepository, counterRepository, newExecutor(threads), bufferSize, maxConnections, timeout);
+    }
+
+    NotificationHub(AppNotificationRepository notificationRepository, NotificationCounterRepository counterRepository,
+                    Executor executor, int bufferSize, int maxConnections, Duration timeout) {
+        this.notificationRepository = notificationRepository;
+        this.counterRepository = counterRepository;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * La cola del pool no necesita cota propia: cada suscriptor tiene como máximo una tarea pendiente.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "notification-sse-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Abre un canal para el usuario. Con lastEventId (cabecera Last-Event-ID, una seq) primero se reenvían
+     * sus notificaciones posteriores; si son más que el buffer, se envía un evento resync.
+     *
+     * @throws IllegalStateException si se alcanzó el máximo de conexiones
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        return register(userId, new SseEmitter(timeoutMillis), lastEventId);
+    }
+
+    SseEmitter register(Long userId, SseEmitter emitter, Long lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new IllegalStateException("Se alcanzó el máximo de conexiones de notificaciones");
+        }
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(subscriber));
+        // Se registra antes de consultar, para no perder lo que llegue entre la consulta y el registro
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> targets = set == null ? ConcurrentHashMap.newKeySet() : set;
+            targets.add(subscriber);
+            return targets;
+        });
+        if (lastEventId == null) {
+            // Cliente nuevo: carga la bandeja por su cuenta y recibe en vivo lo posterior
+            subscriber.lastSent = currentSeq(userId);
+        } else {
+            List<AppNotification> missed = notificationRepository.findReplay(userId, lastEventId, Limit.of(bufferSize + 1));
+            if (missed.size() > bufferSize) {
+                subscriber.lastSent = currentSeq(userId);
+                subscriber.prepend(List.of(new Frame(RESYNC_EVENT, null, "")));
+            } else {
+                subscriber.lastSent = lastEventId;
+                subscriber.prepend(missed.stream().map(Frame::of).toList());
+            }
+        }
+        subscriber.draining.set(false);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Envía las notificaciones a los suscriptores conectados de cada destinatario. No bloquea:
+     * solo encola los eventos y programa su escritura en el pool.
+     */
+    public void publish(Collection<AppNotification> notifications) {
+        for (AppNotification notification : notifications) {
+            if (notification.getRecipient() == null) {
+                continue;
+            }
+            Set<Subscriber> targets = subscribers.get(notification.getRecipient().getId());
+            if (targets == null) {
+                continue;
+            }
+            Frame frame = Frame.of(notification);
+            for (Subscriber subscriber : targets) {
+                offer(subscriber, frame);
+            }
+        }
+    }
+
+    /**
+     * Heartbeat para todos los suscriptores; el que aún tenga el buffer lleno se desconecta.
+     */
+    @Scheduled(fixedRateString = "${bioren.notifications.sse.heartbeat:20s}")
+    public void heartbeat() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                offer(subscriber, Frame.HEARTBEAT);
+            }
+        }
+    }
+
+    private long currentSeq(Long userId) {
+        return counterRepository.findLastSeq(userId).orElse(0L);
+    }
+
+    /** Conexiones abiertas */
+    int connectionCount() {
+        return connections.get();
+    }
+
+    private void offer(Subscriber subscriber, Frame frame) {
+        if (subscriber.offer(frame)) {
+            schedule(subscriber);
+        } else {
+            log.debug("Suscriptor lento desconectado (usuario {})", subscriber.userId);
+            evict(subscriber);
+        }
+    }
+
+    /**
+     * Quita al suscriptor y cierra su conexión desde el pool: complete() espera a que termine
+     * una escritura en curso y no debe bloquear a quien publica.
+     */
+    private void evict(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.closed.set(true);
+        schedule(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.registered.compareAndSet(true, false)) {
+            subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+            connections.decrementAndGet();
+        }
+    }
+
+    /** Programa la escritura de los eventos pendientes; a lo más una tarea por suscriptor */
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+            remove(subscriber);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.closed.get()) {
+                subscriber.emitter.complete();
+                return;
+            }
+            Frame frame;
+            while ((frame = subscriber.poll()) != null) {
+                if (frame.id() == null) {
+                    subscriber.emitter.send(frame.toEvent());
+                    continue;
+                }
+                if (frame.id() > subscriber.lastSent + 1) {
+                    fillGap(subscriber, frame.id());
+                }
+                // Ya enviada: estaba en el reenvío y llegó también en vivo, o la cubrió fillGap
+                if (frame.id() <= subscriber.lastSent) {
+                    continue;
+                }
+                subscriber.emitter.send(frame.toEvent());
+                subscriber.lastSent = frame.id();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // El cliente cerró la conexión
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.hasPending() || subscriber.closed.get()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Envía las notificaciones entre lastSent y seq. Como seq ya está confirmada, las anteriores también
+     * lo están: su publicación en vivo solo viene atrasada (otra transacción u otra instancia) o se
+     * perdió. Si son más que el buffer, se pide al cliente que recargue la bandeja.
+     */
+    private void fillGap(Subscriber subscriber, long seq) throws IOException {
+        List<AppNotification> missed;
+        try {
+            missed = notificationRepository.findReplay(subscriber.userId, subscriber.lastSent, Limit.of(bufferSize + 1));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo completar el stream del usuario {}; se pide recargar la bandeja", subscriber.userId, e);
+            missed = null;
+        }
+        if (missed == null || missed.size() > bufferSize) {
+            subscriber.emitter.send(new Frame(RESYNC_EVENT, null, "").toEvent());
+            subscriber.lastSent = seq - 1;
+            return;
+        }
+        for (AppNotification notification : missed) {
+            subscriber.emitter.send(Frame.of(notification).toEvent());
+            subscriber.lastSent = notification.getSeq();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Un evento por enviar; id es la seq de la notificación. Sin nombre es un heartbeat (comentario SSE).
+     */
+    record Frame(String name, Long id, Object data) {
+        static final Frame HEARTBEAT = new Frame(null, null, null);
+
+        static Frame of(AppNotification notification) {
+            return new Frame(NOTIFICATION_EVENT, notification.getSeq(), notification);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event();
+            if (id != null) {
+                event.id(id.toString());
+            }
+            return event.name(name).data(data);
+        }
+    }
+
+    /**
+     * Conexión de un usuario (puede tener varias, una por pestaña) con su buffer acotado.
+     */
+    static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ArrayDeque<Frame> pending = new ArrayDeque<>();
+        /** Empieza en true: no se escribe nada hasta que register agregue los eventos reenviados */
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        /** Última seq enviada; solo la usa la tarea de escritura (a lo más una a la vez) */
+        private volatile long lastSent;
+
+        Subscriber(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+
+        synchronized boolean offer(Frame frame) {
+            if (pending.size() >= capacity) {
+                return false;
+            }
+            pending.addLast(frame);
+            return true;
+        }
+
+        /**
+         * Pone los eventos reenviados antes que los ya encolados, sin repetir los que estén en ambos.
+         */
+        synchronized void prepend(List<Frame> frames) {
+            Set<Long> ids = new HashSet<>();
+            for (Frame frame : frames) {
+                ids.add(frame.id());
+            }
+            pending.removeIf(frame -> frame.id() != null && ids.contains(frame.id()));
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                pending.addFirst(frames.get(i));
+            }
+        }
+
+        synchronized Frame poll() {
+            return pending.pollFirst();
+        }
+
+        synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+    }
+}
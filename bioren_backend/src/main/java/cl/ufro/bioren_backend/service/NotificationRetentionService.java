@@ -0,0 +1,99 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retención de notificaciones: las leídas con más días que el plazo de su tipo se mueven a
+ * app_notification_archive por bloques de batchSize, cada uno en su propia transacción, de modo que
+ * ningún bloqueo sobre app_notification dure más que un bloque. Luego se purga el archivo
+ * (ver NotificationArchivePartitions). Las no leídas no se archivan.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationRetentionService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private final AppNotificationRepository notificationRepository;
+    private final AppNotificationService notificationService;
+    private final NotificationArchivePartitions archivePartitions;
+
+    @Value("${bioren.notifications.retention.default-days:90}")
+    private int defaultDays;
+
+    @Value("${bioren.notifications.retention.days-by-type:}")
+    private String daysByType;
+
+    @Value("${bioren.notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${bioren.notifications.retention.cron:0 0 4 * * *}")
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        int archived = archiveExpired(now);
+        int purged = archivePartitions.purgeExpired(now.toLocalDate());
+        log.info("Notificaciones archivadas: {}; purga del archivo: {}", archived, purged);
+    }
+
+    /**
+     * Archiva las notificaciones leídas vencidas de cada tipo presente en la tabla.
+     *
+     * @return cantidad de notificaciones archivadas
+     */
+    public int archiveExpired(LocalDateTime now) {
+        Map<String, Integer> days = parseDaysByType(daysByType);
+        List<String> types = new ArrayList<>(notificationRepository.findDistinctTypes());
+        types.add(null);
+        LocalDateTime archivedAt = now.truncatedTo(ChronoUnit.MICROS);
+        int total = 0;
+        for (String type : types) {
+            LocalDateTime cutoff = now.minusDays(days.getOrDefault(type, defaultDays));
+            int moved;
+            do {
+                moved = notificationService.archiveRead(type, cutoff, archivedAt, batchSize);
+                total += moved;
+            } while (moved == batchSize);
+        }
+        return total;
+    }
+
+    /**
+     * Interpreta "tipo:días,tipo:días" (p. ej. info:30,error:365).
+     *
+     * @throws IllegalArgumentException si alguna entrada no es válida
+     */
+    static Map<String, Integer> parseDaysByType(String value) {
+        Map<String, Integer> days = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return days;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("Retención inválida: " + entry.trim());
+            }
+            try {
+                int retention = Integer.parseInt(parts[1].trim());
+                if (retention < 0) {
+                    throw new IllegalArgumentException("Retención inválida: " + entry.trim());
+                }
+                days.put(parts[0].trim(), retention);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Retención inválida: " + entry.trim());
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,102 @@
+package cl.ufro.bioren_backend.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de conexiones SMTP abiertas (Transport), con la configuración de spring.mail.*.
+ * Conectar cuesta varios round-trips (saludo, STARTTLS, AUTH); reutilizar la sesión entre lotes
+ * deja solo el costo de cada mensaje. Las conexiones sin uso por más de idleTimeout, o que el
+ * servidor cerró (isConnected envía NOOP), se descartan al pedirlas.
+ */
+@Component
+public class SmtpTransportPool implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final BlockingDeque<IdleTransport> idle = new LinkedBlockingDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             @Value("${bioren.mail.pool.max-idle:2}") int maxIdle,
+                             @Value("${bioren.mail.pool.idle-timeout:30s}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.maxIdle = maxIdle;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Entrega una conexión abierta: la más reciente del pool que siga viva, o una nueva.
+     */
+    public Transport borrow() throws MessagingException {
+        IdleTransport candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (System.nanoTime() - candidate.since() < idleTimeoutNanos && candidate.transport().isConnected()) {
+                return candidate.transport();
+            }
+            close(candidate.transport());
+        }
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                username == null || username.isEmpty() ? null : username,
+                password == null || password.isEmpty() ? null : password);
+        opened.incrementAndGet();
+        return transport;
+    }
+
+    /** Devuelve una conexión sana al pool; si ya hay maxIdle esperando, la cierra */
+    public void release(Transport transport) {
+        if (!transport.isConnected()) {
+            return;
+        }
+        if (idle.size() < maxIdle) {
+            idle.offerFirst(new IdleTransport(transport, System.nanoTime()));
+        } else {
+            close(transport);
+        }
+    }
+
+    /** Cierra una conexión que falló en vez de devolverla */
+    public void invalidate(Transport transport) {
+        close(transport);
+    }
+
+    /** Conexiones SMTP abiertas desde el inicio */
+    long connectionsOpened() {
+        return opened.get();
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error al cerrar la conexión SMTP", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        IdleTransport entry;
+        while ((entry = idle.pollFirst()) != null) {
+            close(entry.transport());
+        }
+    }
+
+    private record IdleTransport(Transport transport, long since) {
+    }
+}
@@ -0,0 +1,281 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.UserImportResult;
+import cl.ufro.bioren_backend.dto.UserImportRow;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserImportJob;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.UserImportJobRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Alta masiva de usuarios desde CSV o JSON.
+ * La unicidad de los emails se valida con una sola consulta para todo el archivo; los usuarios
+ * válidos se guardan por bloques, cada uno en una transacción que además crea sus tokens y encola
+ * sus invitaciones en la bandeja de salida. La respuesta no espera el envío de los correos.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+    /** Filas por transacción (múltiplo de hibernate.jdbc.batch_size) */
+    static final int CHUNK_SIZE = 500;
+    /** Filas por importación: la consulta de unicidad recibe todos los emails del archivo */
+    static final int MAX_ROWS = 5000;
+
+    static final String EMAIL = "email";
+    static final List<String> COLUMNS = List.of(EMAIL, "name", "role", "unit");
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+    private static final int MAX_EMAIL_LENGTH = 255;
+    /** Error de una fila que no se pudo guardar; el detalle queda en el log y no se envía al cliente */
+    static final String SAVE_ERROR = "No se pudo guardar el usuario";
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final UserImportJobRepository userImportJobRepository;
+    private final EmailOutboxService emailOutboxService;
+
+    /**
+     * Importa los usuarios de un CSV con encabezado (columnas en COLUMNS, todas opcionales salvo email).
+     *
+     * @throws IllegalArgumentException si el encabezado no es válido o el archivo excede MAX_ROWS
+     * @throws AccessDeniedException si el usuario no puede crear usuarios
+     */
+    public UserImportResult importCsv(InputStream input, User user) throws IOException {
+        checkPermission(user);
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+        try (Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+             CSVParser parser = format.parse(reader)) {
+            validateHeader(parser.getHeaderNames());
+            List<UserImportRow> rows = new ArrayList<>();
+            List<Long> lines = new ArrayList<>();
+            for (CSVRecord record : parser) {
+                if (rows.size() == MAX_ROWS) {
+                    throw new IllegalArgumentException("El archivo supera el máximo de " + MAX_ROWS + " filas");
+                }
+                rows.add(new UserImportRow(value(record, EMAIL), value(record, "name"),
+                        value(record, "role"), value(record, "unit")));
+                lines.add(parser.getCurrentLineNumber());
+            }
+            return importRows(rows, lines, user);
+        }
+    }
+
+    /**
+     * Importa los usuarios de un arreglo JSON; las filas se numeran desde 1.
+     *
+     * @throws IllegalArgumentException si hay más de MAX_ROWS filas
+     * @throws AccessDeniedException si el usuario no puede crear usuarios
+     */
+    public UserImportResult importRows(List<UserImportRow> rows, User user) {
+        checkPermission(user);
+        if (rows.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("La importación supera el máximo de " + MAX_ROWS + " filas");
+        }
+        List<Long> lines = new ArrayList<>(rows.size());
+        for (int i = 1; i <= rows.size(); i++) {
+            lines.add((long) i);
+        }
+        return importRows(rows, lines, user);
+    }
+
+    private UserImportResult importRows(List<UserImportRow> rows, List<Long> lines, User user) {
+        Set<String> emails = new HashSet<>();
+        for (UserImportRow row : rows) {
+            String email = normalizedEmail(row);
+            if (email != null) {
+                emails.add(email);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        if (!emails.isEmpty()) {
+            userRepository.findExistingEmails(emails).forEach(email -> existing.add(email.toLowerCase(Locale.ROOT)));
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        userImportJobRepository.save(UserImportJob.builder()
+                .id(jobId)
+                .createdBy(user.getId())
+                .createdAt(LocalDateTime.now())
+                .build());
+        UserImportResult.RowResult[] results = new UserImportResult.RowResult[rows.size()];
+        Set<String> seen = new HashSet<>();
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        int created = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow row = rows.get(i);
+            try {
+                User newUser = toUser(row, user);
+                String email = newUser.getEmail().toLowerCase(Locale.ROOT);
+                if (existing.contains(email)) {
+                    throw new InvalidRowException("El email ya está registrado");
+                }
+                if (!seen.add(email)) {
+                    throw new InvalidRowException("Email duplicado en la importación");
+                }
+                chunk.add(newUser);
+                chunkRows.add(i);
+            } catch (InvalidRowException e) {
+                results[i] = new UserImportResult.RowResult(lines.get(i), row.email(), null, e.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                created += flush(chunk, chunkRows, lines, results, jobId);
+            }
+        }
+        created += flush(chunk, chunkRows, lines, results, jobId);
+        return new UserImportResult(jobId, created, List.of(results));
+    }
+
+    /**
+     * Guarda el bloque pendiente. Si la transacción del bloque falla se reintenta fila por fila, para que
+     * solo las filas que fallan se informen como error (sin el detalle de la excepción, que queda en el log).
+     */
+    private int flush(List<User> chunk, List<Integer> chunkRows, List<Long> lines,
+                      UserImportResult.RowResult[] results, String jobId) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int saved = 0;
+        try {
+            userService.saveImportChunk(chunk, jobId);
+            for (int i = 0; i < chunk.size(); i++) {
+                results[chunkRows.get(i)] = saved(chunk.get(i), lines.get(chunkRows.get(i)));
+            }
+            saved = chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Falló el bloque de {} usuarios de la importación {}; se reintenta fila por fila", chunk.size(), jobId, e);
+            for (int i = 0; i < chunk.size(); i++) {
+                User user = chunk.get(i);
+                int row = chunkRows.get(i);
+                // El id asignado en la transacción revertida no existe: se guarda como usuario nuevo
+                user.setId(null);
+                try {
+                    userService.saveImportChunk(List.of(user), jobId);
+                    results[row] = saved(user, lines.get(row));
+                    saved++;
+                } catch (RuntimeException rowError) {
+                    log.warn("No se pudo guardar la fila {} de la importación {}", lines.get(row), jobId, rowError);
+                    results[row] = new UserImportResult.RowResult(lines.get(row), user.getEmail(), null, SAVE_ERROR);
+                }
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+        return saved;
+    }
+
+    private static UserImportResult.RowResult saved(User user, long line) {
+        return new UserImportResult.RowResult(line, user.getEmail(), user.getId(), null);
+    }
+
+    /**
+     * Estado de entrega de las invitaciones de una importación: cantidad de correos por estado.
+     * Vacío si la importación no existe o no es del usuario (salvo para el administrador).
+     */
+    public Optional<Map<EmailStatus, Long>> getImportStatus(String jobId, User user) {
+        Optional<UserImportJob> job = userImportJobRepository.findById(jobId);
+        if (job.isEmpty() || (user.getRole() != UserRole.BIOREN_ADMIN && !job.get().getCreatedBy().equals(user.getId()))) {
+            return Optional.empty();
+        }
+        return Optional.of(emailOutboxService.countByStatus(jobId));
+    }
+
+    private User toUser(UserImportRow row, User user) {
+        String email = row.email() == null ? null : row.email().trim();
+        if (email == null || email.isEmpty()) {
+            throw new InvalidRowException("email es obligatorio");
+        }
+        if (email.length() > MAX_EMAIL_LENGTH || !EMAIL_PATTERN.matcher(email).matches()) {
+            throw new InvalidRowException("Email inválido: " + email);
+        }
+        UserRole role = UserRole.EQUIPMENT_MANAGER;
+        if (row.role() != null && !row.role().isBlank()) {
+            try {
+                role = UserRole.valueOf(row.role().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRowException("Rol inválido: " + row.role());
+            }
+        }
+        // Igual que en la creación individual: usuario deshabilitado, sin contraseña, a la espera de la invitación.
+        // El jefe de unidad solo crea usuarios en su unidad
+        return User.builder()
+                .email(email)
+                .name(row.name())
+                .role(role)
+                .unit(user.getRole() == UserRole.UNIT_MANAGER ? user.getUnit() : row.unit())
+                .enabled(false)
+                .mustChangePassword(true)
+                .build();
+    }
+
+    private static String normalizedEmail(UserImportRow row) {
+        if (row.email() == null || row.email().isBlank()) {
+            return null;
+        }
+        return row.email().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void checkPermission(User user) {
+        if (user.getRole() != UserRole.BIOREN_ADMIN && user.getRole() != UserRole.UNIT_MANAGER) {
+            throw new AccessDeniedException("No tienes permiso para importar usuarios");
+        }
+    }
+
+    private void validateHeader(List<String> header) {
+        if (header == null || !header.contains(EMAIL)) {
+            throw new IllegalArgumentException("El archivo debe tener encabezado con la columna " + EMAIL);
+        }
+        for (String column : header) {
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Columna desconocida: " + column);
+            }
+        }
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /** Fila rechazada por la validación; su mensaje es el que se informa al cliente */
+    private static final class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,23 +19,26 @@ import java.util.List;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final InvitationService invitationService;
 
     /**
      * Obtiene todos los usuarios según el rol y unidad del usuario autenticado.
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers(User user) {
         if (user.getRole() == UserRole.BIOREN_ADMIN) {
             return userRepository.findAll();
+        } else if (user.getUnit() == null) {
+            return List.of();
         } else {
-            return userRepository.findAll().stream()
-                    .filter(u -> user.getUnit() != null && user.getUnit().equals(u.getUnit()))
-                    .toList();
+            return userRepository.findByUnit(user.getUnit());
         }
     }
 
     /**
      * Obtiene un usuario por su ID, validando permisos.
      */
+    @Transactional(readOnly = true)
     public User getUserById(Long id, User user) {
         User target = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -48,6 +52,7 @@ public class UserService {
     /**
      * Crea un nuevo usuario (solo admin o jefe de unidad para su unidad).
      */
+    @Transactional
     public User createUser(User newUser, User user) {
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
             (user.getRole() == UserRole.UNIT_MANAGER && user.getUnit().equals(newUser.getUnit()))) {
@@ -59,9 +64,20 @@ public class UserService {
         throw new AccessDeniedException("No tienes permiso para crear usuarios en esta unidad");
     }
 
+    /**
+     * Guarda un bloque de usuarios nuevos ya validados y encola sus invitaciones, en una sola transacción:
+     * los INSERT de usuarios, tokens y correos salen en lotes JDBC y los correos se envían tras el commit.
+     */
+    @Transactional
+    public void saveImportChunk(List<User> chunk, String jobId) {
+        userRepository.saveAll(chunk);
+        invitationService.createInvitations(chunk, jobId);
+    }
+
     /**
      * Actualiza un usuario existente (solo admin o jefe de unidad para su unidad).
      */
+    @Transactional
     public User updateUser(Long id, User updated, User user) {
         User target = getUserById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
@@ -80,6 +96,7 @@ public class UserService {
     /**
      * Elimina un usuario (solo admin o jefe de unidad para su unidad).
      */
+    @Transactional
     public void deleteUser(Long id, User user) {
         User target = getUserById(id, user);
         if (user.getRole() == UserRole.BIOREN_ADMIN ||
@@ -90,12 +107,25 @@ public class UserService {
         }
     }
 
-    public void changePassword(User user, String currentPassword, String newPassword, PasswordEncoder passwordEncoder) {
-        User dbUser = userRepository.findById(user.getId()).orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        if (!passwordEncoder.matches(currentPassword, dbUser.getPassword())) {
-            throw new AccessDeniedException("La contraseña actual es incorrecta");
-        }
-        dbUser.setPassword(passwordEncoder.encode(newPassword));
+    /**
+     * Hash actual de la contraseña del usuario. Se lee en el primario (no readOnly) para no
+     * comparar contra un hash desactualizado de la réplica.
+     */
+    @Transactional
+    public String getPasswordHash(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"))
+                .getPassword();
+    }
+
+    /**
+     * Guarda el nuevo hash de la contraseña. El hash se calcula antes, fuera de la transacción,
+     * para no retener una conexión mientras se espera al pool de hashing.
+     */
+    @Transactional
+    public void updatePassword(Long userId, String passwordHash) {
+        User dbUser = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        dbUser.setPassword(passwordHash);
         userRepository.save(dbUser);
     }
-} 
\ No newline at end of file
+}
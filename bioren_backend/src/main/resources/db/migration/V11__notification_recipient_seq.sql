@@ -0,0 +1,21 @@
+-- Secuencia por destinatario para reanudar el stream SSE (Last-Event-ID).
+-- Los ids salen de una secuencia con bloques de 50 por instancia y no siguen el orden de commit;
+-- seq se asigna con la fila de notification_counter bloqueada hasta el commit, por lo que en la
+-- bandeja de cada destinatario una seq menor siempre queda confirmada antes que una mayor.
+alter table notification_counter add column last_seq bigint not null default 0;
+alter table app_notification add column seq bigint;
+
+-- Las filas existentes conservan su id como seq: un Last-Event-ID anterior sigue siendo válido
+update app_notification set seq = id where recipient_id is not null;
+
+insert into notification_counter (user_id, unread, last_seq)
+select recipient_id, 0, 0 from app_notification n
+where recipient_id is not null
+  and not exists (select 1 from notification_counter c where c.user_id = n.recipient_id)
+group by recipient_id;
+
+update notification_counter c set last_seq = coalesce(
+    (select max(n.seq) from app_notification n where n.recipient_id = c.user_id), 0);
+
+create unique index uk_app_notification_recipient_seq on app_notification (recipient_id, seq);
+alter table app_notification drop index idx_app_notification_recipient_id;
@@ -0,0 +1,26 @@
+-- Avisos de equipos por notificar: se escriben en la misma transacción que el cambio que los origina
+-- y los convierte en notificaciones NotificationEventDispatcher, con reintentos. Sobreviven a un reinicio.
+create table notification_event (
+    id bigint not null,
+    equipment_id bigint,
+    equipment_name varchar(255),
+    institutional_id varchar(255),
+    unit varchar(255),
+    encargado_id bigint,
+    type varchar(255),
+    message varchar(255),
+    details varchar(255),
+    link varchar(255),
+    include_admins bit not null,
+    actor_id bigint,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(1000),
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create sequence notification_event_seq start with 1 increment by 50;
+
+-- Búsqueda de los avisos cuyo próximo intento ya venció
+create index idx_notification_event_next_attempt on notification_event (next_attempt_at);
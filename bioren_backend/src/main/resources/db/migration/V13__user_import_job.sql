@@ -0,0 +1,8 @@
+-- Importaciones masivas de usuarios y quién las hizo: solo ese usuario (o un administrador) puede
+-- consultar el estado de entrega de sus invitaciones (email_outbox.job_id)
+create table user_import_job (
+    id varchar(36) not null,
+    created_by bigint not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,96 @@
+-- Esquema inicial, equivalente al generado por ddl-auto=update antes de usar migraciones.
+-- Las bases existentes se marcan en esta versión (baseline-on-migrate) y solo aplican las siguientes.
+
+create table user (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255) not null,
+    role enum ('BIOREN_ADMIN','EQUIPMENT_MANAGER','UNIT_MANAGER'),
+    unit varchar(255),
+    enabled bit not null,
+    must_change_password bit not null,
+    password varchar(255),
+    primary key (id),
+    constraint uk_user_email unique (email)
+) engine=InnoDB;
+
+create table equipment (
+    id bigint not null auto_increment,
+    name varchar(255),
+    brand varchar(255),
+    model varchar(255),
+    institutional_id varchar(255) not null,
+    location_building varchar(255),
+    location_unit varchar(255),
+    last_calibration_date date,
+    last_maintenance_date date,
+    created_date date,
+    encargado_id bigint,
+    value integer,
+    unit enum ('DAYS','MONTHS','WEEKS','YEARS'),
+    custom_maintenance_instructions varchar(255),
+    criticality enum ('HIGH','LOW','MEDIUM'),
+    status varchar(255),
+    next_maintenance_date date,
+    purchased_by_government bit,
+    primary key (id),
+    constraint uk_equipment_institutional_id unique (institutional_id),
+    constraint fk_equipment_encargado foreign key (encargado_id) references user (id)
+) engine=InnoDB;
+
+create table maintenance_record (
+    id bigint not null auto_increment,
+    date date,
+    description varchar(255),
+    performed_by varchar(255),
+    equipment_id bigint,
+    primary key (id),
+    constraint fk_maintenance_record_equipment foreign key (equipment_id) references equipment (id)
+) engine=InnoDB;
+
+create table maintenance_record_attachments (
+    maintenance_record_id bigint not null,
+    name varchar(255),
+    url varchar(255),
+    constraint fk_maintenance_record_attachments_record foreign key (maintenance_record_id) references maintenance_record (id)
+) engine=InnoDB;
+
+create table issue_report (
+    id bigint not null auto_increment,
+    equipment_id bigint,
+    reported_by varchar(255),
+    date_time datetime(6),
+    description varchar(255),
+    severity enum ('CRITICAL','MINOR','MODERATE'),
+    status varchar(255),
+    primary key (id),
+    constraint fk_issue_report_equipment foreign key (equipment_id) references equipment (id)
+) engine=InnoDB;
+
+create table issue_report_attachments (
+    issue_report_id bigint not null,
+    name varchar(255),
+    url varchar(255),
+    constraint fk_issue_report_attachments_report foreign key (issue_report_id) references issue_report (id)
+) engine=InnoDB;
+
+create table invitation_token (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token varchar(255) not null,
+    expiry datetime(6) not null,
+    primary key (id),
+    constraint uk_invitation_token_token unique (token),
+    constraint fk_invitation_token_user foreign key (user_id) references user (id)
+) engine=InnoDB;
+
+create table app_notification (
+    id bigint not null auto_increment,
+    type varchar(255),
+    message varchar(255),
+    details varchar(255),
+    link varchar(255),
+    timestamp datetime(6),
+    is_read bit not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,19 @@
+-- Índices para las consultas de listado, historial y paginación por cursor.
+-- "if not exists": las bases creadas con ddl-auto=update pueden tener ya los índices de equipment.
+
+-- Historial por equipo ordenado por fecha
+create index if not exists idx_maintenance_record_equipment_date on maintenance_record (equipment_id, date);
+create index if not exists idx_issue_report_equipment_date_time on issue_report (equipment_id, date_time);
+
+-- Listado de equipos por unidad: filtro por status/próxima mantención y orden por institutionalId.
+-- Ambos cubren también el filtro simple por location_unit.
+create index if not exists idx_equipment_unit_next_maintenance on equipment (location_unit, next_maintenance_date);
+create index if not exists idx_equipment_unit_institutional_id on equipment (location_unit, institutional_id);
+-- Listado de todas las unidades (administrador) ordenado por próxima mantención
+create index if not exists idx_equipment_next_maintenance on equipment (next_maintenance_date, id);
+
+-- Usuarios por unidad
+create index if not exists idx_user_unit on user (unit);
+
+-- Limpieza de invitaciones vencidas
+create index if not exists idx_invitation_token_expiry on invitation_token (expiry);
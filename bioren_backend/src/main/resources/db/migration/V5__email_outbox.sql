@@ -0,0 +1,20 @@
+-- Bandeja de salida de correos: se escribe en la misma transacción que el dato que origina el correo
+-- y la vacía en segundo plano EmailOutboxDispatcher, con reintentos.
+create table email_outbox (
+    id bigint not null,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    body varchar(4000) not null,
+    status enum ('FAILED','PENDING','SENDING','SENT') not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(1000),
+    created_at datetime(6) not null,
+    sent_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create sequence email_outbox_seq start with 1 increment by 50;
+
+-- Búsqueda de los correos pendientes cuyo próximo intento ya venció
+create index idx_email_outbox_status_next_attempt on email_outbox (status, next_attempt_at);
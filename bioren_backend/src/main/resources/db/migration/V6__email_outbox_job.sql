@@ -0,0 +1,3 @@
+-- Importación masiva que originó el correo, para consultar el estado de entrega de sus invitaciones
+alter table email_outbox add column job_id varchar(36);
+create index idx_email_outbox_job on email_outbox (job_id);
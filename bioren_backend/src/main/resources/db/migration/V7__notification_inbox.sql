@@ -0,0 +1,28 @@
+-- Bandeja de notificaciones por destinatario, con contador de no leídas.
+
+alter table app_notification add column recipient_id bigint;
+alter table app_notification add column unit varchar(255);
+alter table app_notification add constraint fk_app_notification_recipient
+    foreign key (recipient_id) references user (id) on delete cascade;
+
+-- El orden de la bandeja (y su cursor) requiere fecha en todas las filas
+update app_notification set timestamp = current_timestamp(6) where timestamp is null;
+alter table app_notification modify column timestamp datetime(6) not null;
+
+-- Las notificaciones anteriores eran globales y solo se administraban desde la cuenta de administrador
+update app_notification set recipient_id = (select min(id) from user where role = 'BIOREN_ADMIN') where recipient_id is null;
+
+-- Bandeja (todas o solo no leídas) ordenada por fecha
+create index idx_app_notification_recipient_read_time on app_notification (recipient_id, is_read, timestamp);
+create index idx_app_notification_recipient_time on app_notification (recipient_id, timestamp);
+
+-- Contador de no leídas por usuario, mantenido en la misma transacción que cada cambio de la bandeja
+create table notification_counter (
+    user_id bigint not null,
+    unread integer not null,
+    primary key (user_id),
+    constraint fk_notification_counter_user foreign key (user_id) references user (id) on delete cascade
+) engine=InnoDB;
+
+insert into notification_counter (user_id, unread)
+select recipient_id, count(*) from app_notification where recipient_id is not null and is_read = false group by recipient_id;
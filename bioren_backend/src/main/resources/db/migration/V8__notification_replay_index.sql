@@ -0,0 +1,2 @@
+-- Reenvío por SSE tras una reconexión (Last-Event-ID): notificaciones del destinatario con id mayor al último recibido
+create index idx_app_notification_recipient_id on app_notification (recipient_id, id);
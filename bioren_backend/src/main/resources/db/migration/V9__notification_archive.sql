@@ -0,0 +1,19 @@
+-- Archivo de notificaciones leídas que superaron su plazo de retención (NotificationRetentionService).
+-- Sin claves foráneas y con la fecha en la clave primaria, para poder particionarla por mes en MariaDB (V10).
+create table app_notification_archive (
+    id bigint not null,
+    recipient_id bigint,
+    type varchar(255),
+    message varchar(255),
+    details varchar(255),
+    link varchar(255),
+    unit varchar(255),
+    timestamp datetime(6) not null,
+    archived_at datetime(6) not null,
+    primary key (id, timestamp)
+) engine=InnoDB;
+
+create index idx_app_notification_archive_recipient_time on app_notification_archive (recipient_id, timestamp);
+
+-- Búsqueda de las leídas vencidas de cada tipo, por bloques
+create index idx_app_notification_type_read_time on app_notification (type, is_read, timestamp);
@@ -0,0 +1,108 @@
+package cl.ufro.bioren_backend.config;
+
+import cl.ufro.bioren_backend.migration.V3__Id_sequences;
+import cl.ufro.bioren_backend.migration.V4__Hashed_one_time_tokens;
+import cl.ufro.bioren_backend.migration.V10__Partition_notification_archive;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EquipmentService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrutamiento de lecturas a la réplica con dos bases H2 independientes.
+ * La réplica no recibe replicación: una fila presente solo en ella prueba que la lectura
+ * se hizo ahí, y una escritura ausente en ella prueba que se hizo en el primario.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+        "bioren.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "bioren.datasource.replica.username=sa",
+        "bioren.datasource.replica.password=",
+        "bioren.datasource.replica.driver-class-name=org.h2.Driver"
+})
+class ReadReplicaRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:bioren_primary;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:bioren_replica;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate primaryJdbc = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private EquipmentService equipmentService;
+
+    private final User admin = User.builder().id(1L).role(UserRole.BIOREN_ADMIN).build();
+
+    /** La réplica se crea con las mismas migraciones; el primario lo migra Flyway al iniciar */
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(replicaJdbc.getDataSource())
+                .javaMigrations(new V3__Id_sequences(), new V4__Hashed_one_time_tokens(),
+                        new V10__Partition_notification_archive())
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        replicaJdbc.update("insert into equipment (id, institutional_id, name, location_unit, status) values (?, ?, ?, ?, ?)",
+                900L, "REPLICA-1", "Solo en réplica", "Lab1", Equipment.STATUS_OK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaJdbc.update("delete from equipment");
+        primaryJdbc.update("delete from equipment");
+    }
+
+    @Test
+    void usesLazyRoutingDataSource() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+    }
+
+    @Test
+    void readOnlyServiceMethodsReadFromReplica() {
+        Equipment equipment = equipmentService.getEquipmentById(900L, admin);
+        assertEquals("REPLICA-1", equipment.getInstitutionalId());
+
+        List<Equipment> all = equipmentService.getAllEquipments(admin);
+        assertEquals(List.of("REPLICA-1"), all.stream().map(Equipment::getInstitutionalId).toList());
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        Equipment created = equipmentService.createEquipment(
+                Equipment.builder().institutionalId("PRIMARY-1").name("Nuevo").locationUnit("Lab1").build(), admin);
+
+        assertEquals(1, primaryJdbc.queryForObject(
+                "select count(*) from equipment where id = ?", Integer.class, created.getId()));
+        assertEquals(0, replicaJdbc.queryForObject(
+                "select count(*) from equipment where institutional_id = 'PRIMARY-1'", Integer.class));
+        // Sin replicación la lectura posterior no ve el equipo nuevo, pero sí el de la réplica
+        assertEquals(List.of("REPLICA-1"),
+                equipmentService.getAllEquipments(admin).stream().map(Equipment::getInstitutionalId).toList());
+    }
+}
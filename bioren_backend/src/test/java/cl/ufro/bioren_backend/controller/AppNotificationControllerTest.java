@@ -1,7 +1,9 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
 import cl.ufro.bioren_backend.model.AppNotification;
 import cl.ufro.bioren_backend.service.AppNotificationService;
+import cl.ufro.bioren_backend.service.NotificationHub;
 import cl.ufro.bioren_backend.security.JwtService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,8 @@ class AppNotificationControllerTest {
     @MockBean
     private AppNotificationService notificationService;
     @MockBean
+    private NotificationHub notificationHub;
+    @MockBean
     private JwtService jwtService;
     @Autowired
     private ObjectMapper objectMapper;
@@ -32,7 +36,8 @@ class AppNotificationControllerTest {
     @WithMockUser(roles = {"BIOREN_ADMIN"})
     void getAllNotificationsAsAdminShouldReturnOk() throws Exception {
         AppNotification notification = AppNotification.builder().id(100L).message("Test 1").isRead(false).build();
-        when(notificationService.getAll(Mockito.any())).thenReturn(Collections.singletonList(notification));
+        when(notificationService.getInbox(Mockito.any(), Mockito.eq(false), Mockito.isNull(), Mockito.anyInt()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(notification), null));
         mockMvc.perform(get("/api/notifications")).andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(100L));
     }
 
@@ -1,8 +1,13 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EquipmentImportService;
 import cl.ufro.bioren_backend.service.EquipmentService;
+import cl.ufro.bioren_backend.service.InventoryExportService;
+import cl.ufro.bioren_backend.service.MaintenanceRecordService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -33,14 +38,26 @@ class EquipmentControllerTest {
     @MockBean
     private EquipmentService equipmentService;
 
+    @MockBean
+    private MaintenanceRecordService maintenanceRecordService;
+
+    @MockBean
+    private EquipmentImportService equipmentImportService;
+
+    @MockBean
+    private InventoryExportService inventoryExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     @WithMockUser(username = "admin@test.com", roles = {"BIOREN_ADMIN"})
     void getAllEquipmentsAsAdminShouldReturnOk() throws Exception {
-        Equipment equipment = Equipment.builder().id(10L).name("Microscope").locationUnit("Lab1").build();
-        when(equipmentService.getAllEquipments(Mockito.any())).thenReturn(Collections.singletonList(equipment));
+        EquipmentSummaryDTO equipment = new EquipmentSummaryDTO();
+        equipment.setId(10L);
+        equipment.setName("Microscope");
+        when(equipmentService.getEquipmentPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(equipment), null));
 
         mockMvc.perform(get("/api/equipment")
                         .contentType(MediaType.APPLICATION_JSON))
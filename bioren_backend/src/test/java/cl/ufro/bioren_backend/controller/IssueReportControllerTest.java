@@ -1,5 +1,6 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.IssueReportResponseDTO;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.IssueReport;
 import cl.ufro.bioren_backend.model.UserRole;
@@ -33,8 +34,7 @@ class IssueReportControllerTest {
     @Test
     @WithMockUser(roles = {"BIOREN_ADMIN"})
     void getAllIssuesAsAdminShouldReturnOk() throws Exception {
-        Equipment equipment = Equipment.builder().id(10L).name("Microscope").locationUnit("Lab1").build();
-        IssueReport issue = IssueReport.builder().id(100L).equipment(equipment).build();
+        IssueReportResponseDTO issue = new IssueReportResponseDTO(100L, null, null, null, null, null, 10L, "Microscope", null, null);
         when(issueReportService.getAll(Mockito.any())).thenReturn(Collections.singletonList(issue));
         mockMvc.perform(get("/api/issues")).andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(100L));
     }
@@ -1,5 +1,6 @@
 package cl.ufro.bioren_backend.controller;
 
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.MaintenanceRecord;
 import cl.ufro.bioren_backend.service.MaintenanceRecordService;
@@ -32,8 +33,7 @@ class MaintenanceRecordControllerTest {
     @Test
     @WithMockUser(roles = {"BIOREN_ADMIN"})
     void getAllRecordsAsAdminShouldReturnOk() throws Exception {
-        Equipment equipment = Equipment.builder().id(10L).name("Microscope").locationUnit("Lab1").build();
-        MaintenanceRecord record = MaintenanceRecord.builder().id(100L).equipment(equipment).build();
+        MaintenanceRecordResponseDTO record = new MaintenanceRecordResponseDTO(100L, null, null, null, 10L, "Microscope", null, "Lab1");
         when(maintenanceRecordService.getAll(Mockito.any())).thenReturn(Collections.singletonList(record));
         mockMvc.perform(get("/api/maintenance")).andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(100L));
     }
@@ -50,7 +50,8 @@ class AppNotificationE2ETest {
         adminToken = getTokenFor("admin@e2e.com");
         equipmentManagerToken = getTokenFor("encargado@e2e.com");
         // Crear notificación en la base
-        AppNotification n = AppNotification.builder().message("E2E Notification").type("info").timestamp(LocalDateTime.now()).isRead(false).build();
+        AppNotification n = AppNotification.builder().message("E2E Notification").type("info").timestamp(LocalDateTime.now()).isRead(false)
+                .recipient(userRepository.findByEmail("encargado@e2e.com")).build();
         notificationId = notificationRepository.save(n).getId();
     }
 
@@ -66,9 +67,9 @@ class AppNotificationE2ETest {
 
     @Test
     void fullNotificationFlowAsAdminAndEquipmentManager() throws Exception {
-        // 1. Admin gets all notifications
+        // 1. Equipment manager gets their inbox
         mockMvc.perform(get("/api/notifications")
-                .header("Authorization", "Bearer " + adminToken))
+                .header("Authorization", "Bearer " + equipmentManagerToken))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].message").value("E2E Notification"));
 
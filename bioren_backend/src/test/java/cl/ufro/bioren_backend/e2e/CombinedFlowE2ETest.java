@@ -103,8 +103,9 @@ class CombinedFlowE2ETest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("Resuelto"));
 
-        // 4. Admin creates a notification
-        AppNotification n = AppNotification.builder().message("Combo Notification").type("info").timestamp(LocalDateTime.now()).isRead(false).build();
+        // 4. Admin creates a notification for the equipment manager
+        AppNotification n = AppNotification.builder().message("Combo Notification").type("info").timestamp(LocalDateTime.now()).isRead(false)
+                .recipient(userRepository.findByEmail("encargado@e2e.com")).build();
         notificationId = notificationRepository.save(n).getId();
 
         // 5. Equipment manager sees and marks notification as read
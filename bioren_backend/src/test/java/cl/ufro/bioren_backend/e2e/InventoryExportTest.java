@@ -0,0 +1,119 @@
+package cl.ufro.bioren_backend.e2e;
+
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import cl.ufro.bioren_backend.repository.MaintenanceRecordRepository;
+import cl.ufro.bioren_backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Exportación del inventario en CSV y XLSX a través del endpoint asíncrono.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class InventoryExportTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+
+    private final UserPrincipal admin = new UserPrincipal(100L, "Admin", "admin@export.com", UserRole.BIOREN_ADMIN, null);
+    private final UserPrincipal unitManager = new UserPrincipal(101L, "Manager", "manager@export.com", UserRole.UNIT_MANAGER, "Lab1");
+
+    @BeforeEach
+    void setUp() {
+        List<MaintenanceRecord> records = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Equipment eq = equipmentRepository.save(Equipment.builder().name("Equipo <" + i + ">, \"A&B\"")
+                    .institutionalId("EXP-" + i).locationUnit(i % 2 == 0 ? "Lab1" : "Lab2").build());
+            // Los equipos pares tienen 3 mantenciones; los impares ninguna
+            for (int j = 0; i % 2 == 0 && j < 3; j++) {
+                records.add(MaintenanceRecord.builder().equipment(eq).date(LocalDate.of(2025, 1, 1 + j))
+                        .description("Mantención " + j).build());
+            }
+        }
+        maintenanceRecordRepository.saveAll(records);
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintenanceRecordRepository.deleteAllInBatch();
+        equipmentRepository.deleteAllInBatch();
+    }
+
+    private MvcResult export(UserPrincipal principal, String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/equipment/export").param("format", format).with(user(principal)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    }
+
+    @Test
+    void csvHasOneRowPerMaintenanceRecordAndEquipmentWithoutHistory() throws Exception {
+        MvcResult result = export(admin, "csv");
+        assertEquals("attachment; filename=\"inventario.csv\"", result.getResponse().getHeader("Content-Disposition"));
+        String csv = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = csv.lines().toList();
+        // Encabezado + 3 equipos x 3 mantenciones + 3 equipos sin historial
+        assertEquals(1 + 9 + 3, lines.size());
+        assertTrue(lines.get(0).startsWith("equipmentId,institutionalId"));
+        assertTrue(csv.contains("\"Equipo <0>, \"\"A&B\"\"\""));
+    }
+
+    @Test
+    void xlsxIsScopedToUnitAndEscapesText() throws Exception {
+        byte[] xlsx = export(unitManager, "xlsx").getResponse().getContentAsByteArray();
+        String sheet = null;
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    sheet = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertTrue(entries.containsAll(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml")));
+        assertNotNull(sheet);
+        // Encabezado + 3 equipos de Lab1 x 3 mantenciones
+        assertEquals(1 + 9, sheet.split("<row>", -1).length - 1);
+        assertTrue(sheet.contains("Equipo &lt;0&gt;, &quot;A&amp;B&quot;"));
+        assertFalse(sheet.contains("Lab2"));
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/api/equipment/export").param("format", "pdf").with(user(admin)))
+                .andExpect(status().isBadRequest());
+    }
+}
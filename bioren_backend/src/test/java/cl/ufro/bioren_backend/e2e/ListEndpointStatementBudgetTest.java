@@ -0,0 +1,140 @@
+package cl.ufro.bioren_backend.e2e;
+
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.IssueReport;
+import cl.ufro.bioren_backend.model.IssueSeverity;
+import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import cl.ufro.bioren_backend.repository.IssueReportRepository;
+import cl.ufro.bioren_backend.repository.MaintenanceRecordRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import cl.ufro.bioren_backend.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto fijo de sentencias SQL por endpoint de listado y detalle.
+ * Sin transacción en el test ni open-session-in-view: cualquier carga perezosa
+ * fuera de los servicios falla, y cualquier N+1 supera el presupuesto.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ListEndpointStatementBudgetTest {
+    private static final int EQUIPMENT_COUNT = 15;
+    private static final int ROWS_PER_EQUIPMENT = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+    @Autowired
+    private IssueReportRepository issueReportRepository;
+    @Autowired
+    private AppNotificationRepository notificationRepository;
+
+    private Statistics statistics;
+    private UserPrincipal admin;
+    private UserPrincipal unitManager;
+    private Long equipmentId;
+    private Long maintenanceId;
+    private Long issueId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User encargado = userRepository.save(User.builder().name("Encargado").email("encargado@budget.com")
+                .role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build());
+        admin = new UserPrincipal(100L, "Admin", "admin@budget.com", UserRole.BIOREN_ADMIN, null);
+        unitManager = new UserPrincipal(101L, "Manager", "manager@budget.com", UserRole.UNIT_MANAGER, "Lab1");
+
+        List<MaintenanceRecord> records = new ArrayList<>();
+        List<IssueReport> issues = new ArrayList<>();
+        for (int i = 0; i < EQUIPMENT_COUNT; i++) {
+            Equipment eq = equipmentRepository.save(Equipment.builder().name("Equipo " + i).institutionalId("BUD-" + i)
+                    .locationUnit(i % 2 == 0 ? "Lab1" : "Lab2").encargado(encargado).createdDate(LocalDate.now()).build());
+            for (int j = 0; j < ROWS_PER_EQUIPMENT; j++) {
+                records.add(MaintenanceRecord.builder().equipment(eq).date(LocalDate.now()).description("Mantención " + j)
+                        .attachments(new ArrayList<>(List.of(new MaintenanceRecord.Attachment("informe.pdf", "/files/informe.pdf"))))
+                        .build());
+                issues.add(IssueReport.builder().equipment(eq).dateTime(LocalDateTime.now()).severity(IssueSeverity.MINOR)
+                        .description("Incidencia " + j)
+                        .attachments(new ArrayList<>(List.of(new IssueReport.Attachment("foto.png", "/files/foto.png"))))
+                        .build());
+            }
+        }
+        maintenanceId = maintenanceRecordRepository.saveAll(records).get(0).getId();
+        issueId = issueReportRepository.saveAll(issues).get(0).getId();
+        equipmentId = records.get(0).getEquipment().getId();
+        for (int i = 0; i < 10; i++) {
+            notificationRepository.save(AppNotification.builder().type("info").message("Aviso " + i)
+                    .timestamp(LocalDateTime.now()).build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintenanceRecordRepository.deleteAllInBatch();
+        issueReportRepository.deleteAllInBatch();
+        equipmentRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    private void assertWithinBudget(String url, UserPrincipal principal, long budget) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).with(user(principal))).andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget, url + " ejecutó " + statements + " sentencias (presupuesto " + budget + ")");
+    }
+
+    @Test
+    void listEndpointsStayWithinStatementBudget() throws Exception {
+        for (UserPrincipal principal : List.of(admin, unitManager)) {
+            assertWithinBudget("/api/equipment", principal, 1);
+            assertWithinBudget("/api/maintenance", principal, 2);
+            assertWithinBudget("/api/issues", principal, 2);
+            assertWithinBudget("/api/notifications", principal, 1);
+            assertWithinBudget("/api/equipment/" + equipmentId + "/maintenance", principal, 3);
+        }
+        assertWithinBudget("/api/users", admin, 1);
+    }
+
+    @Test
+    void detailEndpointsLoadTheirFetchPlanInOneStatement() throws Exception {
+        assertWithinBudget("/api/equipment/" + equipmentId, unitManager, 1);
+        assertWithinBudget("/api/maintenance/" + maintenanceId, unitManager, 1);
+        assertWithinBudget("/api/issues/" + issueId, unitManager, 1);
+    }
+}
@@ -0,0 +1,98 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara la importación de historial de mantenimiento con y sin lotes JDBC.
+ * Se ejecuta con el perfil de Maven "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class BatchInsertBenchmarkTest {
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @AfterEach
+    void tearDown() {
+        maintenanceRecordRepository.deleteAllInBatch();
+        equipmentRepository.deleteAllInBatch();
+    }
+
+    /** Resultado de una corrida: filas por segundo y sentencias preparadas */
+    private record Run(double rowsPerSecond, long statements) {
+    }
+
+    private Run importHistory(int jdbcBatchSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Equipment eq = Equipment.builder().name("Equipo").institutionalId("BENCH-" + jdbcBatchSize).locationUnit("Lab1").build();
+            entityManager.persist(eq);
+            LocalDate date = LocalDate.of(2000, 1, 1);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(MaintenanceRecord.builder().equipment(eq).date(date.plusDays(i))
+                        .description("Mantención " + i).performedBy("Técnico")
+                        .attachments(new ArrayList<>(List.of(new MaintenanceRecord.Attachment("informe.pdf", "/files/" + i))))
+                        .build());
+                if (i % FLUSH_EVERY == FLUSH_EVERY - 1) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    eq = entityManager.getReference(Equipment.class, eq.getId());
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return new Run(ROWS / seconds, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void batchedInsertsUseFewerRoundTripsThanRowByRow() {
+        // Calentamiento: carga de clases y JIT
+        importHistory(1);
+        tearDown();
+
+        Run rowByRow = importHistory(1);
+        tearDown();
+        Run batched = importHistory(FLUSH_EVERY);
+
+        System.out.printf("Inserción fila a fila: %,.0f filas/s, %,d sentencias%n", rowByRow.rowsPerSecond(), rowByRow.statements());
+        System.out.printf("Inserción por lotes:   %,.0f filas/s, %,d sentencias%n", batched.rowsPerSecond(), batched.statements());
+        assertTrue(batched.statements() * 10 < rowByRow.statements(),
+                "Los lotes deberían reducir las sentencias al menos 10 veces");
+    }
+}
@@ -0,0 +1,79 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.dto.EquipmentImportResult;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EquipmentImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importa 50.000 equipos desde un CSV generado como flujo y mide filas por segundo.
+ * Se ejecuta con el perfil de Maven "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class EquipmentImportBenchmarkTest {
+    private static final int ROWS = 50_000;
+
+    @Autowired
+    private EquipmentImportService equipmentImportService;
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @AfterEach
+    void tearDown() {
+        equipmentRepository.deleteAllInBatch();
+    }
+
+    /** CSV generado fila a fila, sin materializar el archivo completo en memoria */
+    private static InputStream generatedCsv() {
+        Enumeration<InputStream> lines = new Enumeration<>() {
+            private int row = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return row < ROWS;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String line = row < 0
+                        ? "institutionalId,name,brand,locationUnit,createdDate,maintenanceFrequencyValue,maintenanceFrequencyUnit,criticality\n"
+                        : "IMP-" + row + ",Equipo " + row + ",Marca,Lab" + (row % 10) + ",2025-01-01,6,MONTHS,MEDIUM\n";
+                row++;
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        return new SequenceInputStream(lines);
+    }
+
+    @Test
+    void importsFiftyThousandRows() throws Exception {
+        User admin = User.builder().id(1L).role(UserRole.BIOREN_ADMIN).build();
+        long start = System.nanoTime();
+        EquipmentImportResult result = equipmentImportService.importCsv(generatedCsv(), admin);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("Importación CSV: %,d filas en %.1f s (%,.0f filas/s)%n", result.imported(), seconds, result.imported() / seconds);
+        assertEquals(ROWS, result.imported());
+        assertTrue(result.errors().isEmpty());
+        assertEquals(ROWS, equipmentRepository.count());
+    }
+}
@@ -0,0 +1,126 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.dto.EquipmentSort;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EquipmentService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recorre el listado de equipos página a página con cursores y verifica que
+ * no se repiten ni se pierden elementos, incluyendo equipos sin próxima mantención,
+ * y que los filtros por status coinciden con el status persistido.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional
+class EquipmentKeysetPaginationTest {
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EquipmentService equipmentService;
+
+    private User admin;
+    private User unitManager;
+
+    @BeforeEach
+    void setUp() {
+        admin = User.builder().id(1L).role(UserRole.BIOREN_ADMIN).build();
+        unitManager = User.builder().id(2L).role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 23; i++) {
+            // Fechas repetidas (vencidas, por vencer y al día) y algunos nulos para ejercitar el desempate por id
+            Equipment.MaintenanceFrequency frequency = i % 5 == 0 ? null
+                    : new Equipment.MaintenanceFrequency(1, MaintenanceFrequencyUnit.MONTHS);
+            entityManager.persist(Equipment.builder().name("Equipo " + i).institutionalId(String.format("INST-%03d", i))
+                    .locationUnit(i % 3 == 0 ? "Lab2" : "Lab1").createdDate(today.minusDays(20L * (i % 4)))
+                    .maintenanceFrequency(frequency).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<EquipmentSummaryDTO> walk(User user, EquipmentSort sort, int limit) {
+        return walk(user, sort, EquipmentFilter.ALL, limit);
+    }
+
+    private List<EquipmentSummaryDTO> walk(User user, EquipmentSort sort, EquipmentFilter filter, int limit) {
+        List<EquipmentSummaryDTO> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<EquipmentSummaryDTO> page = equipmentService.getEquipmentPage(user, sort, filter, cursor, limit);
+            assertTrue(page.items().size() <= limit);
+            all.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    @Test
+    void nextMaintenanceDateOrderVisitsEveryEquipmentOnce() {
+        List<EquipmentSummaryDTO> all = walk(admin, EquipmentSort.NEXT_MAINTENANCE_DATE, 4);
+        assertEquals(23, all.size());
+        assertEquals(23, all.stream().map(EquipmentSummaryDTO::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            EquipmentSummaryDTO prev = all.get(i - 1);
+            EquipmentSummaryDTO cur = all.get(i);
+            if (prev.getNextMaintenanceDate() != null) {
+                assertNotNull(cur.getNextMaintenanceDate());
+                assertFalse(cur.getNextMaintenanceDate().isBefore(prev.getNextMaintenanceDate()));
+            }
+        }
+    }
+
+    @Test
+    void institutionalIdOrderIsScopedToUnit() {
+        List<EquipmentSummaryDTO> all = walk(unitManager, EquipmentSort.INSTITUTIONAL_ID, 5);
+        assertEquals(15, all.size());
+        assertTrue(all.stream().allMatch(e -> "Lab1".equals(e.getLocationUnit())));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getInstitutionalId().compareTo(all.get(i).getInstitutionalId()) < 0);
+        }
+    }
+
+    @Test
+    void statusFilterMatchesPersistedStatus() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (String status : List.of(Equipment.STATUS_OK, Equipment.STATUS_WARNING, Equipment.STATUS_OVERDUE)) {
+            List<EquipmentSummaryDTO> page = walk(admin, EquipmentSort.NEXT_MAINTENANCE_DATE,
+                    EquipmentFilter.of(status, null, today), 3);
+            assertFalse(page.isEmpty());
+            assertTrue(page.stream().allMatch(e -> status.equals(e.getStatus())));
+            total += page.size();
+        }
+        assertEquals(23, total);
+    }
+
+    @Test
+    void dueBeforeExcludesUndatedAndLaterEquipment() {
+        LocalDate limit = LocalDate.now().plusDays(1);
+        List<EquipmentSummaryDTO> due = walk(unitManager, EquipmentSort.NEXT_MAINTENANCE_DATE,
+                EquipmentFilter.of(null, limit, LocalDate.now()), 4);
+        assertFalse(due.isEmpty());
+        assertTrue(due.stream().allMatch(e -> e.getNextMaintenanceDate() != null && e.getNextMaintenanceDate().isBefore(limit)));
+        assertTrue(due.stream().allMatch(e -> "Lab1".equals(e.getLocationUnit())));
+    }
+}
@@ -0,0 +1,89 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.InvitationToken;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.security.OneTimeToken;
+import cl.ufro.bioren_backend.service.InvitationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Purga de tokens vencidos por bloques y eliminación por usuario con sentencias únicas.
+ */
+@SpringBootTest(properties = "bioren.invitation.purge-batch-size=100")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class InvitationTokenPurgeTest {
+    private static final int EXPIRED = 250;
+    private static final int VALID = 20;
+
+    @Autowired
+    private InvitationTokenRepository invitationTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InvitationService invitationService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        first = userRepository.save(User.builder().name("Uno").email("uno@purge.com").role(UserRole.EQUIPMENT_MANAGER).build());
+        second = userRepository.save(User.builder().name("Dos").email("dos@purge.com").role(UserRole.EQUIPMENT_MANAGER).build());
+        LocalDateTime now = LocalDateTime.now();
+        List<InvitationToken> tokens = new ArrayList<>();
+        for (int i = 0; i < EXPIRED + VALID; i++) {
+            tokens.add(InvitationToken.builder()
+                    .user(i % 2 == 0 ? first : second)
+                    .tokenHash(OneTimeToken.hash(OneTimeToken.generate()))
+                    .expiry(i < EXPIRED ? now.minusHours(1 + i) : now.plusHours(1))
+                    .build());
+        }
+        invitationTokenRepository.saveAll(tokens);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invitationTokenRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void purgeDeletesExpiredTokensInChunks() {
+        statistics.clear();
+        assertEquals(EXPIRED, invitationService.purgeExpiredTokens());
+        // 100 + 100 + 50: tres DELETE, sin cargar entidades
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(VALID, invitationTokenRepository.count());
+    }
+
+    @Test
+    void deleteByUserIsASingleStatement() {
+        statistics.clear();
+        assertEquals((EXPIRED + VALID) / 2, invitationTokenRepository.deleteByUser(first));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals((EXPIRED + VALID) / 2, invitationTokenRepository.count());
+    }
+}
@@ -0,0 +1,251 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.security.UserPrincipal;
+import cl.ufro.bioren_backend.service.AppNotificationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bandeja por destinatario: paginación por cursor, aislamiento entre usuarios y contador de no leídas
+ * que se consulta con una sola lectura por clave primaria.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class NotificationInboxTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private AppNotificationService notificationService;
+    @Autowired
+    private AppNotificationRepository notificationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User alice;
+    private User bob;
+    private UserPrincipal alicePrincipal;
+    private UserPrincipal bobPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().name("Alice").email("alice@inbox.com").role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build());
+        bob = userRepository.save(User.builder().name("Bob").email("bob@inbox.com").role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build());
+        alicePrincipal = new UserPrincipal(alice.getId(), "Alice", "alice@inbox.com", UserRole.EQUIPMENT_MANAGER, "Lab1");
+        bobPrincipal = new UserPrincipal(bob.getId(), "Bob", "bob@inbox.com", UserRole.EQUIPMENT_MANAGER, "Lab1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAllInBatch();
+        // Los contadores se eliminan en cascada con el usuario
+        userRepository.deleteAllInBatch(List.of(alice, bob));
+    }
+
+    private long unreadCount(UserPrincipal principal) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/notifications/unread-count").with(user(principal)))
+                .andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("count").asLong();
+    }
+
+    @Test
+    void inboxIsPaginatedAndScopedToRecipient() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            notificationService.notifyUsers(List.of(alice), "info", "Aviso " + i, null, null, "Lab1");
+        }
+        notificationService.notifyUsers(List.of(bob), "info", "Solo Bob", null, null, "Lab1");
+
+        List<String> messages = new ArrayList<>();
+        String url = "/api/notifications?limit=2";
+        int pages = 0;
+        while (url != null) {
+            MvcResult result = mockMvc.perform(get(url).with(user(alicePrincipal))).andExpect(status().isOk()).andReturn();
+            for (JsonNode node : objectMapper.readTree(result.getResponse().getContentAsString())) {
+                messages.add(node.get("message").asText());
+            }
+            String cursor = result.getResponse().getHeader("X-Next-Cursor");
+            url = cursor == null ? null : "/api/notifications?limit=2&cursor=" + cursor;
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals(5, messages.size());
+        assertTrue(messages.containsAll(List.of("Aviso 0", "Aviso 1", "Aviso 2", "Aviso 3", "Aviso 4")));
+        assertFalse(messages.contains("Solo Bob"));
+    }
+
+    @Test
+    void unreadCounterFollowsReadsAndDeletes() throws Exception {
+        List<AppNotification> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.addAll(notificationService.notifyUsers(List.of(alice, bob), "info", "Aviso " + i, null, null, "Lab1"));
+        }
+        assertEquals(3, unreadCount(alicePrincipal));
+        assertEquals(3, unreadCount(bobPrincipal));
+
+        Long aliceFirst = created.get(0).getId();
+        mockMvc.perform(put("/api/notifications/" + aliceFirst + "/read").with(user(alicePrincipal))).andExpect(status().isOk());
+        // Marcarla otra vez no la descuenta de nuevo
+        mockMvc.perform(put("/api/notifications/" + aliceFirst + "/read").with(user(alicePrincipal))).andExpect(status().isOk());
+        // Bob no puede marcar las de Alice
+        User bobUser = userRepository.findById(bob.getId()).orElseThrow();
+        assertThrows(RuntimeException.class, () -> notificationService.markAsRead(aliceFirst, bobUser));
+        assertEquals(2, unreadCount(alicePrincipal));
+        assertEquals(3, unreadCount(bobPrincipal));
+
+        mockMvc.perform(get("/api/notifications?unread=true").with(user(alicePrincipal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        User admin = User.builder().id(0L).role(UserRole.BIOREN_ADMIN).build();
+        notificationService.delete(created.get(1).getId(), admin);
+        notificationService.delete(aliceFirst, admin);
+        assertEquals(2, unreadCount(alicePrincipal));
+        assertEquals(2, unreadCount(bobPrincipal));
+    }
+
+    /** Espera hasta 5 s a que la respuesta del stream contenga el texto */
+    private String awaitStream(MvcResult result, String text) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(text) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
+    @Test
+    void streamPushesCommittedNotificationsAndResumes() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/notifications/stream").with(user(alicePrincipal)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Long first = notificationService.notifyUsers(List.of(alice, bob), "info", "En vivo", null, null, "Lab1").get(0).getSeq();
+        String body = awaitStream(stream, "En vivo");
+        assertTrue(body.contains("id:" + first + "\nevent:notification\n"), body);
+
+        // Reconexión: recibe solo lo posterior a la última seq recibida
+        Long missed = notificationService.notifyUsers(List.of(alice), "info", "Perdida", null, null, "Lab1").get(0).getSeq();
+        MvcResult resumed = mockMvc.perform(get("/api/notifications/stream").with(user(alicePrincipal))
+                        .header("Last-Event-ID", first.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replay = awaitStream(resumed, "Perdida");
+        assertTrue(replay.contains("id:" + missed + "\n"), replay);
+        assertFalse(replay.contains("En vivo"), replay);
+    }
+
+    @Test
+    void bulkReadIsOneUpdatePlusCounter() throws Exception {
+        List<AppNotification> created = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            created.add(notificationService.notifyUsers(List.of(alice), "info", "Aviso " + i, null, null, "Lab1").get(0));
+        }
+        notificationService.notifyUsers(List.of(bob), "info", "De Bob", null, null, "Lab1");
+        List<Long> ids = new ArrayList<>(created.stream().map(AppNotification::getId).toList());
+        // Las de otro usuario se ignoran
+        ids.add(notificationRepository.findInboxFirstPage(bob.getId(), Limit.of(1)).get(0).getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(put("/api/notifications/read").with(user(alicePrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", ids))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(200));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, unreadCount(alicePrincipal));
+        assertEquals(1, unreadCount(bobPrincipal));
+    }
+
+    @Test
+    void bulkReadAndDeleteBeforeTimestamp() throws Exception {
+        notificationService.notifyUsers(List.of(alice), "info", "Antigua", null, null, "Lab1");
+        Thread.sleep(5);
+        String before = LocalDateTime.now().toString();
+        Thread.sleep(5);
+        notificationService.notifyUsers(List.of(alice), "info", "Nueva", null, null, "Lab1");
+
+        mockMvc.perform(put("/api/notifications/read").with(user(alicePrincipal))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"before\":\"" + before + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        assertEquals(1, unreadCount(alicePrincipal));
+
+        notificationService.notifyUsers(List.of(alice), "info", "Otra", null, null, "Lab1");
+        mockMvc.perform(delete("/api/notifications").with(user(alicePrincipal))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"before\":\"" + LocalDateTime.now().plusSeconds(1) + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+        assertEquals(0, unreadCount(alicePrincipal));
+
+        mockMvc.perform(delete("/api/notifications").with(user(alicePrincipal))
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unreadCountDoesNotScanTheInbox() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            notificationService.notifyUsers(List.of(alice), "info", "Aviso " + i, null, null, "Lab1");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(20, unreadCount(alicePrincipal));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void replayFollowsRecipientSeqNotIds() {
+        AppNotification first = notificationService.notifyUsers(List.of(alice), "info", "Primera", null, null, null).get(0);
+        AppNotification second = notificationService.notifyUsers(List.of(alice, bob), "info", "Segunda", null, null, null).get(0);
+        assertEquals(first.getSeq() + 1, second.getSeq());
+
+        // Con bloques de ids por instancia, la notificación confirmada después puede tener un id menor
+        jdbcTemplate.update("update app_notification set id = ? where id = ?", first.getId() - 1000, second.getId());
+
+        List<AppNotification> replay = notificationRepository.findReplay(alice.getId(), first.getSeq(), Limit.of(10));
+        assertEquals(List.of("Segunda"), replay.stream().map(AppNotification::getMessage).toList());
+        assertEquals(first.getId() - 1000, replay.get(0).getId());
+    }
+}
@@ -0,0 +1,148 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.dto.EquipmentSort;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.IssueReport;
+import cl.ufro.bioren_backend.model.IssueSeverity;
+import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EquipmentService;
+import cl.ufro.bioren_backend.service.IssueReportService;
+import cl.ufro.bioren_backend.service.MaintenanceRecordService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los listados por unidad se resuelven en la base de datos
+ * con un número de sentencias constante, independiente del volumen de datos.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional
+class UnitScopedListingStatementCountTest {
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MaintenanceRecordService maintenanceRecordService;
+    @Autowired
+    private IssueReportService issueReportService;
+    @Autowired
+    private EquipmentService equipmentService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private User unitManager;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        unitManager = User.builder().id(2L).name("Manager").email("manager@test.com").role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+    }
+
+    private void seed(int equipmentPerUnit, int rowsPerEquipment) {
+        for (String unit : List.of("Lab1", "Lab2")) {
+            for (int i = 0; i < equipmentPerUnit; i++) {
+                Equipment eq = Equipment.builder().name("Equipo " + sequence).institutionalId("INST-" + sequence++)
+                        .locationUnit(unit).build();
+                entityManager.persist(eq);
+                for (int j = 0; j < rowsPerEquipment; j++) {
+                    entityManager.persist(MaintenanceRecord.builder().equipment(eq).date(LocalDate.now())
+                            .description("Mantención " + j)
+                            .attachments(List.of(new MaintenanceRecord.Attachment("informe.pdf", "/files/informe.pdf")))
+                            .build());
+                    entityManager.persist(IssueReport.builder().equipment(eq).dateTime(LocalDateTime.now())
+                            .severity(IssueSeverity.MINOR).description("Incidencia " + j)
+                            .attachments(List.of(new IssueReport.Attachment("foto.png", "/files/foto.png")))
+                            .build());
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void maintenanceListingStatementCountDoesNotGrowWithData() {
+        seed(2, 2);
+        long small = countStatements(() -> assertEquals(4, maintenanceRecordService.getAll(unitManager).size()));
+        seed(20, 5);
+        long large = countStatements(() -> {
+            var records = maintenanceRecordService.getAll(unitManager);
+            assertEquals(104, records.size());
+            assertTrue(records.stream().allMatch(r -> "Lab1".equals(r.getEquipment().getLocationUnit())));
+            assertTrue(records.stream().allMatch(r -> r.getAttachments().size() == 1));
+        });
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void issueListingStatementCountDoesNotGrowWithData() {
+        seed(2, 2);
+        long small = countStatements(() -> assertEquals(4, issueReportService.getAll(unitManager).size()));
+        seed(20, 5);
+        long large = countStatements(() -> {
+            var issues = issueReportService.getAll(unitManager);
+            assertEquals(104, issues.size());
+            assertTrue(issues.stream().allMatch(r -> r.getAttachments().size() == 1));
+        });
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void equipmentListingIsIndependentOfMaintenanceHistoryLength() throws Exception {
+        seed(3, 1);
+        long shortStatements = countStatements(() -> equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, null, 50));
+        String shortPayload = objectMapper.writeValueAsString(
+                equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, null, 50).items());
+
+        // Mismos equipos con un historial mucho más largo
+        List<Equipment> lab1 = entityManager.createQuery("select e from Equipment e where e.locationUnit = 'Lab1'", Equipment.class)
+                .getResultList();
+        for (Equipment eq : lab1) {
+            for (int j = 0; j < 30; j++) {
+                entityManager.persist(MaintenanceRecord.builder().equipment(eq).date(LocalDate.now()).description("Extra " + j)
+                        .attachments(List.of(new MaintenanceRecord.Attachment("informe.pdf", "/files/informe.pdf")))
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        long longStatements = countStatements(() -> equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, null, 50));
+        String longPayload = objectMapper.writeValueAsString(
+                equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, null, 50).items());
+        assertEquals(1, shortStatements);
+        assertEquals(shortStatements, longStatements);
+        assertEquals(shortPayload.length(), longPayload.length());
+    }
+}
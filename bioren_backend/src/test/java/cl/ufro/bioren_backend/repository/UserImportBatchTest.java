@@ -0,0 +1,119 @@
+package cl.ufro.bioren_backend.repository;
+
+import cl.ufro.bioren_backend.dto.UserImportResult;
+import cl.ufro.bioren_backend.dto.UserImportRow;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.service.EmailOutboxService;
+import cl.ufro.bioren_backend.service.UserImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Alta masiva de usuarios contra la base: una consulta de unicidad e INSERT en lotes JDBC
+ * para usuarios, tokens y correos, sin enviar nada durante la petición.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class UserImportBatchTest {
+    private static final int ROWS = 200;
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InvitationTokenRepository invitationTokenRepository;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private UserImportJobRepository userImportJobRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final User admin = User.builder().id(1L).role(UserRole.BIOREN_ADMIN).build();
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAllInBatch();
+        userImportJobRepository.deleteAllInBatch();
+        invitationTokenRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch(userRepository.findAll().stream()
+                .filter(u -> u.getEmail().endsWith("@import.com")).toList());
+    }
+
+    @Test
+    void importsUsersAndQueuesInvitationsInBatches() {
+        long usersBefore = userRepository.count();
+        userRepository.save(User.builder().name("Existente").email("Existente@import.com").role(UserRole.EQUIPMENT_MANAGER).build());
+        List<UserImportRow> rows = new ArrayList<>();
+        rows.add(new UserImportRow("existente@import.com", "Repetido", null, "Lab1"));
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new UserImportRow("usuario" + i + "@import.com", "Usuario " + i, null, "Lab1"));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        UserImportResult result = userImportService.importRows(rows, admin);
+
+        assertEquals(ROWS, result.created());
+        assertNotNull(result.rows().get(0).error());
+        assertTrue(result.rows().subList(1, ROWS + 1).stream().allMatch(r -> r.userId() != null));
+        // Unicidad + secuencias + un lote de INSERT por tabla y bloque de 50, en vez de 3 sentencias por usuario
+        assertTrue(statistics.getPrepareStatementCount() <= 20,
+                "Sentencias: " + statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(usersBefore + ROWS + 1, userRepository.count());
+        assertEquals(ROWS, invitationTokenRepository.count());
+        assertEquals(Map.of(EmailStatus.PENDING, (long) ROWS), emailOutboxService.countByStatus(result.jobId()));
+        assertTrue(userRepository.findByEmail("usuario0@import.com").isMustChangePassword());
+    }
+
+    @Test
+    void rowRejectedByTheDatabaseDoesNotSinkItsChunk() {
+        // Un nombre más largo que la columna hace fallar el INSERT del bloque completo
+        UserImportResult result = userImportService.importRows(List.of(
+                new UserImportRow("uno@import.com", "Uno", null, null),
+                new UserImportRow("largo@import.com", "x".repeat(300), null, null),
+                new UserImportRow("dos@import.com", "Dos", null, null)), admin);
+
+        assertEquals(2, result.created());
+        assertEquals("No se pudo guardar el usuario", result.rows().get(1).error());
+        assertNotNull(userRepository.findByEmail("uno@import.com"));
+        assertNotNull(userRepository.findByEmail("dos@import.com"));
+        assertNull(userRepository.findByEmail("largo@import.com"));
+        assertEquals(Map.of(EmailStatus.PENDING, 2L), emailOutboxService.countByStatus(result.jobId()));
+    }
+
+    @Test
+    void importStatusIsOnlyVisibleToItsOwnerAndAdmins() {
+        User owner = User.builder().id(2L).role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+        User otherManager = User.builder().id(3L).role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+        UserImportResult result = userImportService.importRows(
+                List.of(new UserImportRow("propio@import.com", "Propio", null, null)), owner);
+
+        assertEquals(Optional.of(Map.of(EmailStatus.PENDING, 1L)), userImportService.getImportStatus(result.jobId(), owner));
+        assertEquals(Optional.of(Map.of(EmailStatus.PENDING, 1L)), userImportService.getImportStatus(result.jobId(), admin));
+        assertEquals(Optional.empty(), userImportService.getImportStatus(result.jobId(), otherManager));
+        assertEquals(Optional.empty(), userImportService.getImportStatus("no-existe", admin));
+    }
+}
@@ -0,0 +1,95 @@
+package cl.ufro.bioren_backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    private BoundedPasswordEncoder encoder;
+    private ExecutorService callers;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+    }
+
+    /** Encoder cuyo hash queda bloqueado hasta liberar el latch */
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    void delegatesToBcrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, Duration.ofSeconds(5));
+        String hash = encoder.encode("clave-de-prueba");
+        assertTrue(encoder.matches("clave-de-prueba", hash));
+        assertFalse(encoder.matches("otra-clave", hash));
+    }
+
+    @Test
+    void upgradeEncodingDetectsLowerCost() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, Duration.ofSeconds(5));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("clave")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("clave")));
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(started, release), 1, 1, Duration.ofSeconds(5));
+        callers = Executors.newFixedThreadPool(2);
+        // Uno ocupa el único hilo y otro la única posición de la cola
+        callers.submit(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> encoder.encode("b"));
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        PasswordHashingBusyException busy = assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "El rechazo debe ser inmediato");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatusCode());
+        assertEquals("1", busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        release.countDown();
+    }
+
+    @Test
+    void failsAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(new CountDownLatch(1), release), 1, 1, Duration.ofMillis(100));
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("a"));
+        release.countDown();
+    }
+}
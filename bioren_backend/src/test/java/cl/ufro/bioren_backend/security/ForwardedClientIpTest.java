@@ -0,0 +1,45 @@
+package cl.ufro.bioren_backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Detrás de un proxy de confianza (aquí, loopback) el límite por IP usa la IP de X-Forwarded-For
+ * y no la del proxy: clientes distintos no comparten bucket.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bioren.security.login-throttle.ip.capacity=1",
+        "bioren.security.login-throttle.ip.refill-every=1m"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ForwardedClientIpTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private HttpStatus login(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        String body = "{\"email\":\"nadie@proxy.com\",\"password\":\"clave-cualquiera\"}";
+        return HttpStatus.valueOf(restTemplate.postForEntity("/api/auth/login", new HttpEntity<>(body, headers), String.class)
+                .getStatusCode().value());
+    }
+
+    @Test
+    void ipBucketIsKeyedByTheForwardedClientAddress() {
+        assertEquals(HttpStatus.UNAUTHORIZED, login("203.0.113.5"));
+        assertEquals(HttpStatus.UNAUTHORIZED, login("203.0.113.6"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.5"));
+    }
+}
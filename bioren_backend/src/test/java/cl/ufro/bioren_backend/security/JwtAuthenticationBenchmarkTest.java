@@ -0,0 +1,88 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mide peticiones por segundo autenticadas con JWT y las sentencias SQL que ejecuta cada una.
+ * El endpoint usado hace una sola consulta; cualquier sentencia extra la agrega la autenticación.
+ * Se ejecuta con el perfil de Maven "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class JwtAuthenticationBenchmarkTest {
+    private static final int WARMUP = 1_000;
+    private static final int REQUESTS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    private void getSelf(Long id, String token, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            mockMvc.perform(get("/api/users/" + id).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void authenticatedRequestsDoNoDatabaseWorkForAuthentication() throws Exception {
+        User user = userRepository.save(User.builder().name("Bench").email("bench@jwt.com")
+                .password(passwordEncoder.encode("clave-benchmark")).role(UserRole.UNIT_MANAGER).unit("Lab1").build());
+        MvcResult login = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"bench@jwt.com\",\"password\":\"clave-benchmark\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+
+        getSelf(user.getId(), token, WARMUP);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        getSelf(user.getId(), token, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double statementsPerRequest = (double) statistics.getPrepareStatementCount() / REQUESTS;
+
+        System.out.printf("Peticiones autenticadas: %,.0f req/s, %.2f sentencias por petición%n",
+                REQUESTS / seconds, statementsPerRequest);
+        // Solo la consulta del endpoint: la autenticación no toca la base de datos
+        assertEquals(1.0, statementsPerRequest);
+    }
+}
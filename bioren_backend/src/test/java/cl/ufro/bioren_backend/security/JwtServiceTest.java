@@ -0,0 +1,58 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+    private static final String SECRET = "clave_de_prueba_para_jwt_de_al_menos_32_bytes";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(SECRET, 60_000);
+        user = User.builder().id(7L).name("Manager").email("manager@test.com").role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+    }
+
+    private static JwtService newJwtService(String secret, long expirationMs) {
+        return new JwtService(secret, expirationMs);
+    }
+
+    @Test
+    void verifyReturnsClaimsInOnePass() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user));
+        assertTrue(verified.expiresAt().isAfter(Instant.now()));
+        UserPrincipal principal = verified.toPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("manager@test.com", principal.getEmail());
+        assertEquals(UserRole.UNIT_MANAGER, principal.getRole());
+        assertEquals("Lab1", principal.getUnit());
+        assertEquals("ROLE_UNIT_MANAGER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void userWithoutUnitHasNullUnit() {
+        User admin = User.builder().id(1L).email("admin@test.com").role(UserRole.BIOREN_ADMIN).build();
+        assertNull(jwtService.verify(jwtService.generateToken(admin)).unit());
+    }
+
+    @Test
+    void rejectsTokenSignedWithOtherKey() {
+        String token = newJwtService("otra_clave_de_prueba_para_jwt_de_32_bytes_o_mas", 60_000).generateToken(user);
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = newJwtService(SECRET, -1_000).generateToken(user);
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+}
@@ -0,0 +1,81 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Benchmark JMH de verificación de tokens: JwtService.verify (un parseo, parser y clave únicos)
+ * frente al flujo anterior (tres parseos, cada uno construyendo clave y parser).
+ * Se ejecuta con el perfil de Maven "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtVerifyBenchmark {
+    private static final String SECRET = "clave_de_benchmark_para_jwt_de_al_menos_32_bytes";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3_600_000);
+        token = jwtService.generateToken(User.builder().id(7L).name("Bench").email("bench@jwt.com")
+                .role(UserRole.UNIT_MANAGER).unit("Lab1").build());
+    }
+
+    @Benchmark
+    public UserPrincipal verify() {
+        return jwtService.verify(token).toPrincipal();
+    }
+
+    /** Reproduce el filtro anterior: extractUsername más isTokenValid (sujeto y expiración) */
+    @Benchmark
+    public boolean tripleParse() {
+        String username = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(username) && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Test
+    void run() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                // Sin fork: el classpath de surefire no siempre es reutilizable por un proceso hijo
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        assertFalse(new Runner(options).run().isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Ráfaga de logins concurrentes con el costo de BCrypt por defecto: mide logins por segundo
+ * y cuántos intentos se rechazan con 503 por saturación del pool de hash.
+ * Se ejecuta con el perfil de Maven "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class LoginBenchmarkTest {
+    private static final int CLIENTS = 32;
+    private static final int LOGINS_PER_CLIENT = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentLogins() throws Exception {
+        userRepository.save(User.builder().name("Bench").email("bench@login.com")
+                .password(passwordEncoder.encode("clave-benchmark")).role(UserRole.UNIT_MANAGER).unit("Lab1").build());
+        String body = "{\"email\":\"bench@login.com\",\"password\":\"clave-benchmark\"}";
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger busy = new AtomicInteger();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < LOGINS_PER_CLIENT; i++) {
+                    int status = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                            .andReturn().getResponse().getStatus();
+                    (status == 200 ? ok : busy).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        clients.shutdown();
+
+        System.out.printf("Logins: %,.0f logins/s exitosos, %d rechazados con 503 (%d clientes, %d núcleos)%n",
+                ok.get() / seconds, busy.get(), CLIENTS, Runtime.getRuntime().availableProcessors());
+        assertEquals(CLIENTS * LOGINS_PER_CLIENT, ok.get() + busy.get());
+    }
+}
@@ -0,0 +1,59 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Un hash guardado con un costo de BCrypt menor al configurado se recalcula al iniciar sesión.
+ */
+@SpringBootTest(properties = "bioren.security.bcrypt.strength=5")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class LoginRehashTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    private void login(String password, int expectedStatus) throws Exception {
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"rehash@test.com\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void oldCostHashIsUpgradedOnSuccessfulLogin() throws Exception {
+        String oldHash = new BCryptPasswordEncoder(4).encode("clave-antigua-123");
+        userRepository.save(User.builder().name("Rehash").email("rehash@test.com").password(oldHash)
+                .role(UserRole.UNIT_MANAGER).unit("Lab1").build());
+
+        login("clave-incorrecta", 401);
+        assertEquals(oldHash, userRepository.findByEmail("rehash@test.com").getPassword());
+
+        login("clave-antigua-123", 200);
+        String newHash = userRepository.findByEmail("rehash@test.com").getPassword();
+        assertTrue(newHash.startsWith("$2a$05$"), newHash);
+        assertTrue(new BCryptPasswordEncoder().matches("clave-antigua-123", newHash));
+    }
+}
@@ -0,0 +1,130 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.controller.AuthController;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import cl.ufro.bioren_backend.service.PasswordResetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LoginThrottleTest {
+    private AtomicLong nanos;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        // 3 intentos por email (uno nuevo por minuto) y 10 por IP (uno nuevo cada 2 s)
+        throttle = new LoginThrottle(3, Duration.ofMinutes(1), 10, Duration.ofSeconds(2), Duration.ofMinutes(15), 100, nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void emailBucketAllowsBurstThenRefills() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, throttle.tryAcquire("user@test.com", "10.0.0." + i));
+        }
+        assertEquals(60, throttle.tryAcquire("User@Test.com ", "10.0.0.9"));
+        advance(Duration.ofSeconds(30));
+        assertEquals(30, throttle.tryAcquire("user@test.com", "10.0.0.9"));
+        advance(Duration.ofSeconds(30));
+        assertEquals(0, throttle.tryAcquire("user@test.com", "10.0.0.9"));
+    }
+
+    @Test
+    void ipBucketLimitsManyEmails() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, throttle.tryAcquire("user" + i + "@test.com", "10.0.0.1"));
+        }
+        assertEquals(2, throttle.tryAcquire("otro@test.com", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("otro@test.com", "10.0.0.2"));
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("user@test.com", "10.0.0." + i);
+        }
+        assertEquals(4, throttle.trackedKeys());
+        advance(Duration.ofMinutes(16));
+        assertEquals(0, throttle.trackedKeys());
+    }
+
+    @Test
+    void bucketMapsAreBoundedByMaxSize() {
+        for (int i = 0; i < 1_000; i++) {
+            throttle.tryAcquire("user" + i + "@test.com", "10.1." + (i / 250) + "." + (i % 250));
+        }
+        // 100 claves por mapa como máximo
+        assertTrue(throttle.trackedKeys() <= 200, "Claves en memoria: " + throttle.trackedKeys());
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String ip = "10.0.1." + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (throttle.tryAcquire("victima@test.com", ip) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(3, allowed.get());
+    }
+
+    @Test
+    void rejectedAttemptNeverReachesThePasswordEncoder() {
+        UserRepository userRepository = mock(UserRepository.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        AuthController controller = new AuthController(userRepository, mock(JwtService.class), passwordEncoder,
+                mock(PasswordResetService.class), throttle);
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("user@test.com", "10.0.2." + i);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.2.9");
+
+        AuthController.LoginRequest login = new AuthController.LoginRequest();
+        login.setEmail("user@test.com");
+        login.setPassword("clave");
+
+        ResponseEntity<?> response = controller.login(login, request);
+
+        assertEquals(429, response.getStatusCode().value());
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+}
@@ -0,0 +1,108 @@
+package cl.ufro.bioren_backend.security;
+
+import cl.ufro.bioren_backend.model.UserRole;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    private SimpleMeterRegistry registry;
+    private AtomicLong nanos;
+    private AtomicInteger verifications;
+    private Instant tokenExpiration;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        nanos = new AtomicLong();
+        verifications = new AtomicInteger();
+        tokenExpiration = NOW.plus(Duration.ofHours(1));
+    }
+
+    private VerifiedTokenCache newCache(long maxSize, Duration ttl) {
+        return new VerifiedTokenCache(registry, maxSize, ttl, nanos::get, Clock.fixed(NOW, ZoneOffset.UTC), Runnable::run);
+    }
+
+    private final Function<String, VerifiedToken> verifier = token -> {
+        verifications.incrementAndGet();
+        return new VerifiedToken(7L, "Manager", token + "@test.com", UserRole.UNIT_MANAGER, "Lab1", tokenExpiration);
+    };
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private double counter(String name, String... tags) {
+        return registry.get(name).tag("cache", VerifiedTokenCache.CACHE_NAME).tags(tags).functionCounter().count();
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        VerifiedTokenCache cache = newCache(100, Duration.ofMinutes(10));
+        UserPrincipal first = cache.get("a", verifier);
+        UserPrincipal second = cache.get("a", verifier);
+
+        assertSame(first, second);
+        assertEquals(7L, first.getId());
+        assertEquals(1, verifications.get());
+        assertEquals(1, counter("cache.gets", "result", "hit"));
+        assertEquals(1, counter("cache.gets", "result", "miss"));
+    }
+
+    @Test
+    void entryExpiresAfterTtl() {
+        VerifiedTokenCache cache = newCache(100, Duration.ofMinutes(10));
+        cache.get("a", verifier);
+        advance(Duration.ofMinutes(11));
+        cache.get("a", verifier);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void ttlIsCappedAtTokenExpiration() {
+        tokenExpiration = NOW.plus(Duration.ofMinutes(2));
+        VerifiedTokenCache cache = newCache(100, Duration.ofMinutes(10));
+        cache.get("a", verifier);
+        advance(Duration.ofMinutes(1));
+        cache.get("a", verifier);
+        assertEquals(1, verifications.get());
+        advance(Duration.ofMinutes(2));
+        cache.get("a", verifier);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        VerifiedTokenCache cache = newCache(100, Duration.ofMinutes(10));
+        Function<String, VerifiedToken> rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new ExpiredJwtException(null, null, "expirado");
+        };
+        assertThrows(ExpiredJwtException.class, () -> cache.get("a", rejecting));
+        assertThrows(ExpiredJwtException.class, () -> cache.get("a", rejecting));
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void sizeIsBoundedAndEvictionsAreCounted() {
+        VerifiedTokenCache cache = newCache(2, Duration.ofMinutes(10));
+        for (String token : new String[]{"a", "b", "c", "d"}) {
+            cache.get(token, verifier);
+        }
+        assertEquals(2, counter("cache.evictions"));
+        assertEquals(2, registry.get("cache.size").tag("cache", VerifiedTokenCache.CACHE_NAME).gauge().value());
+    }
+}
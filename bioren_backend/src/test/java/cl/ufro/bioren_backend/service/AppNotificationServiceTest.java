@@ -1,14 +1,20 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.NotificationSelection;
 import cl.ufro.bioren_backend.model.AppNotification;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.NotificationCounterRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +24,12 @@ import static org.mockito.Mockito.*;
 class AppNotificationServiceTest {
     @Mock
     private AppNotificationRepository notificationRepository;
+    @Mock
+    private NotificationCounterRepository counterRepository;
+    @Mock
+    private NotificationHub notificationHub;
+    @Mock
+    private UserRepository userRepository;
     @InjectMocks
     private AppNotificationService notificationService;
     private User admin;
@@ -30,41 +42,119 @@ class AppNotificationServiceTest {
         MockitoAnnotations.openMocks(this);
         admin = User.builder().id(1L).name("Admin").email("admin@test.com").role(UserRole.BIOREN_ADMIN).build();
         normalUser = User.builder().id(2L).name("User").email("user@test.com").role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build();
-        notification1 = AppNotification.builder().id(100L).message("Test 1").isRead(false).build();
-        notification2 = AppNotification.builder().id(101L).message("Test 2").isRead(false).build();
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        notification1 = AppNotification.builder().id(100L).message("Test 1").isRead(false).recipient(normalUser).timestamp(now).build();
+        notification2 = AppNotification.builder().id(101L).message("Test 2").isRead(false).recipient(normalUser).timestamp(now.minusHours(1)).build();
     }
 
     @Test
-    void adminCanGetAllNotifications() {
-        when(notificationRepository.findAll()).thenReturn(Arrays.asList(notification1, notification2));
-        List<AppNotification> result = notificationService.getAll(admin);
-        assertEquals(2, result.size());
+    void userGetsOwnInboxPage() {
+        when(notificationRepository.findInboxFirstPage(2L, Limit.of(2))).thenReturn(Arrays.asList(notification1, notification2));
+        CursorPage<AppNotification> page = notificationService.getInbox(normalUser, false, null, 1);
+        assertEquals(List.of(notification1), page.items());
+        assertTrue(page.hasNext());
+
+        when(notificationRepository.findInboxPageAfter(2L, notification1.getTimestamp(), 100L, Limit.of(2)))
+                .thenReturn(List.of(notification2));
+        CursorPage<AppNotification> next = notificationService.getInbox(normalUser, false, page.nextCursor(), 1);
+        assertEquals(List.of(notification2), next.items());
+        assertFalse(next.hasNext());
     }
 
     @Test
-    void userCanGetAllNotifications() {
-        when(notificationRepository.findAll()).thenReturn(Arrays.asList(notification1, notification2));
-        List<AppNotification> result = notificationService.getAll(normalUser);
-        assertEquals(2, result.size());
+    void unreadOnlyUsesUnreadQuery() {
+        when(notificationRepository.findUnreadFirstPage(2L, Limit.of(51))).thenReturn(List.of(notification1));
+        assertEquals(1, notificationService.getInbox(normalUser, true, null, 50).items().size());
+        verify(notificationRepository, never()).findInboxFirstPage(anyLong(), any());
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getInbox(normalUser, false, "no-es-cursor", 10));
+    }
+
+    @Test
+    void notificationsTakeTheSeqsReservedByTheCounter() {
+        // Tras sumar, la última seq de normalUser es 7: la nueva notificación queda con 7
+        when(counterRepository.findLastSeqs(any())).thenReturn(List.<Object[]>of(new Object[]{2L, 7L}, new Object[]{1L, 3L}));
+        List<AppNotification> saved = notificationService.notifyUsers(List.of(admin, normalUser), "info", "Aviso", null, null, "Lab1");
+        assertEquals(3L, saved.get(0).getSeq());
+        assertEquals(7L, saved.get(1).getSeq());
+    }
+
+    @Test
+    void notifyUsersIncrementsEachCounter() {
+        notificationService.notifyUsers(List.of(admin, normalUser), "info", "Aviso", null, null, "Lab1");
+        verify(notificationRepository).saveAll(argThat(list -> ((List<AppNotification>) list).size() == 2));
+        verify(counterRepository).incrementAll(argThat(ids -> ids.containsAll(List.of(1L, 2L)) && ids.size() == 2), eq(1));
+        // Sin transacción activa se publica de inmediato
+        verify(notificationHub).publish(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    void unreadCountReadsCounter() {
+        when(counterRepository.findUnread(2L)).thenReturn(Optional.of(3));
+        assertEquals(3, notificationService.getUnreadCount(normalUser));
+        assertEquals(0, notificationService.getUnreadCount(admin));
     }
 
     @Test
     void userCanMarkNotificationAsRead() {
+        when(notificationRepository.markRead(100L, 2L)).thenReturn(1);
         when(notificationRepository.findById(100L)).thenReturn(Optional.of(notification1));
-        when(notificationRepository.save(any(AppNotification.class))).thenReturn(notification1);
-        AppNotification result = notificationService.markAsRead(100L, normalUser);
-        assertTrue(result.isRead());
+        notificationService.markAsRead(100L, normalUser);
+        verify(counterRepository, times(1)).decrement(2L, 1);
+    }
+
+    @Test
+    void markingAlreadyReadNotificationDoesNotDecrement() {
+        when(notificationRepository.markRead(100L, 2L)).thenReturn(0);
+        when(notificationRepository.findById(100L)).thenReturn(Optional.of(notification1));
+        notificationService.markAsRead(100L, normalUser);
+        verify(counterRepository, never()).decrement(anyLong(), anyInt());
+    }
+
+    @Test
+    void userCannotMarkSomeoneElsesNotification() {
+        when(notificationRepository.findById(100L)).thenReturn(Optional.of(notification1));
+        assertThrows(RuntimeException.class, () -> notificationService.markAsRead(100L, admin));
     }
 
     @Test
     void adminCanDeleteNotification() {
-        doNothing().when(notificationRepository).deleteById(100L);
+        when(notificationRepository.findRecipientId(100L)).thenReturn(2L);
+        when(notificationRepository.deleteUnread(100L)).thenReturn(1);
         assertDoesNotThrow(() -> notificationService.delete(100L, admin));
-        verify(notificationRepository, times(1)).deleteById(100L);
+        verify(counterRepository, times(1)).decrement(2L, 1);
+        verify(notificationRepository, never()).removeById(100L);
+    }
+
+    @Test
+    void bulkReadDecrementsByAffectedCount() {
+        when(notificationRepository.markReadByIds(2L, List.of(100L, 101L, 999L))).thenReturn(2);
+        assertEquals(2, notificationService.markAsRead(new NotificationSelection(List.of(100L, 101L, 999L), null), normalUser));
+        verify(counterRepository).decrement(2L, 2);
+        verify(notificationRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void bulkDeleteRecountsCounter() {
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(notificationRepository.deleteBefore(2L, before)).thenReturn(5);
+        assertEquals(5, notificationService.deleteFromInbox(new NotificationSelection(null, before), normalUser));
+        verify(counterRepository).recount(2L);
+    }
+
+    @Test
+    void bulkSelectionRequiresIdsOrBefore() {
+        assertThrows(IllegalArgumentException.class, () -> notificationService.markAsRead(new NotificationSelection(null, null), normalUser));
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationService.deleteFromInbox(new NotificationSelection(List.of(1L), LocalDateTime.now()), normalUser));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.markAsRead(new NotificationSelection(List.of(), null), normalUser));
     }
 
     @Test
     void userCannotDeleteNotification() {
         assertThrows(RuntimeException.class, () -> notificationService.delete(100L, normalUser));
     }
-} 
\ No newline at end of file
+}
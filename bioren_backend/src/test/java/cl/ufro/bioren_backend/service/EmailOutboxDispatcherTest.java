@@ -0,0 +1,103 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Lease por correo: cada correo se toma justo antes de enviarlo y se marca enviado apenas sale.
+ */
+class EmailOutboxDispatcherTest {
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    private SmtpTransportPool transportPool;
+    @Mock
+    private Transport transport;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, new JavaMailSenderImpl(), transportPool,
+                true, "", 1, 10, 50, 8, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+        when(transportPool.borrow()).thenReturn(transport);
+        when(transport.isConnected()).thenReturn(true);
+        when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        for (long id = 1; id <= 3; id++) {
+            when(emailOutboxRepository.findById(id)).thenReturn(Optional.of(message(id)));
+        }
+    }
+
+    private static EmailOutbox message(long id) {
+        return EmailOutbox.builder().id(id).recipient("destino" + id + "@test.com").subject("Asunto").body("Cuerpo")
+                .status(EmailStatus.SENDING).attempts(1).nextAttemptAt(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void eachMessageIsClaimedRightBeforeItIsSentAndMarkedSentRightAfter() throws Exception {
+        dispatcher.deliver(List.of(1L, 2L));
+
+        InOrder order = inOrder(emailOutboxRepository, transport);
+        order.verify(emailOutboxRepository).claim(eq(1L), any(), any());
+        order.verify(transport).sendMessage(any(), any());
+        order.verify(emailOutboxRepository).markSent(eq(List.of(1L)), any());
+        order.verify(emailOutboxRepository).claim(eq(2L), any(), any());
+        order.verify(transport).sendMessage(any(), any());
+        order.verify(emailOutboxRepository).markSent(eq(List.of(2L)), any());
+        verify(transportPool, times(1)).borrow();
+        verify(transportPool).release(transport);
+    }
+
+    @Test
+    void leaseCoversOneMessageFromTheMomentItIsClaimed() {
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.deliver(List.of(1L));
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(emailOutboxRepository).claim(eq(1L), now.capture(), leaseUntil.capture());
+        assertFalse(now.getValue().isBefore(before));
+        assertEquals(Duration.ofMinutes(5), Duration.between(now.getValue(), leaseUntil.getValue()));
+    }
+
+    @Test
+    void failedMessageDoesNotHoldBackTheOthers() throws Exception {
+        doThrow(new MessagingException("rechazado")).doNothing().when(transport).sendMessage(any(), any());
+
+        dispatcher.deliver(List.of(1L, 2L));
+
+        verify(emailOutboxRepository).markAttemptFailed(eq(1L), eq(EmailStatus.PENDING), any(), eq("rechazado"));
+        verify(emailOutboxRepository).markSent(eq(List.of(2L)), any());
+        verify(emailOutboxRepository, never()).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void messageTakenByAnotherThreadIsSkipped() throws Exception {
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(0);
+
+        dispatcher.deliver(List.of(1L, 2L));
+
+        verify(emailOutboxRepository, never()).findById(1L);
+        verify(emailOutboxRepository).markSent(eq(List.of(2L)), any());
+    }
+}
@@ -0,0 +1,203 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.EmailOutbox;
+import cl.ufro.bioren_backend.model.EmailStatus;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EmailOutboxRepository;
+import cl.ufro.bioren_backend.repository.InvitationTokenRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bandeja de salida contra un servidor SMTP embebido (GreenMail): envío en segundo plano y por lotes,
+ * atomicidad con la transacción que lo origina y reintentos con backoff.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "bioren.mail.outbox.enabled=true",
+        "bioren.mail.outbox.poll-interval=100ms",
+        "bioren.mail.outbox.initial-backoff=200ms",
+        "bioren.mail.outbox.max-attempts=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmailOutboxTest {
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private InvitationService invitationService;
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private InvitationTokenRepository invitationTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SmtpTransportPool transportPool;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Invitado").email("invitado@outbox.com")
+                .role(UserRole.EQUIPMENT_MANAGER).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAllInBatch();
+        invitationTokenRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /** Espera hasta 10 s a que el correo cumpla la condición */
+    private EmailOutbox awaitMessage(Long id, Predicate<EmailOutbox> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        EmailOutbox message = emailOutboxRepository.findById(id).orElseThrow();
+        while (!condition.test(message) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            message = emailOutboxRepository.findById(id).orElseThrow();
+        }
+        return message;
+    }
+
+    @Test
+    void invitationIsDeliveredInBackground() throws Exception {
+        invitationService.createAndSendInvitation(user);
+
+        List<EmailOutbox> queued = emailOutboxRepository.findAll();
+        assertEquals(1, queued.size());
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("invitado@outbox.com", received.getAllRecipients()[0].toString());
+        assertEquals("Activa tu cuenta", received.getSubject());
+        assertTrue(GreenMailUtil.getBody(received).contains("/invite/"));
+
+        EmailOutbox sent = awaitMessage(queued.get(0).getId(), m -> m.getStatus() == EmailStatus.SENT);
+        assertEquals(EmailStatus.SENT, sent.getStatus());
+        assertEquals(1, sent.getAttempts());
+        assertNotNull(sent.getSentAt());
+    }
+
+    @Test
+    void batchSharesOnePooledSmtpConnection() throws Exception {
+        long opened = transportPool.connectionsOpened();
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = 0; i < 20; i++) {
+                emailOutboxService.enqueue("usuario" + i + "@outbox.com", "Recordatorio", "Cuerpo " + i);
+            }
+        });
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 20));
+        // Un solo lote tras el commit; el sondeo puede tomar parte de él en paralelo con otra conexión
+        long afterBatch = transportPool.connectionsOpened() - opened;
+        assertTrue(afterBatch >= 1 && afterBatch <= 2, "Conexiones abiertas: " + afterBatch);
+
+        // El siguiente lote reutiliza una conexión del pool
+        Long id = emailOutboxService.enqueue("otro@outbox.com", "Recordatorio", "Cuerpo").getId();
+        assertEquals(EmailStatus.SENT, awaitMessage(id, m -> m.getStatus() == EmailStatus.SENT).getStatus());
+        assertEquals(afterBatch, transportPool.connectionsOpened() - opened);
+        assertEquals(21, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotSend() throws Exception {
+        transactionTemplate.executeWithoutResult(tx -> {
+            invitationService.createAndSendInvitation(user);
+            tx.setRollbackOnly();
+        });
+
+        assertEquals(0, emailOutboxRepository.count());
+        assertEquals(0, invitationTokenRepository.count());
+        assertFalse(greenMail.waitForIncomingEmail(500, 1));
+    }
+
+    @Test
+    void retriesWithBackoffUntilRelayRecovers() throws Exception {
+        greenMail.stop();
+        Long id = emailOutboxService.enqueue("invitado@outbox.com", "Asunto", "Cuerpo").getId();
+
+        EmailOutbox failed = awaitMessage(id, m -> m.getStatus() == EmailStatus.PENDING && m.getAttempts() >= 1);
+        assertEquals(EmailStatus.PENDING, failed.getStatus());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(failed.getCreatedAt()));
+
+        greenMail.start();
+        EmailOutbox sent = awaitMessage(id, m -> m.getStatus() == EmailStatus.SENT);
+        assertEquals(EmailStatus.SENT, sent.getStatus());
+        assertTrue(sent.getAttempts() >= 2);
+        assertNull(sent.getLastError());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        greenMail.stop();
+        Long id = emailOutboxService.enqueue("invitado@outbox.com", "Asunto", "Cuerpo").getId();
+
+        // Reintentos a los 200, 400 y 800 ms
+        EmailOutbox failed = awaitMessage(id, m -> m.getStatus() == EmailStatus.FAILED);
+        assertEquals(EmailStatus.FAILED, failed.getStatus());
+        assertEquals(4, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        greenMail.start();
+    }
+
+    @Test
+    @WithMockUser(roles = "BIOREN_ADMIN")
+    void deliveryStatusIsQueryable() throws Exception {
+        Long id = emailOutboxService.enqueue("invitado@outbox.com", "Asunto", "Cuerpo").getId();
+        awaitMessage(id, m -> m.getStatus() == EmailStatus.SENT);
+
+        mockMvc.perform(get("/api/admin/email-outbox/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SENT"))
+                .andExpect(jsonPath("$.attempts").value(1));
+        mockMvc.perform(get("/api/admin/email-outbox").param("status", "SENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id));
+        mockMvc.perform(get("/api/admin/email-outbox").param("status", "FAILED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
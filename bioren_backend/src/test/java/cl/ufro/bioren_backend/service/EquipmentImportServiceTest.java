@@ -0,0 +1,142 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.EquipmentImportResult;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.EquipmentCriticality;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EquipmentImportServiceTest {
+    @Mock
+    private EquipmentService equipmentService;
+    @Mock
+    private EquipmentRepository equipmentRepository;
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private EquipmentImportService equipmentImportService;
+    private User admin;
+    private User unitManager;
+    private List<Equipment> saved;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        admin = User.builder().id(1L).name("Admin").email("admin@test.com").role(UserRole.BIOREN_ADMIN).build();
+        unitManager = User.builder().id(2L).name("Manager").email("manager@test.com").role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+        when(equipmentRepository.findAllInstitutionalIds()).thenReturn(List.of("EXISTING-1"));
+        when(userRepository.findEmailIds()).thenReturn(List.of(new Object[]{"admin@test.com", 1L}, new Object[]{"manager@test.com", 2L}));
+        // El servicio reutiliza la lista del bloque, por lo que se copia al capturarla
+        saved = new ArrayList<>();
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0))).when(equipmentService).saveImportChunk(anyList());
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importsValidRowsAndReportsInvalidOnes() throws Exception {
+        String content = """
+                institutionalId,name,locationUnit,createdDate,maintenanceFrequencyValue,maintenanceFrequencyUnit,criticality,encargadoEmail
+                INST-1,Microscopio,Lab1,2025-01-10,6,months,high,manager@test.com
+                INST-2,Centrífuga,Lab2,,,,,
+                EXISTING-1,Repetido en base,Lab1,,,,,
+                INST-1,Repetido en archivo,Lab1,,,,,
+                ,Sin id,Lab1,,,,,
+                INST-3,Fecha mala,Lab1,10/01/2025,,,,
+                INST-4,Criticidad mala,Lab1,,,,URGENT,
+                INST-5,Encargado desconocido,Lab1,,,,,nadie@test.com
+                """;
+        EquipmentImportResult result = equipmentImportService.importCsv(csv(content), admin);
+
+        assertEquals(2, result.imported());
+        assertEquals(List.of("INST-1", "INST-2"), saved.stream().map(Equipment::getInstitutionalId).toList());
+        Equipment first = saved.get(0);
+        assertEquals(EquipmentCriticality.HIGH, first.getCriticality());
+        assertEquals(MaintenanceFrequencyUnit.MONTHS, first.getMaintenanceFrequency().getUnit());
+        assertEquals(2L, first.getEncargado().getId());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L), result.errors().stream().map(EquipmentImportResult.RowError::line).toList());
+    }
+
+    @Test
+    void institutionalIdsAreComparedIgnoringCase() throws Exception {
+        String content = """
+                institutionalId,name
+                EQ-1,Original
+                eq-1,Variante en archivo
+                existing-1,Variante en base
+                """;
+        EquipmentImportResult result = equipmentImportService.importCsv(csv(content), admin);
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of("EQ-1"), saved.stream().map(Equipment::getInstitutionalId).toList());
+        assertEquals(List.of(3L, 4L), result.errors().stream().map(EquipmentImportResult.RowError::line).toList());
+    }
+
+    @Test
+    void savesInChunks() throws Exception {
+        StringBuilder content = new StringBuilder("institutionalId,name\n");
+        int rows = EquipmentImportService.CHUNK_SIZE * 2 + 7;
+        for (int i = 0; i < rows; i++) {
+            content.append("INST-").append(i).append(",Equipo ").append(i).append('\n');
+        }
+        EquipmentImportResult result = equipmentImportService.importCsv(csv(content.toString()), admin);
+
+        assertEquals(rows, result.imported());
+        assertTrue(result.errors().isEmpty());
+        ArgumentCaptor<List<Equipment>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(equipmentService, times(3)).saveImportChunk(chunks.capture());
+        verify(equipmentRepository, times(1)).findAllInstitutionalIds();
+        verify(equipmentRepository, never()).findByInstitutionalId(anyString());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void unitManagerImportsIntoTheirUnit() throws Exception {
+        EquipmentImportResult result = equipmentImportService.importCsv(csv("institutionalId,locationUnit\nINST-1,Lab2\n"), unitManager);
+        assertEquals(1, result.imported());
+        assertEquals("Lab1", saved.get(0).getLocationUnit());
+    }
+
+    @Test
+    void failedChunkIsReportedRowByRow() throws Exception {
+        doThrow(new RuntimeException("constraint")).when(equipmentService).saveImportChunk(anyList());
+        EquipmentImportResult result = equipmentImportService.importCsv(csv("institutionalId\nINST-1\nINST-2\n"), admin);
+        assertEquals(0, result.imported());
+        assertEquals(2, result.errors().size());
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> equipmentImportService.importCsv(csv("institutionalId,color\nINST-1,rojo\n"), admin));
+    }
+
+    @Test
+    void equipmentManagerCannotImport() {
+        User equipmentManager = User.builder().id(3L).role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build();
+        assertThrows(AccessDeniedException.class,
+                () -> equipmentImportService.importCsv(csv("institutionalId\nINST-1\n"), equipmentManager));
+    }
+}
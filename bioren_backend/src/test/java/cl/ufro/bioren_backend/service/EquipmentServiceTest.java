@@ -1,5 +1,9 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.CursorPage;
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.dto.EquipmentSort;
+import cl.ufro.bioren_backend.dto.EquipmentSummaryDTO;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
@@ -10,6 +14,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.util.Arrays;
@@ -27,6 +33,8 @@ class EquipmentServiceTest {
     private EquipmentRepository equipmentRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private EquipmentService equipmentService;
 
@@ -56,6 +64,39 @@ class EquipmentServiceTest {
         assertEquals(1, result.size());
     }
 
+    private EquipmentSummaryDTO summary(Long id, String institutionalId) {
+        EquipmentSummaryDTO dto = new EquipmentSummaryDTO();
+        dto.setId(id);
+        dto.setInstitutionalId(institutionalId);
+        dto.setLocationUnit("Lab1");
+        return dto;
+    }
+
+    @Test
+    void equipmentPageReturnsCursorForFollowingPage() {
+        EquipmentSummaryDTO third = summary(12L, "INST-3");
+        when(equipmentRepository.findFirstPageOrderByInstitutionalId("Lab1", EquipmentFilter.ALL, Limit.of(3)))
+                .thenReturn(Arrays.asList(summary(10L, "INST-1"), summary(11L, "INST-2"), third));
+        CursorPage<EquipmentSummaryDTO> first = equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, null, 2);
+        assertEquals(2, first.items().size());
+        assertTrue(first.hasNext());
+
+        when(equipmentRepository.findPageAfterInstitutionalId("Lab1", EquipmentFilter.ALL, "INST-2", Limit.of(3)))
+                .thenReturn(List.of(third));
+        CursorPage<EquipmentSummaryDTO> next = equipmentService.getEquipmentPage(unitManager, EquipmentSort.INSTITUTIONAL_ID, first.nextCursor(), 2);
+        assertEquals(1, next.items().size());
+        assertFalse(next.hasNext());
+    }
+
+    @Test
+    void equipmentPageRejectsCursorFromOtherSort() {
+        when(equipmentRepository.findFirstPageOrderByInstitutionalId(null, EquipmentFilter.ALL, Limit.of(2)))
+                .thenReturn(Arrays.asList(summary(10L, "INST-1"), summary(11L, "INST-2")));
+        String cursor = equipmentService.getEquipmentPage(admin, EquipmentSort.INSTITUTIONAL_ID, null, 1).nextCursor();
+        assertThrows(IllegalArgumentException.class,
+                () -> equipmentService.getEquipmentPage(admin, EquipmentSort.NEXT_MAINTENANCE_DATE, cursor, 1));
+    }
+
     @Test
     void adminCanDeleteEquipment() {
         assertDoesNotThrow(() -> equipmentService.deleteEquipment(10L, admin));
@@ -82,18 +123,20 @@ class EquipmentServiceTest {
 
     @Test
     void adminCanUpdateEquipment() {
-        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipment));
-        when(equipmentRepository.save(any(Equipment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         Equipment updated = Equipment.builder().id(10L).name("Updated").locationUnit("Lab1").build();
+        // Primera lectura valida permisos; la segunda relee el equipo guardado
+        when(equipmentRepository.findWithEncargadoById(10L)).thenReturn(Optional.of(equipment), Optional.of(updated));
+        when(equipmentRepository.save(any(Equipment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         Equipment result = equipmentService.updateEquipment(10L, updated, admin);
         assertEquals("Updated", result.getName());
     }
 
     @Test
     void unitManagerCanUpdateEquipmentInTheirUnit() {
-        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipment));
-        when(equipmentRepository.save(any(Equipment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         Equipment updated = Equipment.builder().id(10L).name("Updated").locationUnit("Lab1").build();
+        // Primera lectura valida permisos; la segunda relee el equipo guardado
+        when(equipmentRepository.findWithEncargadoById(10L)).thenReturn(Optional.of(equipment), Optional.of(updated));
+        when(equipmentRepository.save(any(Equipment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         Equipment result = equipmentService.updateEquipment(10L, updated, unitManager);
         assertEquals("Updated", result.getName());
     }
@@ -101,21 +144,21 @@ class EquipmentServiceTest {
     @Test
     void unitManagerCannotUpdateEquipmentInOtherUnit() {
         Equipment other = Equipment.builder().id(11L).name("Other").locationUnit("Lab2").build();
-        when(equipmentRepository.findById(11L)).thenReturn(Optional.of(other));
+        when(equipmentRepository.findWithEncargadoById(11L)).thenReturn(Optional.of(other));
         Equipment updated = Equipment.builder().id(11L).name("Updated").locationUnit("Lab2").build();
         assertThrows(AccessDeniedException.class, () -> equipmentService.updateEquipment(11L, updated, unitManager));
     }
 
     @Test
     void adminCanGetEquipmentById() {
-        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipment));
+        when(equipmentRepository.findWithEncargadoById(10L)).thenReturn(Optional.of(equipment));
         Equipment result = equipmentService.getEquipmentById(10L, admin);
         assertEquals(equipment.getName(), result.getName());
     }
 
     @Test
     void unitManagerCanGetEquipmentByIdInTheirUnit() {
-        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipment));
+        when(equipmentRepository.findWithEncargadoById(10L)).thenReturn(Optional.of(equipment));
         Equipment result = equipmentService.getEquipmentById(10L, unitManager);
         assertEquals(equipment.getName(), result.getName());
     }
@@ -123,7 +166,7 @@ class EquipmentServiceTest {
     @Test
     void unitManagerCannotGetEquipmentByIdInOtherUnit() {
         Equipment other = Equipment.builder().id(11L).name("Other").locationUnit("Lab2").build();
-        when(equipmentRepository.findById(11L)).thenReturn(Optional.of(other));
+        when(equipmentRepository.findWithEncargadoById(11L)).thenReturn(Optional.of(other));
         assertThrows(AccessDeniedException.class, () -> equipmentService.getEquipmentById(11L, unitManager));
     }
 
@@ -0,0 +1,57 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.InventoryExportRow;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InventoryExportServiceTest {
+    @Mock
+    private EquipmentRepository equipmentRepository;
+    @InjectMocks
+    private InventoryExportService inventoryExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void headerIsFlushedBeforeTheQueryRuns() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder writtenBeforeQuery = new StringBuilder();
+        when(equipmentRepository.streamInventory(null)).thenAnswer(invocation -> {
+            writtenBeforeQuery.append(out.toString(StandardCharsets.UTF_8));
+            return Stream.<InventoryExportRow>empty();
+        });
+        User admin = User.builder().id(1L).role(UserRole.BIOREN_ADMIN).build();
+
+        inventoryExportService.export(admin, InventoryExportService.Format.CSV, out);
+
+        assertTrue(writtenBeforeQuery.toString().startsWith(String.join(",", InventoryExportRow.HEADER)));
+        verify(equipmentRepository).streamInventory(null);
+    }
+
+    @Test
+    void userWithoutUnitOnlyGetsTheHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        User user = User.builder().id(2L).role(UserRole.UNIT_MANAGER).build();
+
+        inventoryExportService.export(user, InventoryExportService.Format.CSV, out);
+
+        assertEquals(String.join(",", InventoryExportRow.HEADER), out.toString(StandardCharsets.UTF_8).strip());
+        verify(equipmentRepository, never()).streamInventory(any());
+    }
+}
@@ -1,7 +1,11 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.IssueReportResponseDTO;
+import cl.ufro.bioren_backend.event.IssueReportEvent;
 import cl.ufro.bioren_backend.model.Equipment;
 import cl.ufro.bioren_backend.model.IssueReport;
+import cl.ufro.bioren_backend.model.IssueSeverity;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
 import cl.ufro.bioren_backend.repository.EquipmentRepository;
@@ -11,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +28,8 @@ class IssueReportServiceTest {
     private IssueReportRepository issueReportRepository;
     @Mock
     private EquipmentRepository equipmentRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private IssueReportService issueReportService;
     private User admin;
@@ -45,27 +52,37 @@ class IssueReportServiceTest {
         issueLab2 = IssueReport.builder().id(101L).equipment(equipmentLab2).build();
     }
 
+    private IssueReportResponseDTO summaryOf(IssueReport ir) {
+        return new IssueReportResponseDTO(ir.getId(), ir.getReportedBy(), ir.getDateTime(), ir.getDescription(),
+                ir.getSeverity(), ir.getStatus(), ir.getEquipment().getId(), ir.getEquipment().getName(), null, null);
+    }
+
     @Test
     void adminCanGetAllIssues() {
-        when(issueReportRepository.findAll()).thenReturn(Arrays.asList(issueLab1, issueLab2));
-        List<IssueReport> result = issueReportService.getAll(admin);
+        when(issueReportRepository.findAllSummaries()).thenReturn(Arrays.asList(summaryOf(issueLab1), summaryOf(issueLab2)));
+        List<IssueReportResponseDTO> result = issueReportService.getAll(admin);
         assertEquals(2, result.size());
+        verify(issueReportRepository, never()).findAll();
     }
 
     @Test
     void unitManagerCanGetIssuesOfTheirUnit() {
-        when(issueReportRepository.findAll()).thenReturn(Arrays.asList(issueLab1, issueLab2));
-        List<IssueReport> result = issueReportService.getAll(unitManager);
+        when(issueReportRepository.findSummariesByLocationUnit("Lab1")).thenReturn(List.of(summaryOf(issueLab1)));
+        when(issueReportRepository.findAttachmentRowsByLocationUnit("Lab1"))
+                .thenReturn(List.of(new AttachmentRowDTO(100L, "foto.png", "/files/foto.png")));
+        List<IssueReportResponseDTO> result = issueReportService.getAll(unitManager);
         assertEquals(1, result.size());
-        assertEquals("Lab1", result.get(0).getEquipment().getLocationUnit());
+        assertEquals(10L, result.get(0).getEquipment().getId());
+        assertEquals("foto.png", result.get(0).getAttachments().get(0).getName());
+        verify(issueReportRepository, never()).findAll();
     }
 
     @Test
     void equipmentManagerCanGetIssuesOfTheirUnit() {
-        when(issueReportRepository.findAll()).thenReturn(Arrays.asList(issueLab1, issueLab2));
-        List<IssueReport> result = issueReportService.getAll(equipmentManager);
+        when(issueReportRepository.findSummariesByLocationUnit("Lab1")).thenReturn(List.of(summaryOf(issueLab1)));
+        List<IssueReportResponseDTO> result = issueReportService.getAll(equipmentManager);
         assertEquals(1, result.size());
-        assertEquals("Lab1", result.get(0).getEquipment().getLocationUnit());
+        assertEquals(100L, result.get(0).getId());
     }
 
     @Test
@@ -98,9 +115,38 @@ class IssueReportServiceTest {
         assertEquals(issueLab1.getId(), created.getId());
     }
 
+    @Test
+    void criticalIssueIsPublishedForAdmins() {
+        IssueReport critical = IssueReport.builder().id(102L).equipment(equipmentLab1).severity(IssueSeverity.CRITICAL).status("Abierto").build();
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(issueReportRepository.save(any(IssueReport.class))).thenReturn(critical);
+        issueReportService.create(critical, equipmentManager);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof IssueReportEvent event
+                && event.created() && event.severity() == IssueSeverity.CRITICAL && event.actorId().equals(3L)
+                && event.equipment().unit().equals("Lab1")));
+    }
+
+    @Test
+    void updateWithoutStatusOrSeverityChangeIsNotPublished() {
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
+        when(issueReportRepository.save(any(IssueReport.class))).thenReturn(issueLab1);
+        issueReportService.update(100L, IssueReport.builder().id(100L).equipment(equipmentLab1).build(), admin);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void escalationToCriticalIsPublished() {
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
+        IssueReport updated = IssueReport.builder().id(100L).equipment(equipmentLab1).severity(IssueSeverity.CRITICAL).build();
+        when(issueReportRepository.save(any(IssueReport.class))).thenReturn(updated);
+        issueReportService.update(100L, updated, admin);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof IssueReportEvent event
+                && !event.created() && event.escalated()));
+    }
+
     @Test
     void adminCanUpdateIssue() {
-        when(issueReportRepository.findById(100L)).thenReturn(Optional.of(issueLab1));
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
         when(issueReportRepository.save(any(IssueReport.class))).thenReturn(issueLab1);
         IssueReport updated = IssueReport.builder().id(100L).equipment(equipmentLab1).build();
         IssueReport result = issueReportService.update(100L, updated, admin);
@@ -109,7 +155,7 @@ class IssueReportServiceTest {
 
     @Test
     void unitManagerCanUpdateIssueInTheirUnit() {
-        when(issueReportRepository.findById(100L)).thenReturn(Optional.of(issueLab1));
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
         when(issueReportRepository.save(any(IssueReport.class))).thenReturn(issueLab1);
         IssueReport updated = IssueReport.builder().id(100L).equipment(equipmentLab1).build();
         IssueReport result = issueReportService.update(100L, updated, unitManager);
@@ -118,28 +164,28 @@ class IssueReportServiceTest {
 
     @Test
     void unitManagerCannotUpdateIssueInOtherUnit() {
-        when(issueReportRepository.findById(101L)).thenReturn(Optional.of(issueLab2));
+        when(issueReportRepository.findWithDetailById(101L)).thenReturn(Optional.of(issueLab2));
         IssueReport updated = IssueReport.builder().id(101L).equipment(equipmentLab2).build();
         assertThrows(AccessDeniedException.class, () -> issueReportService.update(101L, updated, unitManager));
     }
 
     @Test
     void adminCanDeleteIssue() {
-        when(issueReportRepository.findById(100L)).thenReturn(Optional.of(issueLab1));
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
         assertDoesNotThrow(() -> issueReportService.delete(100L, admin));
         verify(issueReportRepository, times(1)).deleteById(100L);
     }
 
     @Test
     void unitManagerCanDeleteIssueInTheirUnit() {
-        when(issueReportRepository.findById(100L)).thenReturn(Optional.of(issueLab1));
+        when(issueReportRepository.findWithDetailById(100L)).thenReturn(Optional.of(issueLab1));
         assertDoesNotThrow(() -> issueReportService.delete(100L, unitManager));
         verify(issueReportRepository, times(1)).deleteById(100L);
     }
 
     @Test
     void unitManagerCannotDeleteIssueInOtherUnit() {
-        when(issueReportRepository.findById(101L)).thenReturn(Optional.of(issueLab2));
+        when(issueReportRepository.findWithDetailById(101L)).thenReturn(Optional.of(issueLab2));
         assertThrows(AccessDeniedException.class, () -> issueReportService.delete(101L, unitManager));
     }
 } 
\ No newline at end of file
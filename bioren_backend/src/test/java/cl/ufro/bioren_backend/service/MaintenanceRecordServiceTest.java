@@ -1,6 +1,11 @@
 package cl.ufro.bioren_backend.service;
 
+import cl.ufro.bioren_backend.dto.AttachmentRowDTO;
+import cl.ufro.bioren_backend.dto.MaintenanceRecordResponseDTO;
+import cl.ufro.bioren_backend.event.EquipmentOverdueEvent;
+import cl.ufro.bioren_backend.event.MaintenanceRecordedEvent;
 import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
 import cl.ufro.bioren_backend.model.MaintenanceRecord;
 import cl.ufro.bioren_backend.model.User;
 import cl.ufro.bioren_backend.model.UserRole;
@@ -11,7 +16,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +30,8 @@ class MaintenanceRecordServiceTest {
     private MaintenanceRecordRepository maintenanceRecordRepository;
     @Mock
     private EquipmentRepository equipmentRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private MaintenanceRecordService maintenanceRecordService;
     private User admin;
@@ -45,35 +54,64 @@ class MaintenanceRecordServiceTest {
         recordLab2 = MaintenanceRecord.builder().id(101L).equipment(equipmentLab2).build();
     }
 
+    private MaintenanceRecordResponseDTO summaryOf(MaintenanceRecord mr) {
+        Equipment eq = mr.getEquipment();
+        return new MaintenanceRecordResponseDTO(mr.getId(), mr.getDate(), mr.getDescription(), mr.getPerformedBy(),
+                eq.getId(), eq.getName(), eq.getInstitutionalId(), eq.getLocationUnit());
+    }
+
     @Test
     void adminCanGetAllRecords() {
-        when(maintenanceRecordRepository.findAll()).thenReturn(Arrays.asList(recordLab1, recordLab2));
-        List<MaintenanceRecord> result = maintenanceRecordService.getAll(admin);
+        when(maintenanceRecordRepository.findAllSummaries()).thenReturn(Arrays.asList(summaryOf(recordLab1), summaryOf(recordLab2)));
+        List<MaintenanceRecordResponseDTO> result = maintenanceRecordService.getAll(admin);
         assertEquals(2, result.size());
+        verify(maintenanceRecordRepository, never()).findAll();
     }
 
     @Test
     void unitManagerCanGetRecordsOfTheirUnit() {
-        when(maintenanceRecordRepository.findAll()).thenReturn(Arrays.asList(recordLab1, recordLab2));
-        List<MaintenanceRecord> result = maintenanceRecordService.getAll(unitManager);
+        when(maintenanceRecordRepository.findSummariesByLocationUnit("Lab1")).thenReturn(List.of(summaryOf(recordLab1)));
+        when(maintenanceRecordRepository.findAttachmentRowsByLocationUnit("Lab1"))
+                .thenReturn(List.of(new AttachmentRowDTO(100L, "informe.pdf", "/files/informe.pdf")));
+        List<MaintenanceRecordResponseDTO> result = maintenanceRecordService.getAll(unitManager);
         assertEquals(1, result.size());
         assertEquals("Lab1", result.get(0).getEquipment().getLocationUnit());
+        assertEquals("informe.pdf", result.get(0).getAttachments().get(0).getName());
+        verify(maintenanceRecordRepository, never()).findAll();
     }
 
     @Test
     void equipmentManagerCanGetRecordsOfTheirUnit() {
-        when(maintenanceRecordRepository.findAll()).thenReturn(Arrays.asList(recordLab1, recordLab2));
-        List<MaintenanceRecord> result = maintenanceRecordService.getAll(equipmentManager);
+        when(maintenanceRecordRepository.findSummariesByLocationUnit("Lab1")).thenReturn(List.of(summaryOf(recordLab1)));
+        List<MaintenanceRecordResponseDTO> result = maintenanceRecordService.getAll(equipmentManager);
         assertEquals(1, result.size());
         assertEquals("Lab1", result.get(0).getEquipment().getLocationUnit());
     }
 
+    @Test
+    void unitManagerCanGetHistoryOfEquipmentInTheirUnit() {
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findSummariesByEquipmentId(10L)).thenReturn(List.of(summaryOf(recordLab1)));
+        List<MaintenanceRecordResponseDTO> result = maintenanceRecordService.getByEquipment(10L, unitManager);
+        assertEquals(1, result.size());
+        assertEquals(100L, result.get(0).getId());
+    }
+
+    @Test
+    void unitManagerCannotGetHistoryOfEquipmentInOtherUnit() {
+        when(equipmentRepository.findById(11L)).thenReturn(Optional.of(equipmentLab2));
+        assertThrows(AccessDeniedException.class, () -> maintenanceRecordService.getByEquipment(11L, unitManager));
+        verify(maintenanceRecordRepository, never()).findSummariesByEquipmentId(11L);
+    }
+
     @Test
     void adminCanCreateRecord() {
         when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
         when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
         MaintenanceRecord created = maintenanceRecordService.create(recordLab1, admin);
         assertEquals(recordLab1.getId(), created.getId());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof MaintenanceRecordedEvent event
+                && event.equipment().id().equals(10L) && event.actorId().equals(1L)));
     }
 
     @Test
@@ -84,6 +122,28 @@ class MaintenanceRecordServiceTest {
         assertEquals(recordLab1.getId(), created.getId());
     }
 
+    @Test
+    void creatingNewerRecordAdvancesLastMaintenanceDate() {
+        MaintenanceRecord newer = MaintenanceRecord.builder().equipment(equipmentLab1).date(LocalDate.of(2025, 6, 1)).build();
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 1, 1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(newer);
+        maintenanceRecordService.create(newer, admin);
+        assertEquals(LocalDate.of(2025, 6, 1), equipmentLab1.getLastMaintenanceDate());
+        verify(equipmentRepository).save(equipmentLab1);
+    }
+
+    @Test
+    void creatingOlderRecordKeepsLastMaintenanceDate() {
+        MaintenanceRecord older = MaintenanceRecord.builder().equipment(equipmentLab1).date(LocalDate.of(2024, 6, 1)).build();
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 1, 1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(older);
+        maintenanceRecordService.create(older, admin);
+        assertEquals(LocalDate.of(2025, 1, 1), equipmentLab1.getLastMaintenanceDate());
+        verify(equipmentRepository, never()).save(any(Equipment.class));
+    }
+
     @Test
     void unitManagerCannotCreateRecordInOtherUnit() {
         when(equipmentRepository.findById(11L)).thenReturn(Optional.of(equipmentLab2));
@@ -92,7 +152,7 @@ class MaintenanceRecordServiceTest {
 
     @Test
     void adminCanUpdateRecord() {
-        when(maintenanceRecordRepository.findById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
         when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
         MaintenanceRecord updated = MaintenanceRecord.builder().id(100L).equipment(equipmentLab1).build();
         MaintenanceRecord result = maintenanceRecordService.update(100L, updated, admin);
@@ -101,37 +161,135 @@ class MaintenanceRecordServiceTest {
 
     @Test
     void unitManagerCanUpdateRecordInTheirUnit() {
-        when(maintenanceRecordRepository.findById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
         when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
         MaintenanceRecord updated = MaintenanceRecord.builder().id(100L).equipment(equipmentLab1).build();
         MaintenanceRecord result = maintenanceRecordService.update(100L, updated, unitManager);
         assertEquals(100L, result.getId());
     }
 
+    @Test
+    void movingLatestRecordEarlierRecomputesLastMaintenanceDate() {
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 6, 1));
+        recordLab1.setDate(LocalDate.of(2025, 6, 1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(LocalDate.of(2025, 3, 1));
+        MaintenanceRecord updated = MaintenanceRecord.builder().id(100L).date(LocalDate.of(2024, 12, 1)).build();
+        maintenanceRecordService.update(100L, updated, admin);
+        assertEquals(LocalDate.of(2025, 3, 1), equipmentLab1.getLastMaintenanceDate());
+        verify(equipmentRepository).save(equipmentLab1);
+    }
+
+    @Test
+    void updatingOlderRecordDoesNotRecompute() {
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 6, 1));
+        recordLab1.setDate(LocalDate.of(2025, 1, 1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
+        MaintenanceRecord updated = MaintenanceRecord.builder().id(100L).date(LocalDate.of(2024, 12, 1)).build();
+        maintenanceRecordService.update(100L, updated, admin);
+        assertEquals(LocalDate.of(2025, 6, 1), equipmentLab1.getLastMaintenanceDate());
+        verify(maintenanceRecordRepository, never()).findLatestDateByEquipmentId(any());
+        verify(equipmentRepository, never()).save(any(Equipment.class));
+    }
+
+    @Test
+    void movingLatestRecordEarlierPublishesOverdueWhenTheEquipmentBecomesOverdue() {
+        LocalDate today = LocalDate.now();
+        equipmentLab1.setMaintenanceFrequency(new Equipment.MaintenanceFrequency(6, MaintenanceFrequencyUnit.MONTHS));
+        equipmentLab1.setLastMaintenanceDate(today.minusMonths(1));
+        equipmentLab1.setStatus(Equipment.STATUS_OK);
+        recordLab1.setDate(today.minusMonths(1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.save(any(MaintenanceRecord.class))).thenReturn(recordLab1);
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(today.minusYears(1));
+        MaintenanceRecord updated = MaintenanceRecord.builder().id(100L).date(today.minusYears(1)).build();
+        maintenanceRecordService.update(100L, updated, admin);
+        assertEquals(Equipment.STATUS_OVERDUE, equipmentLab1.getStatus());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof EquipmentOverdueEvent event
+                && event.equipments().size() == 1 && event.equipments().get(0).id().equals(10L)));
+    }
+
     @Test
     void unitManagerCannotUpdateRecordInOtherUnit() {
-        when(maintenanceRecordRepository.findById(101L)).thenReturn(Optional.of(recordLab2));
+        when(maintenanceRecordRepository.findWithDetailById(101L)).thenReturn(Optional.of(recordLab2));
         MaintenanceRecord updated = MaintenanceRecord.builder().id(101L).equipment(equipmentLab2).build();
         assertThrows(AccessDeniedException.class, () -> maintenanceRecordService.update(101L, updated, unitManager));
     }
 
     @Test
     void adminCanDeleteRecord() {
-        when(maintenanceRecordRepository.findById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
         assertDoesNotThrow(() -> maintenanceRecordService.delete(100L, admin));
         verify(maintenanceRecordRepository, times(1)).deleteById(100L);
     }
 
     @Test
     void unitManagerCanDeleteRecordInTheirUnit() {
-        when(maintenanceRecordRepository.findById(100L)).thenReturn(Optional.of(recordLab1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
         assertDoesNotThrow(() -> maintenanceRecordService.delete(100L, unitManager));
         verify(maintenanceRecordRepository, times(1)).deleteById(100L);
     }
 
+    @Test
+    void deletingLatestRecordRecomputesLastMaintenanceDate() {
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 6, 1));
+        recordLab1.setDate(LocalDate.of(2025, 6, 1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(LocalDate.of(2025, 3, 1));
+        maintenanceRecordService.delete(100L, admin);
+        assertEquals(LocalDate.of(2025, 3, 1), equipmentLab1.getLastMaintenanceDate());
+        verify(equipmentRepository).save(equipmentLab1);
+    }
+
+    @Test
+    void deletingOnlyRecordClearsLastMaintenanceDate() {
+        equipmentLab1.setLastMaintenanceDate(LocalDate.of(2025, 6, 1));
+        recordLab1.setDate(LocalDate.of(2025, 6, 1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(null);
+        maintenanceRecordService.delete(100L, admin);
+        assertNull(equipmentLab1.getLastMaintenanceDate());
+        verify(equipmentRepository).save(equipmentLab1);
+    }
+
+    @Test
+    void deletingLatestRecordPublishesOverdueWhenTheEquipmentBecomesOverdue() {
+        LocalDate today = LocalDate.now();
+        equipmentLab1.setMaintenanceFrequency(new Equipment.MaintenanceFrequency(6, MaintenanceFrequencyUnit.MONTHS));
+        equipmentLab1.setLastMaintenanceDate(today.minusMonths(1));
+        equipmentLab1.setStatus(Equipment.STATUS_OK);
+        recordLab1.setDate(today.minusMonths(1));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(today.minusYears(1));
+        maintenanceRecordService.delete(100L, admin);
+        assertEquals(Equipment.STATUS_OVERDUE, equipmentLab1.getStatus());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof EquipmentOverdueEvent));
+    }
+
+    @Test
+    void deletingLatestRecordOfAnAlreadyOverdueEquipmentDoesNotPublishAgain() {
+        LocalDate today = LocalDate.now();
+        equipmentLab1.setMaintenanceFrequency(new Equipment.MaintenanceFrequency(6, MaintenanceFrequencyUnit.MONTHS));
+        equipmentLab1.setLastMaintenanceDate(today.minusMonths(8));
+        equipmentLab1.setStatus(Equipment.STATUS_OVERDUE);
+        recordLab1.setDate(today.minusMonths(8));
+        when(maintenanceRecordRepository.findWithDetailById(100L)).thenReturn(Optional.of(recordLab1));
+        when(equipmentRepository.findById(10L)).thenReturn(Optional.of(equipmentLab1));
+        when(maintenanceRecordRepository.findLatestDateByEquipmentId(10L)).thenReturn(today.minusYears(1));
+        maintenanceRecordService.delete(100L, admin);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void unitManagerCannotDeleteRecordInOtherUnit() {
-        when(maintenanceRecordRepository.findById(101L)).thenReturn(Optional.of(recordLab2));
+        when(maintenanceRecordRepository.findWithDetailById(101L)).thenReturn(Optional.of(recordLab2));
         assertThrows(AccessDeniedException.class, () -> maintenanceRecordService.delete(101L, unitManager));
     }
 } 
\ No newline at end of file
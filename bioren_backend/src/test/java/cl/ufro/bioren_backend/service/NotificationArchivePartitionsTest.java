@@ -0,0 +1,50 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.service.NotificationArchivePartitions.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationArchivePartitionsTest {
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 10, 1);
+
+    @Test
+    void initialLayoutGetsCurrentAndUpcomingMonths() {
+        List<Partition> existing = List.of(
+                Partition.parse("p_before", "'2026-10-01'"),
+                Partition.parse("pmax", "MAXVALUE"));
+
+        assertEquals(List.of("alter table app_notification_archive reorganize partition pmax into ("
+                        + "partition p202610 values less than ('2026-11-01'), "
+                        + "partition p202611 values less than ('2026-12-01'), "
+                        + "partition p202612 values less than ('2027-01-01'), "
+                        + "partition pmax values less than (maxvalue))"),
+                NotificationArchivePartitions.plan(existing, TODAY, CUTOFF, 2));
+    }
+
+    @Test
+    void dropsExpiredMonthsAndKeepsUpToDateLayout() {
+        List<Partition> existing = List.of(
+                Partition.parse("p202409", "'2024-10-01 00:00:00'"),
+                Partition.parse("p202410", "'2024-11-01 00:00:00'"),
+                Partition.parse("p202612", "'2027-01-01 00:00:00'"),
+                Partition.parse("pmax", "MAXVALUE"));
+
+        assertEquals(List.of("alter table app_notification_archive drop partition p202409"),
+                NotificationArchivePartitions.plan(existing, TODAY, CUTOFF, 2));
+    }
+
+    @Test
+    void parsesRetentionDaysByType() {
+        assertEquals(Map.of("info", 30, "error", 365),
+                NotificationRetentionService.parseDaysByType(" info:30, error : 365"));
+        assertTrue(NotificationRetentionService.parseDaysByType("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> NotificationRetentionService.parseDaysByType("info"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRetentionService.parseDaysByType("info:-1"));
+    }
+}
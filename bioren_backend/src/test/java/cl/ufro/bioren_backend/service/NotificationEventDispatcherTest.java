@@ -0,0 +1,110 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.event.EquipmentNotice;
+import cl.ufro.bioren_backend.model.NotificationEvent;
+import cl.ufro.bioren_backend.repository.NotificationEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationEventDispatcherTest {
+    @Mock
+    private NotificationEventRepository eventRepository;
+    @Mock
+    private AppNotificationService notificationService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        doCallRealMethod().when(transactionTemplate).executeWithoutResult(any());
+        when(eventRepository.claim(anyLong(), any(), any(), anyInt())).thenReturn(1);
+    }
+
+    private NotificationEventDispatcher dispatcher(int queueCapacity) {
+        return new NotificationEventDispatcher(eventRepository, notificationService, transactionTemplate,
+                1, queueCapacity, 3, Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    private static NotificationEvent event(long id, String message) {
+        return NotificationEvent.builder().id(id).message(message).attempts(1).nextAttemptAt(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void failingBatchIsRetriedOneByOneAndOnlyTheFailingEventIsRescheduled() {
+        NotificationEvent ok = event(1L, "ok");
+        NotificationEvent broken = event(2L, "roto");
+        when(eventRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(ok, broken));
+        when(notificationService.notifyEquipmentTeams(anyList())).thenAnswer(invocation -> {
+            List<EquipmentNotice> notices = invocation.getArgument(0);
+            if (notices.stream().anyMatch(n -> n.message().equals("roto"))) {
+                throw new IllegalStateException("fallo");
+            }
+            return List.of();
+        });
+
+        dispatcher(10).deliver(List.of(1L, 2L));
+
+        verify(eventRepository).deleteAllInBatch(List.of(ok));
+        verify(eventRepository, never()).deleteAllInBatch(List.of(broken));
+        verify(eventRepository).markAttemptFailed(eq(2L), any(), eq("fallo"));
+        verify(eventRepository, never()).markAttemptFailed(eq(1L), any(), any());
+    }
+
+    @Test
+    void eventClaimedByAnotherThreadIsSkipped() {
+        when(eventRepository.claim(eq(1L), any(), any(), anyInt())).thenReturn(0);
+
+        dispatcher(10).deliver(List.of(1L));
+
+        verify(eventRepository, never()).findAllById(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void fullQueueNeverRunsTheWorkOnTheCaller() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        when(eventRepository.findAllById(any())).thenReturn(List.of(event(1L, "aviso")));
+        when(notificationService.notifyEquipmentTeams(anyList())).thenAnswer(invocation -> {
+            synchronized (threads) {
+                threads.add(Thread.currentThread());
+            }
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        NotificationEventDispatcher dispatcher = dispatcher(1);
+        // Cuatro lotes: uno en el hilo del pool, uno en la cola y dos rechazados
+        List<Long> ids = LongStream.rangeClosed(1, 4L * NotificationEventDispatcher.BATCH_SIZE).boxed().toList();
+
+        dispatcher.dispatch(ids);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        dispatcher.destroy();
+
+        synchronized (threads) {
+            assertFalse(threads.contains(Thread.currentThread()));
+        }
+    }
+}
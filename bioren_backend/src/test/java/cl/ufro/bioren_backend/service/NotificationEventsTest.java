@@ -0,0 +1,208 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.EquipmentFilter;
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.model.Equipment;
+import cl.ufro.bioren_backend.model.IssueReport;
+import cl.ufro.bioren_backend.model.IssueSeverity;
+import cl.ufro.bioren_backend.model.MaintenanceFrequencyUnit;
+import cl.ufro.bioren_backend.model.MaintenanceRecord;
+import cl.ufro.bioren_backend.model.NotificationEvent;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.EquipmentRepository;
+import cl.ufro.bioren_backend.repository.IssueReportRepository;
+import cl.ufro.bioren_backend.repository.MaintenanceRecordRepository;
+import cl.ufro.bioren_backend.repository.NotificationCounterRepository;
+import cl.ufro.bioren_backend.repository.NotificationEventRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notificaciones generadas por eventos de dominio: el aviso se guarda con la transacción y las
+ * notificaciones se crean después del commit, fuera del hilo de la petición, solo para los
+ * responsables del equipo y nunca para quien hizo el cambio.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class NotificationEventsTest {
+    @Autowired
+    private IssueReportService issueReportService;
+    @Autowired
+    private MaintenanceRecordService maintenanceRecordService;
+    @Autowired
+    private EquipmentService equipmentService;
+    @Autowired
+    private AppNotificationRepository notificationRepository;
+    @Autowired
+    private NotificationCounterRepository counterRepository;
+    @Autowired
+    private NotificationEventRepository eventRepository;
+    @Autowired
+    private NotificationEventDispatcher dispatcher;
+    @Autowired
+    private IssueReportRepository issueReportRepository;
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User admin;
+    private User jefeLab1;
+    private User jefeLab2;
+    private User encargado;
+    private Equipment equipment;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(User.builder().name("Admin").email("admin@events.com").role(UserRole.BIOREN_ADMIN).enabled(true).build());
+        jefeLab1 = userRepository.save(User.builder().name("Jefe 1").email("jefe1@events.com").role(UserRole.UNIT_MANAGER).unit("Lab1").enabled(true).build());
+        jefeLab2 = userRepository.save(User.builder().name("Jefe 2").email("jefe2@events.com").role(UserRole.UNIT_MANAGER).unit("Lab2").enabled(true).build());
+        encargado = userRepository.save(User.builder().name("Encargado").email("encargado@events.com").role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").enabled(true).build());
+        equipment = equipmentRepository.save(Equipment.builder().institutionalId("EV-1").name("Centrífuga").locationUnit("Lab1")
+                .encargado(encargado).createdDate(LocalDate.now()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        maintenanceRecordRepository.deleteAll();
+        issueReportRepository.deleteAll();
+        equipmentRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch(List.of(admin, jefeLab1, jefeLab2, encargado));
+    }
+
+    /** Espera hasta 5 s a que el usuario tenga la cantidad de notificaciones indicada */
+    private List<AppNotification> awaitInbox(User user, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<AppNotification> inbox = notificationRepository.findInboxFirstPage(user.getId(), Limit.of(50));
+        while (inbox.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            inbox = notificationRepository.findInboxFirstPage(user.getId(), Limit.of(50));
+        }
+        return inbox;
+    }
+
+    private IssueReport issue(IssueSeverity severity) {
+        return IssueReport.builder().equipment(Equipment.builder().id(equipment.getId()).build())
+                .description("Ruido").severity(severity).status("Abierto").dateTime(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void criticalIssueNotifiesTeamAndAdminsButNotTheReporter() throws Exception {
+        issueReportService.create(issue(IssueSeverity.CRITICAL), encargado);
+
+        List<AppNotification> jefeInbox = awaitInbox(jefeLab1, 1);
+        assertEquals(1, jefeInbox.size());
+        assertEquals("error", jefeInbox.get(0).getType());
+        assertTrue(jefeInbox.get(0).getMessage().contains("Centrífuga"));
+        assertEquals(1, awaitInbox(admin, 1).size());
+        assertEquals(1, counterRepository.findUnread(admin.getId()).orElse(0));
+        // El reportante y la otra unidad no reciben nada
+        assertTrue(notificationRepository.findInboxFirstPage(encargado.getId(), Limit.of(50)).isEmpty());
+        assertTrue(notificationRepository.findInboxFirstPage(jefeLab2.getId(), Limit.of(50)).isEmpty());
+    }
+
+    @Test
+    void minorIssueDoesNotNotifyAdmins() throws Exception {
+        issueReportService.create(issue(IssueSeverity.MINOR), admin);
+
+        assertEquals(1, awaitInbox(encargado, 1).size());
+        assertEquals(1, awaitInbox(jefeLab1, 1).size());
+        assertTrue(notificationRepository.findInboxFirstPage(admin.getId(), Limit.of(50)).isEmpty());
+    }
+
+    @Test
+    void maintenanceNotifiesEncargado() throws Exception {
+        maintenanceRecordService.create(MaintenanceRecord.builder().equipment(Equipment.builder().id(equipment.getId()).build())
+                .date(LocalDate.now()).description("Calibración").performedBy("Técnico").build(), jefeLab1);
+
+        List<AppNotification> inbox = awaitInbox(encargado, 1);
+        assertEquals(1, inbox.size());
+        assertEquals("/equipment/" + equipment.getId(), inbox.get(0).getLink());
+    }
+
+    @Test
+    void rolledBackChangeNotifiesNobody() throws Exception {
+        transactionTemplate.executeWithoutResult(tx -> {
+            issueReportService.create(issue(IssueSeverity.CRITICAL), encargado);
+            tx.setRollbackOnly();
+        });
+        Thread.sleep(300);
+        assertEquals(0, notificationRepository.count());
+        assertEquals(0, eventRepository.count());
+    }
+
+    @Test
+    void processedEventsAreRemovedFromTheTable() throws Exception {
+        issueReportService.create(issue(IssueSeverity.MINOR), admin);
+
+        assertEquals(1, awaitInbox(encargado, 1).size());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (eventRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, eventRepository.count());
+    }
+
+    @Test
+    void pendingEventIsDeliveredByThePoller() throws Exception {
+        // Aviso confirmado que no llegó al pool (cola llena o reinicio)
+        LocalDateTime now = LocalDateTime.now();
+        eventRepository.save(NotificationEvent.builder().equipmentId(equipment.getId()).equipmentName("Centrífuga")
+                .institutionalId("EV-1").unit("Lab1").encargadoId(encargado.getId()).type("info")
+                .message("Mantención registrada en Centrífuga (EV-1)").link("/equipment/" + equipment.getId())
+                .attempts(0).nextAttemptAt(now).createdAt(now).build());
+
+        dispatcher.dispatchDue();
+
+        List<AppNotification> inbox = awaitInbox(encargado, 1);
+        assertEquals(1, inbox.size());
+        assertEquals("Mantención registrada en Centrífuga (EV-1)", inbox.get(0).getMessage());
+        assertEquals(1, awaitInbox(jefeLab1, 1).size());
+    }
+
+    @Test
+    void equipmentBecomingOverdueIsNotified() throws Exception {
+        Equipment overdue = equipmentRepository.save(Equipment.builder().institutionalId("EV-2").name("Autoclave").locationUnit("Lab1")
+                .encargado(encargado).createdDate(LocalDate.now().minusYears(2))
+                .maintenanceFrequency(new Equipment.MaintenanceFrequency(6, MaintenanceFrequencyUnit.MONTHS)).build());
+        // Simula un status calculado antes de que venciera
+        transactionTemplate.executeWithoutResult(tx ->
+                equipmentRepository.updateStatus(Equipment.STATUS_OK, EquipmentFilter.forStatus(Equipment.STATUS_OVERDUE, LocalDate.now())));
+
+        equipmentService.refreshStatuses();
+
+        List<AppNotification> inbox = awaitInbox(jefeLab1, 1);
+        assertEquals(1, inbox.size());
+        assertTrue(inbox.get(0).getMessage().contains("EV-2"));
+        assertEquals("/equipment/" + overdue.getId(), inbox.get(0).getLink());
+        assertEquals(1, awaitInbox(encargado, 1).size());
+
+        // Ya vencido: el siguiente recálculo no lo vuelve a notificar
+        equipmentService.refreshStatuses();
+        Thread.sleep(300);
+        assertEquals(2, notificationRepository.count());
+    }
+}
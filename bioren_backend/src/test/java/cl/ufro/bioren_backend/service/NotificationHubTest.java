@@ -0,0 +1,195 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.NotificationCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * NotificationHub con un executor manual: las escrituras ocurren solo al llamar runTasks,
+ * así un cliente que no lee se simula simplemente no ejecutándolas.
+ */
+class NotificationHubTest {
+    private static final int BUFFER_SIZE = 3;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private AppNotificationRepository notificationRepository;
+    private NotificationCounterRepository counterRepository;
+    private NotificationHub hub;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(AppNotificationRepository.class);
+        counterRepository = mock(NotificationCounterRepository.class);
+        hub = new NotificationHub(notificationRepository, counterRepository, tasks::add, BUFFER_SIZE, 2, Duration.ofMinutes(1));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /** Los ids van en sentido contrario a la seq, como pueden quedar con bloques de ids por instancia */
+    private static AppNotification notification(Long seq, Long recipientId) {
+        return AppNotification.builder().id(1000 - seq).seq(seq).message("Aviso " + seq)
+                .recipient(User.builder().id(recipientId).build()).build();
+    }
+
+    @Test
+    void notificationsReachOnlyTheirRecipient() {
+        RecordingEmitter alice = new RecordingEmitter();
+        RecordingEmitter bob = new RecordingEmitter();
+        hub.register(1L, alice, null);
+        hub.register(2L, bob, null);
+
+        hub.publish(List.of(notification(10L, 1L)));
+        runTasks();
+
+        assertEquals(List.of("notification#10"), alice.events);
+        assertTrue(bob.events.isEmpty());
+    }
+
+    @Test
+    void slowConsumerIsEvicted() {
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.register(1L, slow, null);
+        runTasks();
+
+        for (long id = 1; id <= BUFFER_SIZE + 1; id++) {
+            hub.publish(List.of(notification(id, 1L)));
+        }
+        assertEquals(0, hub.connectionCount());
+        runTasks();
+        assertTrue(slow.completed);
+
+        // Ya no recibe nada más
+        hub.publish(List.of(notification(99L, 1L)));
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void heartbeatSendsComment() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter, null);
+        hub.heartbeat();
+        runTasks();
+        assertEquals(List.of(":heartbeat"), emitter.events);
+    }
+
+    @Test
+    void reconnectReplaysMissedNotificationsInOrder() {
+        when(notificationRepository.findReplay(1L, 4L, Limit.of(BUFFER_SIZE + 1)))
+                .thenReturn(List.of(notification(5L, 1L), notification(6L, 1L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter, 4L);
+        hub.publish(List.of(notification(7L, 1L)));
+        runTasks();
+        assertEquals(List.of("notification#5", "notification#6", "notification#7"), emitter.events);
+    }
+
+    @Test
+    void replayedEventsAreNotRepeated() {
+        NotificationHub.Subscriber subscriber = new NotificationHub.Subscriber(1L, new RecordingEmitter(), BUFFER_SIZE);
+        // Llegó en vivo mientras se consultaba el reenvío, que también la incluye
+        subscriber.offer(NotificationHub.Frame.of(notification(6L, 1L)));
+        subscriber.prepend(List.of(NotificationHub.Frame.of(notification(5L, 1L)), NotificationHub.Frame.of(notification(6L, 1L))));
+        assertEquals(5L, subscriber.poll().id());
+        assertEquals(6L, subscriber.poll().id());
+        assertNull(subscriber.poll());
+    }
+
+    @Test
+    void liveDuplicateOfReplayedNotificationIsSentOnce() {
+        when(notificationRepository.findReplay(1L, 4L, Limit.of(BUFFER_SIZE + 1))).thenReturn(List.of(notification(5L, 1L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter, 4L);
+        runTasks();
+        // Se publicó tras registrar al suscriptor pero antes de la consulta de reenvío, que ya la incluía
+        hub.publish(List.of(notification(5L, 1L)));
+        runTasks();
+        assertEquals(List.of("notification#5"), emitter.events);
+    }
+
+    @Test
+    void laterSeqPublishedFirstFillsTheGapFromTheDatabase() {
+        when(counterRepository.findLastSeq(1L)).thenReturn(Optional.of(10L));
+        // La seq 11 tiene un id mayor que la 12 y su transacción publicó después
+        when(notificationRepository.findReplay(1L, 10L, Limit.of(BUFFER_SIZE + 1)))
+                .thenReturn(List.of(notification(11L, 1L), notification(12L, 1L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter, null);
+
+        hub.publish(List.of(notification(12L, 1L)));
+        runTasks();
+        hub.publish(List.of(notification(11L, 1L)));
+        runTasks();
+
+        assertEquals(List.of("notification#11", "notification#12"), emitter.events);
+        // Una reconexión con Last-Event-ID 12 no puede haber perdido la 11
+    }
+
+    @Test
+    void tooManyMissedEventsAsksForResync() {
+        List<AppNotification> missed = new ArrayList<>();
+        for (long id = 1; id <= BUFFER_SIZE + 1; id++) {
+            missed.add(notification(id, 1L));
+        }
+        when(notificationRepository.findReplay(eq(1L), eq(0L), any())).thenReturn(missed);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter, 0L);
+        runTasks();
+        assertEquals(List.of(NotificationHub.RESYNC_EVENT), emitter.events);
+    }
+
+    @Test
+    void rejectsConnectionsOverLimit() {
+        hub.register(1L, new RecordingEmitter(), null);
+        hub.register(1L, new RecordingEmitter(), null);
+        assertThrows(IllegalStateException.class, () -> hub.register(2L, new RecordingEmitter(), null));
+        assertEquals(2, hub.connectionCount());
+    }
+
+    /** Registra los eventos como "nombre#id" y los heartbeats como ":heartbeat" */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            String raw = text.toString();
+            if (raw.startsWith(":")) {
+                events.add(":heartbeat");
+            } else {
+                String name = raw.replaceAll("(?s).*event:([^\\n]*)\\n.*", "$1");
+                String id = raw.contains("id:") ? "#" + raw.replaceAll("(?s).*id:([^\\n]*)\\n.*", "$1") : "";
+                events.add(name + id);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.AppNotification;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.AppNotificationRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retención de notificaciones: plazo por tipo, bloques acotados y purga del archivo
+ * (en H2 la tabla no está particionada y se borra por bloques).
+ */
+@SpringBootTest(properties = {
+        "bioren.notifications.retention.default-days=90",
+        "bioren.notifications.retention.days-by-type=info:30,error:365",
+        "bioren.notifications.retention.batch-size=2",
+        "bioren.notifications.archive.retention-months=24"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class NotificationRetentionTest {
+    @Autowired
+    private NotificationRetentionService retentionService;
+    @Autowired
+    private NotificationArchivePartitions archivePartitions;
+    @Autowired
+    private AppNotificationRepository notificationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Retención").email("retencion@inbox.com")
+                .role(UserRole.EQUIPMENT_MANAGER).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from app_notification_archive");
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch(List.of(user));
+    }
+
+    private AppNotification notification(String type, int daysAgo, boolean read) {
+        return AppNotification.builder()
+                .recipient(user)
+                .type(type)
+                .message(type + " hace " + daysAgo + " días")
+                .timestamp(now.minusDays(daysAgo))
+                .isRead(read)
+                .build();
+    }
+
+    private Set<String> remainingMessages() {
+        return notificationRepository.findAll().stream().map(AppNotification::getMessage).collect(Collectors.toSet());
+    }
+
+    @Test
+    void archivesReadNotificationsPastTheirTypeWindow() {
+        List<AppNotification> saved = notificationRepository.saveAll(List.of(
+                notification("info", 40, true),
+                notification("info", 40, false),
+                notification("info", 10, true),
+                notification("error", 200, true),
+                notification("error", 400, true),
+                notification("warning", 100, true),
+                notification("warning", 60, true)));
+
+        assertEquals(3, retentionService.archiveExpired(now));
+
+        assertEquals(Set.of("info hace 40 días", "info hace 10 días", "error hace 200 días", "warning hace 60 días"),
+                remainingMessages());
+        // La no leída de 40 días sigue en la bandeja
+        assertEquals(1, notificationRepository.findAll().stream()
+                .filter(n -> n.getMessage().equals("info hace 40 días") && !n.isRead()).count());
+        List<Long> archived = jdbcTemplate.queryForList(
+                "select id from app_notification_archive where recipient_id = ? order by id", Long.class, user.getId());
+        assertEquals(List.of(saved.get(0).getId(), saved.get(4).getId(), saved.get(5).getId()), archived);
+    }
+
+    @Test
+    void archivesInChunksUntilNothingIsLeft() {
+        List<AppNotification> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(notification("info", 31 + i, true));
+        }
+        notificationRepository.saveAll(old);
+
+        // Bloques de 2: 2 + 2 + 1
+        assertEquals(5, retentionService.archiveExpired(now));
+        assertEquals(0, notificationRepository.count());
+        assertEquals(5, jdbcTemplate.queryForObject("select count(*) from app_notification_archive", Integer.class));
+        assertEquals(0, retentionService.archiveExpired(now));
+    }
+
+    @Test
+    void purgesArchiveAfterRetentionMonths() {
+        notificationRepository.saveAll(List.of(
+                notification("info", 900, true),
+                notification("info", 800, true),
+                notification("info", 100, true)));
+        retentionService.archiveExpired(now);
+
+        assertEquals(2, archivePartitions.purgeExpired(now.toLocalDate()));
+        assertEquals(List.of("info hace 100 días"),
+                jdbcTemplate.queryForList("select message from app_notification_archive", String.class));
+    }
+}
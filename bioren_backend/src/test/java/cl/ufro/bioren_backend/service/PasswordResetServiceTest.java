@@ -0,0 +1,78 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.model.InvitationToken;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.InvitationTokenRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import cl.ufro.bioren_backend.security.OneTimeToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PasswordResetServiceTest {
+    @Mock
+    private InvitationTokenRepository invitationTokenRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EmailOutboxService emailOutboxService;
+    @InjectMocks
+    private PasswordResetService passwordResetService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = User.builder().id(5L).email("user@test.com").role(UserRole.EQUIPMENT_MANAGER).build();
+    }
+
+    @Test
+    void storesOnlyTheHashOfTheEmailedToken() throws Exception {
+        PasswordResetService service = spy(passwordResetService);
+        ArgumentCaptor<String> sentToken = ArgumentCaptor.forClass(String.class);
+        doNothing().when(service).sendResetEmail(eq("user@test.com"), sentToken.capture());
+
+        service.createAndSendResetToken(user);
+
+        ArgumentCaptor<InvitationToken> saved = ArgumentCaptor.forClass(InvitationToken.class);
+        verify(invitationTokenRepository).save(saved.capture());
+        String token = sentToken.getValue();
+        assertEquals(43, token.length());
+        assertEquals(OneTimeToken.HASH_LENGTH, saved.getValue().getTokenHash().length);
+        assertArrayEquals(OneTimeToken.hash(token), saved.getValue().getTokenHash());
+    }
+
+    @Test
+    void validateLooksUpByHash() {
+        String token = OneTimeToken.generate();
+        InvitationToken stored = InvitationToken.builder().user(user).tokenHash(OneTimeToken.hash(token))
+                .expiry(LocalDateTime.now().plusHours(1)).build();
+        when(invitationTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+        when(invitationTokenRepository.findByTokenHash(argThat(hash -> Arrays.equals(hash, OneTimeToken.hash(token)))))
+                .thenReturn(Optional.of(stored));
+
+        assertTrue(passwordResetService.validateToken(token).isPresent());
+        assertTrue(passwordResetService.validateToken(OneTimeToken.generate()).isEmpty());
+    }
+
+    @Test
+    void expiredTokenIsInvalid() {
+        String token = OneTimeToken.generate();
+        when(invitationTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(InvitationToken.builder()
+                .user(user).tokenHash(OneTimeToken.hash(token)).expiry(LocalDateTime.now().minusMinutes(1)).build()));
+        assertTrue(passwordResetService.validateToken(token).isEmpty());
+    }
+}
@@ -0,0 +1,201 @@
+package cl.ufro.bioren_backend.service;
+
+import cl.ufro.bioren_backend.dto.UserImportResult;
+import cl.ufro.bioren_backend.dto.UserImportRow;
+import cl.ufro.bioren_backend.model.User;
+import cl.ufro.bioren_backend.model.UserImportJob;
+import cl.ufro.bioren_backend.model.UserRole;
+import cl.ufro.bioren_backend.repository.UserImportJobRepository;
+import cl.ufro.bioren_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+    @Mock
+    private UserService userService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserImportJobRepository userImportJobRepository;
+    @Mock
+    private EmailOutboxService emailOutboxService;
+    @InjectMocks
+    private UserImportService userImportService;
+    private User admin;
+    private User unitManager;
+    private List<User> saved;
+    private List<Collection<String>> queriedEmails;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        admin = User.builder().id(1L).email("admin@test.com").role(UserRole.BIOREN_ADMIN).build();
+        unitManager = User.builder().id(2L).email("manager@test.com").role(UserRole.UNIT_MANAGER).unit("Lab1").build();
+        queriedEmails = new ArrayList<>();
+        when(userRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            queriedEmails.add(Set.copyOf(invocation.<Collection<String>>getArgument(0)));
+            // Guardado con otras mayúsculas: la collation de la columna lo encuentra igual
+            return List.of("Existente@Test.com");
+        });
+        // El servicio reutiliza la lista del bloque, por lo que se copia al capturarla; los ids los asigna el guardado
+        saved = new ArrayList<>();
+        AtomicLong ids = new AtomicLong(100);
+        doAnswer(invocation -> {
+            List<User> chunk = invocation.getArgument(0);
+            chunk.forEach(u -> u.setId(ids.incrementAndGet()));
+            return saved.addAll(chunk);
+        }).when(userService).saveImportChunk(anyList(), anyString());
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importsValidRowsAndReportsInvalidOnes() throws Exception {
+        String content = """
+                email,name,role,unit
+                nuevo@test.com,Nuevo,unit_manager,Lab1
+                otro@test.com,Otro,,Lab2
+                Existente@test.com,Repetido en base,,
+                NUEVO@test.com,Repetido en archivo,,
+                ,Sin email,,
+                sin-arroba,Email malo,,
+                rol@test.com,Rol malo,JEFE,
+                """;
+        UserImportResult result = userImportService.importCsv(csv(content), admin);
+
+        assertEquals(2, result.created());
+        assertNotNull(result.jobId());
+        assertEquals(List.of("nuevo@test.com", "otro@test.com"), saved.stream().map(User::getEmail).toList());
+        User first = saved.get(0);
+        assertEquals(UserRole.UNIT_MANAGER, first.getRole());
+        assertFalse(first.isEnabled());
+        assertTrue(first.isMustChangePassword());
+        assertNull(first.getPassword());
+        assertEquals(UserRole.EQUIPMENT_MANAGER, saved.get(1).getRole());
+
+        assertEquals(7, result.rows().size());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L), result.rows().stream().map(UserImportResult.RowResult::line).toList());
+        assertEquals(101L, result.rows().get(0).userId());
+        assertNull(result.rows().get(0).error());
+        assertTrue(result.rows().subList(2, 7).stream().allMatch(r -> r.userId() == null && r.error() != null));
+        // Una sola consulta de unicidad, con los emails normalizados
+        assertEquals(List.of(Set.of("nuevo@test.com", "otro@test.com", "existente@test.com", "sin-arroba", "rol@test.com")),
+                queriedEmails);
+    }
+
+    @Test
+    void savesInChunksWithOneUniquenessQuery() {
+        int rows = UserImportService.CHUNK_SIZE * 2 + 7;
+        List<UserImportRow> input = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            input.add(new UserImportRow("usuario" + i + "@test.com", "Usuario " + i, null, "Lab1"));
+        }
+        UserImportResult result = userImportService.importRows(input, admin);
+
+        assertEquals(rows, result.created());
+        assertEquals(1, result.rows().get(0).line());
+        verify(userService, times(3)).saveImportChunk(anyList(), eq(result.jobId()));
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void unitManagerImportsIntoTheirUnit() {
+        userImportService.importRows(List.of(new UserImportRow("nuevo@test.com", "Nuevo", null, "Lab2")), unitManager);
+        assertEquals("Lab1", saved.get(0).getUnit());
+    }
+
+    @Test
+    void importRecordsWhoMadeIt() {
+        UserImportResult result = userImportService.importRows(List.of(new UserImportRow("nuevo@test.com", null, null, null)), unitManager);
+        verify(userImportJobRepository).save(argThat((UserImportJob job) ->
+                job.getId().equals(result.jobId()) && job.getCreatedBy().equals(2L)));
+    }
+
+    @Test
+    void importStatusOfAnotherUsersJobIsNotFound() {
+        when(userImportJobRepository.findById("job")).thenReturn(Optional.of(UserImportJob.builder().id("job").createdBy(1L).build()));
+        assertTrue(userImportService.getImportStatus("job", unitManager).isEmpty());
+        assertTrue(userImportService.getImportStatus("job", admin).isPresent());
+        verify(emailOutboxService, times(1)).countByStatus("job");
+    }
+
+    @Test
+    void failedRowsGetAFixedMessageWithoutTheException() {
+        doThrow(new RuntimeException("Duplicate entry for key uk_user_email")).when(userService).saveImportChunk(anyList(), anyString());
+        UserImportResult result = userImportService.importRows(List.of(
+                new UserImportRow("a@test.com", null, null, null), new UserImportRow("b@test.com", null, null, null)), admin);
+        assertEquals(0, result.created());
+        assertTrue(result.rows().stream().allMatch(r -> r.userId() == null && r.error().equals(UserImportService.SAVE_ERROR)));
+    }
+
+    @Test
+    void failedChunkIsRetriedRowByRowSoOnlyTheFailingRowIsReported() {
+        doAnswer(invocation -> {
+            List<User> chunk = invocation.getArgument(0);
+            if (chunk.stream().anyMatch(u -> u.getEmail().equals("malo@test.com"))) {
+                // Como el guardado real: los ids ya asignados quedan en las entidades de la transacción revertida
+                chunk.forEach(u -> u.setId(999L));
+                throw new RuntimeException("constraint");
+            }
+            assertTrue(chunk.stream().allMatch(u -> u.getId() == null));
+            chunk.forEach(u -> u.setId(200L + saved.size()));
+            return saved.addAll(chunk);
+        }).when(userService).saveImportChunk(anyList(), anyString());
+
+        UserImportResult result = userImportService.importRows(List.of(
+                new UserImportRow("a@test.com", null, null, null),
+                new UserImportRow("malo@test.com", null, null, null),
+                new UserImportRow("b@test.com", null, null, null)), admin);
+
+        assertEquals(2, result.created());
+        assertNotNull(result.rows().get(0).userId());
+        assertNull(result.rows().get(0).error());
+        assertEquals(UserImportService.SAVE_ERROR, result.rows().get(1).error());
+        assertNull(result.rows().get(1).userId());
+        assertNotNull(result.rows().get(2).userId());
+        assertEquals(List.of("a@test.com", "b@test.com"), saved.stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    void rejectsUnknownColumnsAndOversizedImports() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userImportService.importCsv(csv("email,password\na@test.com,secreto\n"), admin));
+        List<UserImportRow> tooMany = new ArrayList<>();
+        for (int i = 0; i <= UserImportService.MAX_ROWS; i++) {
+            tooMany.add(new UserImportRow("u" + i + "@test.com", null, null, null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> userImportService.importRows(tooMany, admin));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void equipmentManagerCannotImport() {
+        User equipmentManager = User.builder().id(3L).role(UserRole.EQUIPMENT_MANAGER).unit("Lab1").build();
+        assertThrows(AccessDeniedException.class,
+                () -> userImportService.importRows(List.of(new UserImportRow("a@test.com", null, null, null)), equipmentManager));
+    }
+}
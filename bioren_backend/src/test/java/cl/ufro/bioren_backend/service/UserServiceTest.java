@@ -43,10 +43,11 @@ class UserServiceTest {
 
     @Test
     void unitManagerCanGetUsersOfTheirUnit() {
-        when(userRepository.findAll()).thenReturn(Arrays.asList(userInLab1, userInLab2));
+        when(userRepository.findByUnit("Lab1")).thenReturn(List.of(userInLab1));
         List<User> result = userService.getAllUsers(unitManager);
         assertEquals(1, result.size());
         assertEquals("Lab1", result.get(0).getUnit());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -112,4 +113,12 @@ class UserServiceTest {
         when(userRepository.findById(4L)).thenReturn(Optional.of(userInLab2));
         assertThrows(AccessDeniedException.class, () -> userService.deleteUser(4L, unitManager));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void updatePasswordOnlyStoresTheGivenHash() {
+        when(userRepository.findById(3L)).thenReturn(Optional.of(userInLab1));
+        userService.updatePassword(3L, "$2a$hash");
+        assertEquals("$2a$hash", userInLab1.getPassword());
+        verify(userRepository).save(userInLab1);
+    }
+}
@@ -85,7 +85,7 @@ const DashboardPage: React.FC = () => {
             unit: equip.encargado.unit
         } : undefined,
         maintenanceFrequency: equip.maintenanceFrequency || { value: 0, unit: 'MONTHS' as any },
-        maintenanceRecords: equip.maintenanceRecords,
+        maintenanceRecords: equip.maintenanceRecords ?? [],
         customMaintenanceInstructions: equip.customMaintenanceInstructions,
         criticality: equip.criticality as any,
         status: equip.status as any,
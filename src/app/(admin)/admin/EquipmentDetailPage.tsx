@@ -15,9 +15,8 @@ import { useAuth } from '@/hooks/useAuth';
 import Modal from '@/components/ui/Modal';
 import TextInput from '@/components/ui/TextInput';
 import DateInput from '@/components/ui/DateInput';
-import { getEquipmentById, deleteEquipment } from '@/lib/api/services/equipmentService';
+import { getEquipmentById, deleteEquipment, getEquipmentMaintenanceHistory } from '@/lib/api/services/equipmentService';
 import {
-  getMaintenanceRecords,
   createMaintenanceRecord,
   updateMaintenanceRecord,
   deleteMaintenanceRecord,
@@ -46,11 +45,8 @@ const EquipmentDetailPage: React.FC = () => {
     const loadMaintenanceHistory = async () => {
         if (!equipmentId) return;
         try {
-            const records = await getMaintenanceRecords();
-            const equipmentRecords = records.filter(
-                (r: any) => r.equipment?.id?.toString() === equipmentId
-            );
-            setMaintenanceHistory(equipmentRecords);
+            const records = await getEquipmentMaintenanceHistory(equipmentId);
+            setMaintenanceHistory(records);
         } catch (err) {
             console.error(err);
         }
@@ -1,5 +1,5 @@
 import apiClient from '@/lib/api/client/apiClient';
-import { Equipment } from '@/types';
+import { Equipment, MaintenanceRecord } from '@/types';
 import {
   createMaintenanceRecord as createMaintenanceRecordApi,
   MaintenanceRecordRequest,
@@ -27,7 +27,8 @@ export interface EquipmentResponse {
     value: number;
     unit: string;
   };
-  maintenanceRecords: any[];
+  // El listado y el detalle ya no incluyen el historial; ver getEquipmentMaintenanceHistory
+  maintenanceRecords?: any[];
   customMaintenanceInstructions?: string;
   criticality?: string;
   status?: string;
@@ -35,9 +36,20 @@ export interface EquipmentResponse {
   purchasedByGovernment?: boolean;
 }
 
+// El backend pagina por cursor; se recorren todas las páginas siguiendo X-Next-Cursor
+const EQUIPMENT_PAGE_SIZE = 500;
+
 export const getEquipments = async (): Promise<EquipmentResponse[]> => {
-  const response = await apiClient.get('/equipment');
-  return response.data;
+  const equipments: EquipmentResponse[] = [];
+  let cursor: string | undefined;
+  do {
+    const response = await apiClient.get('/equipment', {
+      params: { limit: EQUIPMENT_PAGE_SIZE, cursor },
+    });
+    equipments.push(...response.data);
+    cursor = response.headers['x-next-cursor'];
+  } while (cursor);
+  return equipments;
 };
 
 export const getEquipmentById = async (id: string): Promise<EquipmentResponse> => {
@@ -45,6 +57,11 @@ export const getEquipmentById = async (id: string): Promise<EquipmentResponse> =
   return response.data;
 };
 
+export const getEquipmentMaintenanceHistory = async (id: string): Promise<MaintenanceRecord[]> => {
+  const response = await apiClient.get(`/equipment/${id}/maintenance`);
+  return response.data;
+};
+
 export const createEquipment = async (equipment: Omit<Equipment, 'id'>): Promise<EquipmentResponse> => {
   const response = await apiClient.post('/equipment', equipment);
   return response.data;
@@ -55,6 +72,30 @@ export const updateEquipment = async (id: string, equipment: Partial<Equipment>)
   return response.data;
 };
 
+export interface EquipmentImportResult {
+  imported: number;
+  errors: { line: number; institutionalId?: string; message: string }[];
+}
+
+// Importación masiva desde CSV; el backend responde con las filas rechazadas
+export const importEquipments = async (file: File): Promise<EquipmentImportResult> => {
+  const formData = new FormData();
+  formData.append('file', file);
+  const response = await apiClient.post('/equipment/import', formData, {
+    headers: { 'Content-Type': 'multipart/form-data' },
+  });
+  return response.data;
+};
+
+// Exportación del inventario con historial de mantenimiento
+export const exportInventory = async (format: 'csv' | 'xlsx' = 'csv'): Promise<Blob> => {
+  const response = await apiClient.get('/equipment/export', {
+    params: { format },
+    responseType: 'blob',
+  });
+  return response.data;
+};
+
 export const deleteEquipment = async (id: string): Promise<void> => {
   await apiClient.delete(`/equipment/${id}`);
 };